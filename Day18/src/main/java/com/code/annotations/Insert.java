@@ -21,4 +21,11 @@ public @interface Insert {
      * @return {@link String[]}
      */
     String[] value();
+
+    /**
+     * 参数为集合或数组时，是否把按单个元素编写的语句展开为多行 INSERT ... VALUES (...), (...)
+     *
+     * @return boolean
+     */
+    boolean multiRow() default false;
 }
@@ -0,0 +1,50 @@
+package com.code.binding;
+
+import com.code.mapping.SqlCommandType;
+import com.code.session.AsyncSqlSession;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步映射器代理
+ * <p>
+ * 映射器方法需返回 CompletableFuture，方法调用被提交到异步会话的执行器上执行，
+ * 增删改语句执行成功后自动提交
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class AsyncMapperProxy<T> implements InvocationHandler {
+
+    private final AsyncSqlSession asyncSqlSession;
+
+    private final Class<T> mapperInterface;
+
+    /**
+     * 方法缓存
+     */
+    private final Map<Method, MapperMethod> methodCache;
+
+    public AsyncMapperProxy(AsyncSqlSession asyncSqlSession, Class<T> mapperInterface, Map<Method, MapperMethod> methodCache) {
+        this.asyncSqlSession = asyncSqlSession;
+        this.mapperInterface = mapperInterface;
+        this.methodCache = methodCache;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (Object.class.equals(method.getDeclaringClass())) {
+            return method.invoke(this, args);
+        }
+        if (!CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+            throw new RuntimeException("异步映射器方法 " + mapperInterface.getName() + "." + method.getName() + " 的返回类型必须为 CompletableFuture！");
+        }
+        final MapperMethod mapperMethod = methodCache.computeIfAbsent(method,
+                key -> new MapperMethod(mapperInterface, key, asyncSqlSession.getConfiguration()));
+        boolean commit = mapperMethod.getSqlCommandType() != SqlCommandType.SELECT;
+        return asyncSqlSession.execute(sqlSession -> mapperMethod.execute(sqlSession, args), commit);
+    }
+}
@@ -1,12 +1,18 @@
 package com.code.binding;
 
+import com.code.cursor.Cursor;
 import com.code.mapping.MappedStatement;
 import com.code.mapping.SqlCommandType;
 import com.code.session.Configuration;
+import com.code.session.ResultHandler;
+import com.code.session.RowBounds;
 import com.code.session.SqlSession;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -49,8 +55,13 @@ public class MapperMethod {
             }
             case SELECT -> {
                 Object param = methodSignature.convertArgsSqlCommandParameter(args);
-                if (methodSignature.returnMany) {
-                    result = sqlSession.selectList(command.getName(), param);
+                if (methodSignature.hasResultHandler()) {
+                    // 结果逐行交给方法参数中的结果处理器，方法本身不返回结果
+                    sqlSession.select(command.getName(), param, methodSignature.extractRowBounds(args), methodSignature.extractResultHandler(args));
+                } else if (methodSignature.returnsCursor) {
+                    result = sqlSession.selectCursor(command.getName(), param, methodSignature.extractRowBounds(args));
+                } else if (methodSignature.returnMany) {
+                    result = sqlSession.selectList(command.getName(), param, methodSignature.extractRowBounds(args));
                 } else {
                     result = sqlSession.selectOne(command.getName(), param);
                 }
@@ -60,6 +71,15 @@ public class MapperMethod {
         return result;
     }
 
+    /**
+     * 获取 SQL 命令类型
+     *
+     * @return {@link SqlCommandType}
+     */
+    public SqlCommandType getSqlCommandType() {
+        return command.getType();
+    }
+
     /**
      * sql 命令
      *
@@ -99,18 +119,77 @@ public class MapperMethod {
          */
         private final boolean returnMany;
 
+        /**
+         * 是否返回游标
+         */
+        private final boolean returnsCursor;
+
         private final Class<?> returnType;
         private final SortedMap<Integer, String> parameters;
 
+        /**
+         * RowBounds 参数的位置(没有时为 null)
+         */
+        private final Integer rowBoundsIndex;
+
+        /**
+         * ResultHandler 参数的位置(没有时为 null)
+         */
+        private final Integer resultHandlerIndex;
+
         public MethodSignature(Configuration configuration, Method method) {
             /*
               返回类型
              */
-            returnType = method.getReturnType();
+            returnType = resolveReturnType(method);
             this.returnMany = (configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray());
+            this.returnsCursor = Cursor.class.equals(this.returnType);
+            this.rowBoundsIndex = getUniqueParameterIndex(method, RowBounds.class);
+            this.resultHandlerIndex = getUniqueParameterIndex(method, ResultHandler.class);
             this.parameters = Collections.unmodifiableSortedMap(getParameters(method));
         }
 
+        /**
+         * 解析方法的返回类型(异步映射器方法返回 CompletableFuture，取其泛型参数作为实际返回类型)
+         *
+         * @param method 方法
+         * @return {@link Class}<{@link ?}>
+         */
+        private static Class<?> resolveReturnType(Method method) {
+            Class<?> type = method.getReturnType();
+            if (CompletableFuture.class.isAssignableFrom(type) && method.getGenericReturnType() instanceof ParameterizedType parameterizedType) {
+                Type argument = parameterizedType.getActualTypeArguments()[0];
+                if (argument instanceof Class<?> clazz) {
+                    return clazz;
+                } else if (argument instanceof ParameterizedType argumentType) {
+                    return (Class<?>) argumentType.getRawType();
+                }
+                return Object.class;
+            }
+            return type;
+        }
+
+        /**
+         * 获取指定类型参数的位置(同一类型的参数最多只能有一个)
+         *
+         * @param method    方法
+         * @param paramType 参数类型
+         * @return {@link Integer} 没有该类型参数时返回 null
+         */
+        private Integer getUniqueParameterIndex(Method method, Class<?> paramType) {
+            Integer index = null;
+            final Class<?>[] argTypes = method.getParameterTypes();
+            for (int i = 0; i < argTypes.length; i++) {
+                if (paramType.isAssignableFrom(argTypes[i])) {
+                    if (index != null) {
+                        throw new RuntimeException(method.getName() + " 方法不能有多个 " + paramType.getSimpleName() + " 参数！");
+                    }
+                    index = i;
+                }
+            }
+            return index;
+        }
+
         /**
          * 获取参数参数
          *
@@ -122,6 +201,10 @@ public class MapperMethod {
             final SortedMap<Integer, String> parameters = new TreeMap<>();
             final Class<?>[] argTypes = method.getParameterTypes();
             for (int i = 0; i < argTypes.length; i++) {
+                // RowBounds 与 ResultHandler 不作为 SQL 参数
+                if (RowBounds.class.isAssignableFrom(argTypes[i]) || ResultHandler.class.isAssignableFrom(argTypes[i])) {
+                    continue;
+                }
                 String parameterName = String.valueOf(parameters.size());
                 parameters.put(i, parameterName);
             }
@@ -137,6 +220,34 @@ public class MapperMethod {
             return returnMany;
         }
 
+        public boolean isReturnsCursor() {
+            return returnsCursor;
+        }
+
+        public boolean hasResultHandler() {
+            return resultHandlerIndex != null;
+        }
+
+        /**
+         * 从参数中取出 RowBounds
+         *
+         * @param args 参数
+         * @return {@link RowBounds} 方法没有 RowBounds 参数或传入 null 时返回默认值
+         */
+        public RowBounds extractRowBounds(Object[] args) {
+            return rowBoundsIndex != null && args[rowBoundsIndex] != null ? (RowBounds) args[rowBoundsIndex] : RowBounds.DEFAULT;
+        }
+
+        /**
+         * 从参数中取出 ResultHandler
+         *
+         * @param args 参数
+         * @return {@link ResultHandler}
+         */
+        public ResultHandler extractResultHandler(Object[] args) {
+            return resultHandlerIndex != null ? (ResultHandler) args[resultHandlerIndex] : null;
+        }
+
         /**
          * 转换参数列表为 SQL命令参数
          *
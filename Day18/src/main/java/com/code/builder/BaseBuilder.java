@@ -70,4 +70,15 @@ public abstract class BaseBuilder {
     protected Boolean booleanValueOf(String value,Boolean defaultValue) {
         return value == null ? defaultValue : Boolean.valueOf(value);
     }
+
+    /**
+     * 整数值
+     *
+     * @param value        值
+     * @param defaultValue 默认值
+     * @return {@link Integer}
+     */
+    protected Integer integerValueOf(String value, Integer defaultValue) {
+        return value == null || value.isBlank() ? defaultValue : Integer.valueOf(value.trim());
+    }
 }
@@ -1,9 +1,11 @@
 package com.code.builder;
 
 import com.code.cache.Cache;
-import com.code.cache.Impl.PerpetualCache;
+import com.code.cache.Weigher;
+import com.code.cache.Impl.ConcurrentCache;
 import com.code.cache.decorator.FIFOCache;
 import com.code.executor.keygen.KeyGenerator;
+import com.code.executor.keygen.SelectKeyGenerator;
 import com.code.mapping.*;
 import com.code.reflection.MetaClass;
 import com.code.script.LanguageDriver;
@@ -87,9 +89,34 @@ public class MapperBuilderAssistant extends BaseBuilder{
      * @return {@link MappedStatement}
      */
     public MappedStatement addMappedStatement(String id, SqlSource sqlSource, SqlCommandType sqlCommandType,Class<?> parameterType, String resultMap, Class<?> resultType,boolean flushCache,boolean useCache, KeyGenerator keyGenerator,String keyProperty, LanguageDriver languageDriver) {
+        return addMappedStatement(id, sqlSource, sqlCommandType, parameterType, resultMap, resultType, flushCache, useCache, keyGenerator, keyProperty, languageDriver, null, null);
+    }
+
+    /**
+     * 添加映射语句(带超时时间与 fetchSize)
+     *
+     * @param timeout   语句超时时间(秒，为 null 时使用全局默认值)
+     * @param fetchSize 每次往返读取的行数(为 null 时在执行时使用全局默认值或自适应值)
+     * @return {@link MappedStatement}
+     */
+    public MappedStatement addMappedStatement(String id, SqlSource sqlSource, SqlCommandType sqlCommandType,Class<?> parameterType, String resultMap, Class<?> resultType,boolean flushCache,boolean useCache, KeyGenerator keyGenerator,String keyProperty, LanguageDriver languageDriver, Integer timeout, Integer fetchSize) {
+        return addMappedStatement(id, sqlSource, sqlCommandType, parameterType, resultMap, resultType, flushCache, useCache, keyGenerator, keyProperty, languageDriver, timeout, fetchSize, false);
+    }
+
+    /**
+     * 添加映射语句(可将集合参数展开为多行插入)
+     *
+     * @param multiRowInsert 是否把集合参数展开为多行 INSERT 语句(仅对 insert 语句有效)
+     * @return {@link MappedStatement}
+     */
+    public MappedStatement addMappedStatement(String id, SqlSource sqlSource, SqlCommandType sqlCommandType,Class<?> parameterType, String resultMap, Class<?> resultType,boolean flushCache,boolean useCache, KeyGenerator keyGenerator,String keyProperty, LanguageDriver languageDriver, Integer timeout, Integer fetchSize, boolean multiRowInsert) {
         // 为id加上namespace前缀(com.code.test.dao.UserDao.getUserById)
         id = applyCurrentNameSpace(id,false);
 
+        if (multiRowInsert && (sqlCommandType != SqlCommandType.INSERT || keyGenerator instanceof SelectKeyGenerator)) {
+            throw new RuntimeException("多行插入仅支持 insert 语句且不能与 selectKey 同时使用：" + id);
+        }
+
         // 是否为 select 语句
         boolean isSelect = sqlCommandType == SqlCommandType.SELECT;
 
@@ -97,6 +124,10 @@ public class MapperBuilderAssistant extends BaseBuilder{
         builder.resource(resource);
         builder.keyGenerator(keyGenerator);
         builder.keyProperty(keyProperty);
+        // 只保存语句自身的配置，全局默认值在执行时由语句处理器回退，运行期修改默认值同样生效
+        builder.timeout(timeout);
+        builder.fetchSize(fetchSize);
+        builder.multiRowInsert(multiRowInsert);
 
         // 结果映射
         setStatementResultMap(resultMap,resultType,builder);
@@ -139,8 +170,29 @@ public class MapperBuilderAssistant extends BaseBuilder{
      * @return {@link Cache}
      */
     public Cache useNewCache(Class<? extends Cache> typeClass, Class<? extends Cache> evictionClass, Long flushInterval, Integer size, boolean readWrite, boolean blocking, Properties properties) {
+        return useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, properties, null, null);
+    }
+
+    /**
+     * 使用新缓存(按内存预算限制容量)
+     *
+     * @param maxBytes 内存预算(字节)，为 null 时只按条目数限制容量
+     * @param weigher  权重计算器，为 null 时按行数 × 估算的单行大小计算
+     * @return {@link Cache}
+     */
+    public Cache useNewCache(Class<? extends Cache> typeClass, Class<? extends Cache> evictionClass, Long flushInterval, Integer size, boolean readWrite, boolean blocking, Properties properties, Long maxBytes, Class<? extends Weigher> weigher) {
+        return useNewCache(typeClass, evictionClass, flushInterval, null, size, readWrite, blocking, properties, maxBytes, weigher);
+    }
+
+    /**
+     * 使用新缓存(缓存项按存活时间过期)
+     *
+     * @param timeToLive 缓存项存活时间(毫秒)，为 null 时不过期
+     * @return {@link Cache}
+     */
+    public Cache useNewCache(Class<? extends Cache> typeClass, Class<? extends Cache> evictionClass, Long flushInterval, Long timeToLive, Integer size, boolean readWrite, boolean blocking, Properties properties, Long maxBytes, Class<? extends Weigher> weigher) {
         // 判断为null，则用默认值
-        typeClass = valueOrDefault(typeClass, PerpetualCache.class);
+        typeClass = valueOrDefault(typeClass, ConcurrentCache.class);
         evictionClass = valueOrDefault(evictionClass, FIFOCache.class);
 
         // 建造者模式构建 Cache
@@ -148,10 +200,13 @@ public class MapperBuilderAssistant extends BaseBuilder{
                 .implementation(typeClass)
                 .addDecorator(evictionClass)
                 .clearInterval(flushInterval)
+                .timeToLive(timeToLive)
                 .size(size)
                 .readWrite(readWrite)
                 .blocking(blocking)
                 .properties(properties)
+                .maxBytes(maxBytes)
+                .weigher(weigher)
                 .build();
 
         // 添加缓存
@@ -3,6 +3,7 @@ package com.code.builder.annotation;
 import com.code.annotations.*;
 import com.code.binding.MapperMethod;
 import com.code.builder.MapperBuilderAssistant;
+import com.code.cursor.Cursor;
 import com.code.executor.keygen.Jdbc3KeyGenerator;
 import com.code.executor.keygen.KeyGenerator;
 import com.code.executor.keygen.NoKeyGenerator;
@@ -17,6 +18,7 @@ import com.mysql.fabric.xmlrpc.base.Param;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 注解配置构建器
@@ -78,6 +80,13 @@ public class MapperAnnotationBuilder {
         // 获取方法的参数类型
         Class<?> parameterTypeClass = getParameterType(method);
 
+        // 多行插入：语句按集合中的单个元素编写，参数类型取元素类型
+        Insert insert = method.getAnnotation(Insert.class);
+        boolean multiRow = insert != null && insert.multiRow();
+        if (multiRow) {
+            parameterTypeClass = getElementType(method, parameterTypeClass);
+        }
+
         // 获取语言驱动器
         LanguageDriver driver = getLanguageDriver(method);
 
@@ -120,7 +129,10 @@ public class MapperAnnotationBuilder {
                     false,
                     keyGenerator,
                     keyProperty,
-                    driver
+                    driver,
+                    null,
+                    null,
+                    multiRow
             );
         }
     }
@@ -134,11 +146,24 @@ public class MapperAnnotationBuilder {
     private Class<?> getReturnType(Method method) {
         // 获取方法的原始返回类型
         Class<?> returnType = method.getReturnType();
+        Type genericReturnType = method.getGenericReturnType();
+
+        // 异步映射器方法返回 CompletableFuture，取其泛型参数作为实际返回类型
+        if (CompletableFuture.class.isAssignableFrom(returnType) && genericReturnType instanceof ParameterizedType parameterizedType) {
+            genericReturnType = parameterizedType.getActualTypeArguments()[0];
+            if (genericReturnType instanceof Class<?> clazz) {
+                returnType = clazz;
+            } else if (genericReturnType instanceof ParameterizedType argumentType) {
+                returnType = (Class<?>) argumentType.getRawType();
+            } else {
+                returnType = Object.class;
+            }
+        }
 
-        // 如果返回类型是集合类型（Collection），则进一步获取泛型参数的实际类型
-        if (Collection.class.isAssignableFrom(returnType)) {
+        // 如果返回类型是集合类型（Collection）或游标（Cursor），则进一步获取泛型参数的实际类型
+        if (Collection.class.isAssignableFrom(returnType) || Cursor.class.equals(returnType)) {
             // 获取方法的泛型返回类型
-            Type returnTypeParameter = method.getGenericReturnType();
+            Type returnTypeParameter = genericReturnType;
 
             // 如果是参数化类型（ParameterizedType），则获取其泛型参数
             if (returnTypeParameter instanceof ParameterizedType) {
@@ -299,4 +324,26 @@ public class MapperAnnotationBuilder {
         return parameterType;
     }
 
+    /**
+     * 获取多行插入方法的集合参数的元素类型
+     *
+     * @param method        方法
+     * @param parameterType 参数类型
+     * @return {@link Class}<{@link ?}>
+     */
+    private Class<?> getElementType(Method method, Class<?> parameterType) {
+        if (parameterType != null && parameterType.isArray()) {
+            return parameterType.getComponentType();
+        }
+        for (Type type : method.getGenericParameterTypes()) {
+            if (type instanceof ParameterizedType parameterizedType
+                    && parameterizedType.getRawType() instanceof Class<?> rawType
+                    && Collection.class.isAssignableFrom(rawType)
+                    && parameterizedType.getActualTypeArguments()[0] instanceof Class<?> elementType) {
+                return elementType;
+            }
+        }
+        throw new RuntimeException("多行插入方法 " + method + " 的参数必须是声明了元素类型的集合或数组");
+    }
+
 }
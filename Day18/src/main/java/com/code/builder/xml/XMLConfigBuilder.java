@@ -2,10 +2,12 @@ package com.code.builder.xml;
 
 import com.code.builder.BaseBuilder;
 import com.code.datasource.DataSourceFactory;
+import com.code.datasource.routing.RoutingDataSourceFactory;
 import com.code.io.Resources;
 import com.code.mapping.Environment;
 import com.code.plugin.Interceptor;
 import com.code.session.Configuration;
+import com.code.session.ExecutorType;
 import com.code.session.LocalCacheScope;
 import com.code.transaction.TransactionFactory;
 import org.dom4j.Document;
@@ -80,15 +82,7 @@ public class XMLConfigBuilder extends BaseBuilder {
                 TransactionFactory txFactory = (TransactionFactory) typeAliasRegistry.resolveAlias(e.element("transactionManager").attributeValue("type")).getDeclaredConstructor().newInstance();
 
                 // 数据源
-                Element dataSourceElement = e.element("dataSource");
-                DataSourceFactory dataSourceFactory = (DataSourceFactory) typeAliasRegistry.resolveAlias(dataSourceElement.attributeValue("type")).getDeclaredConstructor().newInstance();
-                List<Element> propertyList = dataSourceElement.elements("property");
-                Properties props = new Properties();
-                for (Element property : propertyList) {
-                    props.setProperty(property.attributeValue("name"), property.attributeValue("value"));
-                }
-                dataSourceFactory.setProperties(props);
-                DataSource dataSource = dataSourceFactory.getDataSource();
+                DataSource dataSource = dataSourceElement(e.element("dataSource"));
 
                 // 构建环境
                 Environment.Builder environmentBuilder = new Environment.Builder(id)
@@ -101,6 +95,44 @@ public class XMLConfigBuilder extends BaseBuilder {
     }
 
 
+    /**
+     * 解析数据源元素
+     * <p>
+     * 路由数据源(ROUTING)通过嵌套的 dataSource 元素配置主库与从库：
+     * <pre>
+     * &lt;dataSource type="ROUTING"&gt;
+     *     &lt;dataSource role="primary" type="POOL"&gt;...&lt;/dataSource&gt;
+     *     &lt;dataSource role="replica" type="POOL"&gt;...&lt;/dataSource&gt;
+     * &lt;/dataSource&gt;
+     * </pre>
+     *
+     * @param dataSourceElement 数据源元素
+     * @return {@link DataSource}
+     * @throws Exception 异常
+     */
+    private DataSource dataSourceElement(Element dataSourceElement) throws Exception {
+        DataSourceFactory dataSourceFactory = (DataSourceFactory) typeAliasRegistry.resolveAlias(dataSourceElement.attributeValue("type")).getDeclaredConstructor().newInstance();
+        List<Element> propertyList = dataSourceElement.elements("property");
+        Properties props = new Properties();
+        for (Element property : propertyList) {
+            props.setProperty(property.attributeValue("name"), property.attributeValue("value"));
+        }
+        dataSourceFactory.setProperties(props);
+        if (dataSourceFactory instanceof RoutingDataSourceFactory routingFactory) {
+            for (Element child : dataSourceElement.elements("dataSource")) {
+                String role = child.attributeValue("role");
+                if ("primary".equals(role)) {
+                    routingFactory.setPrimary(dataSourceElement(child));
+                } else if ("replica".equals(role)) {
+                    routingFactory.addReplica(dataSourceElement(child));
+                } else {
+                    throw new RuntimeException("路由数据源的子数据源 role 只能是 primary 或 replica，当前为：" + role);
+                }
+            }
+        }
+        return dataSourceFactory.getDataSource();
+    }
+
     /**
      * 解析 Mapper XML 元素
      *
@@ -170,6 +202,18 @@ public class XMLConfigBuilder extends BaseBuilder {
             properties.setProperty(e.attributeValue("name"),e.attributeValue("value"));
         }
         configuration.setCacheEnabled(booleanValueOf(properties.getProperty("cacheEnabled"),true));
-        configuration.setLocalCacheScope(LocalCacheScope.valueOf(properties.getProperty("localCacheScope")));
+        configuration.setLocalCacheScope(LocalCacheScope.valueOf(properties.getProperty("localCacheScope", LocalCacheScope.SESSION.name())));
+        configuration.setDefaultExecutorType(ExecutorType.valueOf(properties.getProperty("defaultExecutorType", ExecutorType.SIMPLE.name())));
+        configuration.setBatchSize(Integer.parseInt(properties.getProperty("batchSize", "1000")));
+        configuration.setUseGeneratedKeys(booleanValueOf(properties.getProperty("useGeneratedKeys"), false));
+        configuration.setDefaultStatementTimeout(integerValueOf(properties.getProperty("defaultStatementTimeout"), null));
+        configuration.setDefaultFetchSize(integerValueOf(properties.getProperty("defaultFetchSize"), null));
+        configuration.setAdaptiveFetchSize(booleanValueOf(properties.getProperty("adaptiveFetchSize"), false));
+        configuration.setSingleFlightEnabled(booleanValueOf(properties.getProperty("singleFlightEnabled"), false));
+        configuration.setSingleFlightWaitTimeout(Long.parseLong(properties.getProperty("singleFlightWaitTimeout", "10000")));
+        configuration.setAsyncVirtualThreads(booleanValueOf(properties.getProperty("asyncVirtualThreads"), false));
+        configuration.setAsyncMaxQueued(integerValueOf(properties.getProperty("asyncMaxQueued"), null));
+        configuration.setMultiRowInsertMaxParameters(integerValueOf(properties.getProperty("multiRowInsertMaxParameters"), 65535));
+        configuration.setAdaptiveFetchMemory(Long.parseLong(properties.getProperty("adaptiveFetchMemory", String.valueOf(4 * 1024 * 1024))));
     }
 }
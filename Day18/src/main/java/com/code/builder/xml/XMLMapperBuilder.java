@@ -4,6 +4,7 @@ import com.code.builder.BaseBuilder;
 import com.code.builder.MapperBuilderAssistant;
 import com.code.builder.ResultMapResolver;
 import com.code.cache.Cache;
+import com.code.cache.Weigher;
 import com.code.io.Resources;
 import com.code.mapping.ResultFlag;
 import com.code.mapping.ResultMap;
@@ -18,6 +19,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
 
 /**
@@ -110,15 +112,18 @@ public class XMLMapperBuilder extends BaseBuilder {
             return;
         }
         // 基础配置信息
-        String type = element.attributeValue("type", "PERPETUAL");
+        String type = element.attributeValue("type", "CONCURRENT");
         Class<? extends Cache> typeClass = typeAliasRegistry.resolveAlias(type);
         // 缓存队列 FIFO
         String eviction = element.attributeValue("eviction", "FIFO");
         Class<? extends Cache> evictionClass = typeAliasRegistry.resolveAlias(eviction);
-        Long flushInterval = Long.valueOf(element.attributeValue("flushInterval"));
-        Integer size = Integer.valueOf(element.attributeValue("size"));
+        // 未配置时不定时清空、使用默认容量
+        Long flushInterval = parseLong(element, "flushInterval");
+        Long timeToLive = parseLong(element, "timeToLive");
+        Long sizeValue = parseLong(element, "size");
+        Integer size = sizeValue == null ? null : sizeValue.intValue();
         boolean readWrite = !Boolean.parseBoolean(element.attributeValue("readOnly", "false"));
-        boolean blocking = !Boolean.parseBoolean(element.attributeValue("blocking", "false"));
+        boolean blocking = Boolean.parseBoolean(element.attributeValue("blocking", "false"));
 
         // 解析额外属性信息；<property name="cacheFile" value="/tmp/xxx-cache.tmp"/>
         List<Element> elements = element.elements();
@@ -126,8 +131,55 @@ public class XMLMapperBuilder extends BaseBuilder {
         for (Element e : elements) {
             props.setProperty(e.attributeValue("name"), e.attributeValue("value"));
         }
+        // 按内存限制容量：maxBytes="64MB"，weigher 为自定义权重计算器
+        Long maxBytes = parseBytes(element.attributeValue("maxBytes"));
+        Class<? extends Weigher> weigherClass = typeAliasRegistry.resolveAlias(element.attributeValue("weigher"));
         // 构建缓存
-        builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, props);
+        builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, timeToLive, size, readWrite, blocking, props, maxBytes, weigherClass);
+    }
+
+    /**
+     * 解析字节数，支持 KB/MB/GB 后缀
+     *
+     * @param value 值
+     * @return {@link Long} 未配置时返回 null
+     */
+    private Long parseBytes(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.trim().toUpperCase(Locale.ENGLISH);
+        long unit = 1;
+        if (text.endsWith("KB") || text.endsWith("MB") || text.endsWith("GB")) {
+            unit = text.endsWith("KB") ? 1024L : text.endsWith("MB") ? 1024L * 1024 : 1024L * 1024 * 1024;
+            text = text.substring(0, text.length() - 2).trim();
+        } else if (text.endsWith("B")) {
+            text = text.substring(0, text.length() - 1).trim();
+        }
+        try {
+            return Long.parseLong(text) * unit;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("无效的缓存内存预算 maxBytes=\"" + value + "\"", e);
+        }
+    }
+
+    /**
+     * 解析整数属性
+     *
+     * @param element 元素
+     * @param name    属性名
+     * @return {@link Long} 未配置时返回 null
+     */
+    private Long parseLong(Element element, String name) {
+        String value = element.attributeValue(name);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("无效的缓存配置 " + name + "=\"" + value + "\"", e);
+        }
     }
 
     /**
@@ -80,10 +80,18 @@ public class XMLStatementBuilder extends BaseBuilder {
         if(configuration.hasKeyGenerator(keyStatementId)) {
             keyGenerator = configuration.getKeyGenerator(keyStatementId);
         } else {
-            keyGenerator = configuration.isUseGeneratedKeys() && SqlCommandType.INSERT.equals(sqlCommandType) ? new Jdbc3KeyGenerator() : new NoKeyGenerator();
+            // 语句上的 useGeneratedKeys 优先于全局配置
+            boolean useGeneratedKeys = Boolean.parseBoolean(element.attributeValue("useGeneratedKeys",
+                    String.valueOf(configuration.isUseGeneratedKeys() && SqlCommandType.INSERT.equals(sqlCommandType))));
+            keyGenerator = useGeneratedKeys ? new Jdbc3KeyGenerator() : new NoKeyGenerator();
         }
+        // 语句超时时间与 fetchSize
+        Integer timeout = integerValueOf(element.attributeValue("timeout"), null);
+        Integer fetchSize = integerValueOf(element.attributeValue("fetchSize"), null);
+        // 集合参数是否展开为多行插入(parameterType 为集合元素的类型)
+        boolean multiRow = Boolean.parseBoolean(element.attributeValue("multiRow", "false"));
         // 调用助手类
-        builderAssistant.addMappedStatement(id,sqlSource,sqlCommandType,parameterTypeClass,resultMap,resultTypeClass,flushCache,useCache,keyGenerator,keyProperty,languageDriver);
+        builderAssistant.addMappedStatement(id,sqlSource,sqlCommandType,parameterTypeClass,resultMap,resultTypeClass,flushCache,useCache,keyGenerator,keyProperty,languageDriver,timeout,fetchSize,multiRow);
     }
 
     /**
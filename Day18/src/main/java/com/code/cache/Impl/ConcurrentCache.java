@@ -0,0 +1,60 @@
+package com.code.cache.Impl;
+
+import com.code.cache.Cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 并发缓存(二级缓存的默认基础实现)
+ * <p>
+ * 二级缓存按命名空间共享，所有线程上的会话都会在提交时写入同一个实例，
+ * 因此基于 ConcurrentHashMap 实现：读不加锁，写按桶加锁，可在多核下并发访问。
+ * ConcurrentHashMap 不允许 null 值，存入 null(事务回滚时释放未命中的键)等同于删除
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class ConcurrentCache implements Cache {
+
+    private final String id;
+
+    private final ConcurrentHashMap<Object, Object> cache = new ConcurrentHashMap<>();
+
+    public ConcurrentCache(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            cache.remove(key);
+        } else {
+            cache.put(key, value);
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return cache.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,718 @@
+package com.code.cache.Impl;
+
+import com.code.cache.Cache;
+import com.code.cache.CacheKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存映射文件缓存(堆外二级缓存)
+ * <p>
+ * 缓存项(序列化后的键与值)追加写入内存映射文件，堆内只保留 键的 64 位哈希 → 文件偏移 的索引，
+ * 每个缓存项在堆上只占一对 Long，与键(SQL 及参数)的大小无关，缓存大量参考数据也不会增加 GC 压力；
+ * 读取时比对文件中的键，哈希冲突不会返回其他键的结果(冲突的键互相覆盖，相当于被淘汰)。
+ * 文件在进程重启后重新扫描建立索引，缓存保持预热。
+ * 文件写满时压缩：有效记录写入新文件后替换原文件(回收已删除记录的空间，压缩中途退出不会损坏原文件)，
+ * 仍不够时按写入顺序淘汰最早的记录；压缩失败时记录日志并放弃本次写入，不向调用方抛出异常。
+ * 单个缓存文件整体映射为一个 MappedByteBuffer，容量上限为 {@link Integer#MAX_VALUE} 字节(约 2 GB)，
+ * 需要更大的堆外缓存时按命名空间拆分到多个缓存文件。
+ * <p>
+ * 缓存文件在使用期间持有文件锁，同一文件不会被多个缓存实例或进程同时写入：
+ * 默认文件位于临时目录下只有当前用户可以访问的目录(权限 700)中，以命名空间命名，被占用时改用独立的临时文件；
+ * 该目录已存在但不属于当前用户、权限不是 700 或是符号链接时拒绝使用，此时需配置 cacheFile。
+ * 配置的文件被占用时报错。
+ * 写入先落在页缓存中，压缩与 {@link #close()} 时刷入磁盘，也可以调用 {@link #flush()} 主动刷盘；
+ * 操作系统崩溃时可能丢失最近一次刷盘之后写入的缓存项。
+ * <p>
+ * 缓存的键与值需可序列化(实体类实现 Serializable)，无法序列化的结果不缓存；
+ * 每次读取都反序列化出新的副本，调用方修改结果不会影响缓存。
+ * 文件中的内容不可信，反序列化时只允许白名单中的类：JDK 常用的值类型与集合、本进程写入过的类，
+ * 以及 serialFilter 配置的类(重启后恢复的缓存项中的实体类需要配置，语法同 {@link ObjectInputFilter.Config#createFilter})。
+ * 配置：&lt;cache type="MAPPED"&gt;&lt;property name="cacheFile" value="/data/cache/task.cache"/&gt;
+ * &lt;property name="capacity" value="1073741824"/&gt;&lt;property name="serialFilter" value="com.example.entity.*"/&gt;&lt;/cache&gt;
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class MappedFileCache implements Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedFileCache.class);
+
+    /**
+     * 文件标识("MFC1")
+     */
+    private static final int MAGIC = 0x4D464331;
+
+    /**
+     * 文件头：标识(4) + 容量(8) + 写入位置(8)
+     */
+    private static final int HEADER_SIZE = 20;
+
+    private static final int WRITE_POSITION_OFFSET = 12;
+
+    /**
+     * 记录头：状态(1) + 键长度(4) + 值长度(4)
+     */
+    private static final int RECORD_HEADER_SIZE = 9;
+
+    private static final byte LIVE = 1;
+
+    private static final byte REMOVED = 0;
+
+    /**
+     * 反序列化时始终允许的类
+     */
+    private static final String BUILTIN_SERIAL_FILTER = "java.lang.*;java.util.*;java.math.*;java.time.*;"
+            + "java.sql.Date;java.sql.Time;java.sql.Timestamp;" + CacheKey.class.getName();
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+    private final String id;
+
+    /**
+     * 键的哈希 → 记录偏移
+     */
+    private final Map<Long, Long> index = new ConcurrentHashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 本进程序列化过的类(反序列化时允许)
+     */
+    private final Set<String> writtenClasses = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 缓存文件路径(未配置时为临时目录下当前用户专属目录中以命名空间命名的文件)
+     */
+    private String cacheFile;
+
+    /**
+     * 文件容量(字节)
+     */
+    private long capacity = 64L * 1024 * 1024;
+
+    /**
+     * 额外允许反序列化的类
+     */
+    private String serialFilter;
+
+    private volatile ObjectInputFilter allowList = ObjectInputFilter.Config.createFilter(BUILTIN_SERIAL_FILTER + ";!*");
+
+    /**
+     * 实际使用的缓存文件
+     */
+    private File file;
+
+    private FileChannel channel;
+
+    /**
+     * 缓存文件锁(使用期间持有)
+     */
+    private FileLock fileLock;
+
+    private volatile MappedByteBuffer buffer;
+
+    /**
+     * 是否已提示过结果不可序列化
+     */
+    private volatile boolean notSerializableWarned;
+
+    private long writePosition;
+
+    public MappedFileCache(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        byte[] keyBytes;
+        byte[] valueBytes;
+        try {
+            keyBytes = serialize(key);
+            valueBytes = serialize(value);
+        } catch (NotSerializableException e) {
+            // 不可序列化的结果不缓存
+            if (!notSerializableWarned) {
+                notSerializableWarned = true;
+                logger.warn("内存映射缓存 {} 中的结果不可序列化({})，将不被缓存", id, e.getMessage());
+            }
+            return;
+        }
+        long hash = hash(keyBytes);
+        int recordSize = RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length;
+        lock.writeLock().lock();
+        try {
+            // 写入发生在事务提交之后，缓存不可用时只记录日志，不影响已提交的事务
+            try {
+                open();
+            } catch (RuntimeException e) {
+                logger.warn("内存映射缓存 {} 不可用，本次结果不缓存", id, e);
+                return;
+            }
+            if (recordSize > capacity - HEADER_SIZE || (writePosition + recordSize > capacity && !makeRoom(recordSize))) {
+                // 放不下时同时删除旧值，避免读到过期的结果
+                markRemoved(index.remove(hash));
+                return;
+            }
+            long offset = writePosition;
+            buffer.put((int) offset, LIVE);
+            buffer.putInt((int) offset + 1, keyBytes.length);
+            buffer.putInt((int) offset + 5, valueBytes.length);
+            buffer.put((int) offset + RECORD_HEADER_SIZE, keyBytes);
+            buffer.put((int) offset + RECORD_HEADER_SIZE + keyBytes.length, valueBytes);
+            setWritePosition(offset + recordSize);
+            markRemoved(index.put(hash, offset));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        byte[] keyBytes = serializeKey(key);
+        if (keyBytes == null) {
+            return null;
+        }
+        ensureOpen();
+        byte[] valueBytes;
+        lock.readLock().lock();
+        try {
+            Long offset = index.get(hash(keyBytes));
+            if (offset == null || buffer == null || !matches(offset, keyBytes)) {
+                return null;
+            }
+            int position = offset.intValue();
+            valueBytes = new byte[buffer.getInt(position + 5)];
+            buffer.get(position + RECORD_HEADER_SIZE + keyBytes.length, valueBytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            return deserialize(valueBytes);
+        } catch (IOException | ClassNotFoundException e) {
+            logger.warn("读取内存映射缓存 {} 时发生错误：{}", id, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public Object remove(Object key) {
+        byte[] keyBytes = serializeKey(key);
+        if (keyBytes == null) {
+            return null;
+        }
+        long hash = hash(keyBytes);
+        lock.writeLock().lock();
+        try {
+            open();
+            Long offset = index.get(hash);
+            if (offset != null && matches(offset, keyBytes)) {
+                index.remove(hash);
+                markRemoved(offset);
+            }
+            return null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            if (buffer != null) {
+                setWritePosition(HEADER_SIZE);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        ensureOpen();
+        return index.size();
+    }
+
+    /**
+     * 把已写入的缓存项刷入磁盘
+     */
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 刷盘并释放缓存文件(之后再使用时重新映射)
+     */
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (buffer == null) {
+                return;
+            }
+            buffer.force();
+            buffer = null;
+            index.clear();
+            release(channel, fileLock);
+            channel = null;
+            fileLock = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public String getCacheFile() {
+        return cacheFile;
+    }
+
+    public void setCacheFile(String cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 设置文件容量(整个文件映射为一个 MappedByteBuffer，最大 {@link Integer#MAX_VALUE} 字节)
+     *
+     * @param capacity 容量(字节)
+     */
+    public void setCapacity(long capacity) {
+        if (capacity <= HEADER_SIZE || capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("内存映射缓存容量需在 " + HEADER_SIZE + " ~ " + Integer.MAX_VALUE + " 字节之间：" + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public String getSerialFilter() {
+        return serialFilter;
+    }
+
+    /**
+     * 设置额外允许反序列化的类
+     *
+     * @param serialFilter 以分号分隔的类名或包名模式，如 com.example.entity.*;com.example.dto.**
+     */
+    public void setSerialFilter(String serialFilter) {
+        String patterns = serialFilter == null || serialFilter.isBlank() ? "" : serialFilter + ";";
+        this.allowList = ObjectInputFilter.Config.createFilter(BUILTIN_SERIAL_FILTER + ";" + patterns + "!*");
+        this.serialFilter = serialFilter;
+    }
+
+    /**
+     * 确保缓存文件已映射(读取前需要先从文件恢复索引)
+     */
+    private void ensureOpen() {
+        if (buffer == null) {
+            lock.writeLock().lock();
+            try {
+                open();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 映射缓存文件(首次使用时，此时已设置好属性)并加锁；文件中已有的记录重新建立索引
+     */
+    private void open() {
+        if (buffer != null) {
+            return;
+        }
+        File target = null;
+        FileChannel fileChannel = null;
+        try {
+            target = cacheFile != null ? new File(cacheFile) : defaultCacheFile();
+            File parent = target.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("无法创建缓存文件目录：" + parent);
+            }
+            fileChannel = openChannel(target.toPath());
+            FileLock acquired = tryLock(fileChannel);
+            if (acquired == null) {
+                fileChannel.close();
+                if (cacheFile != null) {
+                    throw new RuntimeException("缓存文件 " + target + " 正被其他缓存实例或进程使用");
+                }
+                // 默认文件被占用(多个实例或进程使用同一命名空间)，改用独立的临时文件(只有当前用户可以读写)
+                File unique = Files.createTempFile(parent.toPath(), id + "-", ".cache").toFile();
+                unique.deleteOnExit();
+                logger.warn("内存映射缓存 {} 的默认文件 {} 正被其他缓存实例或进程使用，改用 {}", id, target, unique);
+                target = unique;
+                fileChannel = FileChannel.open(target.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                acquired = tryLock(fileChannel);
+                if (acquired == null) {
+                    throw new RuntimeException("无法锁定缓存文件：" + target);
+                }
+            }
+            boolean existing = fileChannel.size() >= HEADER_SIZE;
+            buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            file = target;
+            channel = fileChannel;
+            fileLock = acquired;
+            if (existing && buffer.getInt(0) == MAGIC && buffer.getLong(4) == capacity) {
+                recover(buffer.getLong(WRITE_POSITION_OFFSET));
+            } else {
+                buffer.putInt(0, MAGIC);
+                buffer.putLong(4, capacity);
+                setWritePosition(HEADER_SIZE);
+                buffer.force();
+            }
+        } catch (IOException e) {
+            buffer = null;
+            release(fileChannel, null);
+            throw new RuntimeException("映射缓存文件 " + (target != null ? target : id) + " 时发生错误：" + e, e);
+        }
+    }
+
+    /**
+     * 默认缓存文件：临时目录下当前用户专属的目录(不存在时以 700 权限创建)中以命名空间命名的文件
+     *
+     * @return {@link File}
+     * @throws IOException 目录不安全或无法创建
+     */
+    private File defaultCacheFile() throws IOException {
+        String user = System.getProperty("user.name");
+        Path directory = Paths.get(System.getProperty("java.io.tmpdir"), "ormframework-cache-" + user);
+        boolean posix = isPosix();
+        if (Files.notExists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            try {
+                if (posix) {
+                    Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+                } else {
+                    Files.createDirectory(directory);
+                }
+            } catch (FileAlreadyExistsException ignore) {
+                // 其他实例同时创建，下面统一校验
+            }
+        }
+        // 临时目录所有用户可写，其他用户可能预先创建同名目录或符号链接
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IOException("默认缓存目录 " + directory + " 不是目录，请配置 cacheFile");
+        }
+        if (posix && (!Files.getOwner(directory, LinkOption.NOFOLLOW_LINKS).getName().equals(user)
+                || !Files.getPosixFilePermissions(directory, LinkOption.NOFOLLOW_LINKS).equals(OWNER_ONLY_DIRECTORY))) {
+            throw new IOException("默认缓存目录 " + directory + " 不属于当前用户或权限不是 700，请配置 cacheFile");
+        }
+        return directory.resolve(id + ".cache").toFile();
+    }
+
+    /**
+     * 打开(不存在时创建)文件，新建的文件只有当前用户可以读写
+     *
+     * @param path 路径
+     * @return {@link FileChannel}
+     * @throws IOException IOException
+     */
+    private static FileChannel openChannel(Path path, OpenOption... extraOptions) throws IOException {
+        Set<OpenOption> options = new HashSet<>(List.of(StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE));
+        options.addAll(List.of(extraOptions));
+        FileAttribute<?>[] attributes = isPosix()
+                ? new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE)}
+                : new FileAttribute<?>[0];
+        return FileChannel.open(path, options, attributes);
+    }
+
+    private static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    /**
+     * 扫描文件中的记录重建索引(只对键做哈希，不反序列化)
+     *
+     * @param end 写入位置
+     */
+    private void recover(long end) {
+        long position = HEADER_SIZE;
+        end = Math.min(Math.max(end, HEADER_SIZE), capacity);
+        while (position + RECORD_HEADER_SIZE <= end) {
+            byte status = buffer.get((int) position);
+            int keyLength = buffer.getInt((int) position + 1);
+            int valueLength = buffer.getInt((int) position + 5);
+            long next = position + RECORD_HEADER_SIZE + keyLength + (long) valueLength;
+            if (keyLength < 0 || valueLength < 0 || next > end) {
+                // 记录不完整(写入过程中进程退出)，丢弃其后的内容
+                break;
+            }
+            if (status == LIVE) {
+                byte[] keyBytes = new byte[keyLength];
+                buffer.get((int) position + RECORD_HEADER_SIZE, keyBytes);
+                markRemoved(index.put(hash(keyBytes), position));
+            }
+            position = next;
+        }
+        setWritePosition(position);
+        logger.info("内存映射缓存 {} 已从文件恢复 {} 条记录", id, index.size());
+    }
+
+    /**
+     * 腾出空间：有效记录写入新文件后替换原文件，仍不够时按写入顺序淘汰最早的记录。
+     * 新文件刷盘后才替换原文件，压缩中途退出时原文件保持不变
+     *
+     * @param recordSize 待写入记录的大小
+     * @return boolean 压缩失败时返回 false(已记录日志，原文件保持可用)
+     */
+    private boolean makeRoom(int recordSize) {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(index.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+        // 淘汰最早的记录，直至剩余的有效记录加上新记录能放下
+        long live = 0;
+        for (Map.Entry<Long, Long> entry : entries) {
+            live += recordSize(entry.getValue());
+        }
+        int first = 0;
+        while (first < entries.size() && HEADER_SIZE + live + recordSize > capacity) {
+            Map.Entry<Long, Long> evicted = entries.get(first++);
+            live -= recordSize(evicted.getValue());
+            index.remove(evicted.getKey());
+            markRemoved(evicted.getValue());
+        }
+        File compacted = new File(file.getPath() + ".compact");
+        FileChannel compactedChannel = null;
+        try {
+            compactedChannel = openChannel(compacted.toPath(), StandardOpenOption.TRUNCATE_EXISTING);
+            FileLock compactedLock = tryLock(compactedChannel);
+            if (compactedLock == null) {
+                throw new IOException("无法锁定压缩文件：" + compacted);
+            }
+            MappedByteBuffer compactedBuffer = compactedChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            compactedBuffer.putInt(0, MAGIC);
+            compactedBuffer.putLong(4, capacity);
+            // 有效记录依次写入新文件
+            Map<Long, Long> offsets = new HashMap<>();
+            long position = HEADER_SIZE;
+            for (int i = first; i < entries.size(); i++) {
+                Map.Entry<Long, Long> entry = entries.get(i);
+                long offset = entry.getValue();
+                byte[] record = new byte[recordSize(offset)];
+                buffer.get((int) offset, record);
+                compactedBuffer.put((int) position, record);
+                offsets.put(entry.getKey(), position);
+                position += record.length;
+            }
+            compactedBuffer.putLong(WRITE_POSITION_OFFSET, position);
+            compactedBuffer.force();
+            Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            release(channel, fileLock);
+            channel = compactedChannel;
+            fileLock = compactedLock;
+            buffer = compactedBuffer;
+            index.putAll(offsets);
+            writePosition = position;
+            return true;
+        } catch (IOException e) {
+            release(compactedChannel, null);
+            compacted.delete();
+            logger.warn("压缩缓存文件 {} 时发生错误，本次结果不缓存", file, e);
+            return false;
+        }
+    }
+
+    /**
+     * 记录中的键是否与给定的键相同(排除哈希冲突)
+     *
+     * @param offset   记录偏移
+     * @param keyBytes 序列化后的键
+     * @return boolean
+     */
+    private boolean matches(long offset, byte[] keyBytes) {
+        int position = (int) offset;
+        return buffer.getInt(position + 1) == keyBytes.length
+                && buffer.slice(position + RECORD_HEADER_SIZE, keyBytes.length).equals(ByteBuffer.wrap(keyBytes));
+    }
+
+    private int recordSize(long offset) {
+        return RECORD_HEADER_SIZE + buffer.getInt((int) offset + 1) + buffer.getInt((int) offset + 5);
+    }
+
+    private void markRemoved(Long offset) {
+        if (offset != null) {
+            buffer.put(offset.intValue(), REMOVED);
+        }
+    }
+
+    private void setWritePosition(long writePosition) {
+        this.writePosition = writePosition;
+        buffer.putLong(WRITE_POSITION_OFFSET, writePosition);
+    }
+
+    /**
+     * 尝试锁定文件
+     *
+     * @param fileChannel 文件通道
+     * @return {@link FileLock} 文件正被其他缓存实例或进程使用时返回 null
+     */
+    private static FileLock tryLock(FileChannel fileChannel) throws IOException {
+        try {
+            return fileChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // 同一进程内的其他缓存实例持有锁
+            return null;
+        }
+    }
+
+    /**
+     * 释放文件锁并关闭文件通道
+     *
+     * @param fileChannel 文件通道
+     * @param acquired    文件锁
+     */
+    private void release(FileChannel fileChannel, FileLock acquired) {
+        try {
+            if (acquired != null && acquired.isValid()) {
+                acquired.release();
+            }
+            if (fileChannel != null) {
+                fileChannel.close();
+            }
+        } catch (IOException e) {
+            logger.warn("关闭内存映射缓存 {} 的文件时发生错误：{}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * 64 位 FNV-1a 哈希
+     *
+     * @param bytes 序列化后的键
+     * @return long
+     */
+    private static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * 序列化用于查找的键
+     *
+     * @param key 键
+     * @return byte[] 不可序列化的键不会在缓存中，返回 null
+     */
+    private byte[] serializeKey(Object key) {
+        try {
+            return serialize(key);
+        } catch (NotSerializableException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 序列化，并记录写入过的类(反序列化时允许)
+     *
+     * @param object 对象
+     * @return byte[]
+     * @throws NotSerializableException 对象不可序列化
+     */
+    private byte[] serialize(Object object) throws NotSerializableException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new RecordingOutputStream(bytes)) {
+            output.writeObject(object);
+        } catch (NotSerializableException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new RuntimeException("序列化缓存项时发生错误：" + e, e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 反序列化，只允许白名单中的类
+     *
+     * @param bytes 字节
+     * @return {@link Object}
+     */
+    private Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            input.setObjectInputFilter(this::checkClass);
+            return input.readObject();
+        }
+    }
+
+    private ObjectInputFilter.Status checkClass(ObjectInputFilter.FilterInfo info) {
+        Class<?> type = info.serialClass();
+        if (type != null) {
+            Class<?> component = type;
+            while (component.isArray()) {
+                component = component.getComponentType();
+            }
+            if (writtenClasses.contains(component.getName())) {
+                return ObjectInputFilter.Status.ALLOWED;
+            }
+        }
+        return allowList.checkInput(info);
+    }
+
+    /**
+     * 记录写入过的类的输出流
+     */
+    private final class RecordingOutputStream extends ObjectOutputStream {
+
+        RecordingOutputStream(OutputStream output) throws IOException {
+            super(output);
+        }
+
+        @Override
+        protected void annotateClass(Class<?> type) {
+            writtenClasses.add(type.getName());
+        }
+    }
+}
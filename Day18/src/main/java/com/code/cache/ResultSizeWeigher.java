@@ -0,0 +1,155 @@
+package com.code.cache;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 默认的缓存项权重计算器：行数 × 估算的单行大小
+ * <p>
+ * 对结果列表抽取前若干行，按对象头、字段及字符串等常见值类型估算平均单行大小(只向下展开两层)，
+ * 再乘以行数并加上列表本身的开销。估算值用于容量控制，不追求精确
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class ResultSizeWeigher implements Weigher {
+
+    /**
+     * 估算单行大小时抽样的行数
+     */
+    private static final int SAMPLE_ROWS = 16;
+
+    /**
+     * 对象展开的最大深度
+     */
+    private static final int MAX_DEPTH = 2;
+
+    /**
+     * 对象头大小
+     */
+    private static final int OBJECT_HEADER = 16;
+
+    /**
+     * 引用大小
+     */
+    private static final int REFERENCE = 8;
+
+    /**
+     * 缓存键的估算大小(语句 id、SQL 与参数)
+     */
+    private static final int KEY_FOOTPRINT = 256;
+
+    /**
+     * 各类型的实例字段
+     */
+    private static final Map<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+
+    @Override
+    public long weigh(Object key, Object value) {
+        return KEY_FOOTPRINT + estimate(value, 0);
+    }
+
+    /**
+     * 估算对象大小
+     *
+     * @param object 对象
+     * @param depth  当前深度
+     * @return long
+     */
+    private long estimate(Object object, int depth) {
+        if (object == null) {
+            return 0;
+        }
+        if (object instanceof String string) {
+            return OBJECT_HEADER + 24 + string.length() * 2L;
+        }
+        if (object instanceof Number || object instanceof Boolean || object instanceof Character || object instanceof Enum<?>) {
+            return OBJECT_HEADER + 8;
+        }
+        if (object instanceof byte[] bytes) {
+            return OBJECT_HEADER + bytes.length;
+        }
+        if (object instanceof Collection<?> collection) {
+            return estimateRows(collection.size(), collection.iterator(), depth);
+        }
+        if (object instanceof Map<?, ?> map) {
+            long entries = 0;
+            if (depth < MAX_DEPTH) {
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    entries += 32 + estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+                }
+            }
+            return 48 + (long) map.size() * REFERENCE + entries;
+        }
+        if (depth >= MAX_DEPTH || object.getClass().getName().startsWith("java.")) {
+            // 日期等 JDK 类型及过深的对象按固定大小估算
+            return OBJECT_HEADER + 16;
+        }
+        long size = OBJECT_HEADER;
+        for (Field field : fieldsOf(object.getClass())) {
+            Class<?> type = field.getType();
+            if (type.isPrimitive()) {
+                size += type == long.class || type == double.class ? 8 : 4;
+            } else {
+                size += REFERENCE;
+                try {
+                    size += estimate(field.get(object), depth + 1);
+                } catch (IllegalAccessException ignore) {
+                    // 无法读取的字段只计引用
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 抽样估算列表大小：平均单行大小 × 行数 + 列表开销
+     *
+     * @param rows     行数
+     * @param iterator 行迭代器
+     * @param depth    当前深度
+     * @return long
+     */
+    private long estimateRows(int rows, Iterator<?> iterator, int depth) {
+        long sampled = 0;
+        int samples = 0;
+        while (samples < SAMPLE_ROWS && iterator.hasNext()) {
+            sampled += estimate(iterator.next(), depth + 1);
+            samples++;
+        }
+        long perRow = samples == 0 ? 0 : sampled / samples;
+        return 40 + (long) rows * (REFERENCE + perRow);
+    }
+
+    /**
+     * 获取类型(含父类)的实例字段
+     *
+     * @param type 类型
+     * @return {@link Field[]}
+     */
+    private static Field[] fieldsOf(Class<?> type) {
+        return FIELDS.computeIfAbsent(type, clazz -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    } catch (RuntimeException ignore) {
+                        // 模块不开放的字段跳过
+                    }
+                }
+            }
+            return fields.toArray(new Field[0]);
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.code.cache;
+
+/**
+ * 缓存项权重计算器(SPI)
+ * <p>
+ * 用于按内存占用而不是条目数限制二级缓存的容量，
+ * 返回值为缓存项大致占用的堆内存(字节)，实现需为无状态且线程安全
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public interface Weigher {
+
+    /**
+     * 估算缓存项占用的堆内存
+     *
+     * @param key   键
+     * @param value 值(通常为查询结果列表)
+     * @return long 字节数
+     */
+    long weigh(Object key, Object value);
+}
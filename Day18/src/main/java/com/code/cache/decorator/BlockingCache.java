@@ -0,0 +1,150 @@
+package com.code.cache.decorator;
+
+import com.code.cache.Cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 阻塞缓存
+ * <p>
+ * 某个键未命中时，第一个读取的线程持有该键的锁去数据库加载，其他读取同一个键的线程等待，
+ * 直到加载结果存入缓存(或以 null 存入表示放弃加载)后再读取缓存，缓存清空后的并发查询每个键只访问一次数据库。
+ * 二级缓存的结果在会话提交时才存入，等待会持续到加载的会话提交或关闭；
+ * 持有锁的线程再次读取同一个键时不会等待自己。
+ * 两个会话以相反顺序读取未命中的键时会互相等待，等待默认在 {@link #DEFAULT_TIMEOUT} 毫秒后超时报错
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class BlockingCache implements Cache {
+
+    /**
+     * 委托
+     */
+    private final Cache delegate;
+
+    /**
+     * 正在加载的键
+     */
+    private final ConcurrentHashMap<Object, KeyLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * 默认的等待超时时间(毫秒)
+     */
+    public static final long DEFAULT_TIMEOUT = 10_000;
+
+    /**
+     * 等待加载的超时时间(毫秒)，小于等于 0 表示一直等待
+     */
+    private volatile long timeout = DEFAULT_TIMEOUT;
+
+    public BlockingCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        try {
+            delegate.put(key, value);
+        } finally {
+            releaseLock(key);
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        acquireLock(key);
+        Object value = delegate.get(key);
+        if (value != null) {
+            releaseLock(key);
+        }
+        return value;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        try {
+            return delegate.remove(key);
+        } finally {
+            releaseLock(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * 获取键的锁，其他线程正在加载时等待其完成
+     *
+     * @param key 键
+     */
+    private void acquireLock(Object key) {
+        KeyLock newLock = new KeyLock(Thread.currentThread());
+        while (true) {
+            KeyLock lock = locks.putIfAbsent(key, newLock);
+            if (lock == null || lock.owner == Thread.currentThread()) {
+                return;
+            }
+            try {
+                if (timeout > 0) {
+                    if (!lock.latch.await(timeout, TimeUnit.MILLISECONDS)) {
+                        throw new RuntimeException("等待缓存 " + delegate.getId() + " 加载键 " + key + " 超时(" + timeout + " ms)");
+                    }
+                } else {
+                    lock.latch.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("等待缓存 " + delegate.getId() + " 加载时被中断", e);
+            }
+        }
+    }
+
+    /**
+     * 释放键的锁，唤醒等待的线程(提交可能发生在其他线程，不校验持有者)
+     *
+     * @param key 键
+     */
+    private void releaseLock(Object key) {
+        KeyLock lock = locks.remove(key);
+        if (lock != null) {
+            lock.latch.countDown();
+        }
+    }
+
+    /**
+     * 键的锁
+     */
+    private static class KeyLock {
+
+        private final Thread owner;
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private KeyLock(Thread owner) {
+            this.owner = owner;
+        }
+    }
+}
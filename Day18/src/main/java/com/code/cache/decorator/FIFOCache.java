@@ -2,13 +2,19 @@ package com.code.cache.decorator;
 
 import com.code.cache.Cache;
 
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 
 /**
  *
  * 先进先出(FIFO)缓存
+ * <p>
+ * 二级缓存由所有会话并发写入，键队列({@link KeyQueue})无锁，并用并发集合记录在缓存中的键：
+ * 同一个键重复存入只入队一次，被删除的键在出队时跳过。
+ * 写入与删除之间互不阻塞(共享读锁)，清空时持有写锁，不会有并发写入的值留在委托中却不在键队列里
  * @author HeXin
  * @date 2024/02/23
  */
@@ -20,15 +26,26 @@ public class FIFOCache implements Cache {
     private final Cache delegate;
 
     /**
-     * 键列表
+     * 键队列
      */
-    private Deque<Object> keyList;
+    private final KeyQueue keyList;
 
-    private  int size;
+    /**
+     * 在缓存中的键
+     */
+    private final Set<Object> keys;
+
+    /**
+     * 写入、删除共享，清空独占
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile int size;
 
     public FIFOCache(Cache delegate) {
         this.delegate = delegate;
-        this.keyList = new LinkedList<>();
+        this.keyList = new KeyQueue();
+        this.keys = ConcurrentHashMap.newKeySet();
         this.size = 1024;
     }
 
@@ -39,8 +56,16 @@ public class FIFOCache implements Cache {
 
     @Override
     public void put(Object key, Object value) {
-        cycleKeyList(key);
-        delegate.put(key,value);
+        lock.readLock().lock();
+        try {
+            // 键入队前值已在委托中，淘汰线程出队时一定能删除它，不会留下队列外无法淘汰的值
+            delegate.put(key,value);
+            if (value != null) {
+                cycleKeyList(key);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
@@ -50,13 +75,25 @@ public class FIFOCache implements Cache {
 
     @Override
     public Object remove(Object key) {
-        return delegate.remove(key);
+        lock.readLock().lock();
+        try {
+            keys.remove(key);
+            return delegate.remove(key);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public void clear() {
-        delegate.clear();
-        keyList.clear();
+        lock.writeLock().lock();
+        try {
+            delegate.clear();
+            keys.clear();
+            keyList.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     public int getSize() {
@@ -78,10 +115,18 @@ public class FIFOCache implements Cache {
      * @param key 键
      */
     private void cycleKeyList(Object key) {
-        keyList.addLast(key);
-        if(keyList.size() > size) {
-            Object oldestKey = keyList.removeFirst();
-            delegate.remove(oldestKey);
+        if (keys.add(key)) {
+            keyList.offer(key);
+        }
+        // 淘汰最早存入的键；队列中已删除的键过多时也一并清理，避免队列无限增长
+        while (keys.size() > size || keyList.length() > 2 * size) {
+            Object oldestKey = keyList.poll();
+            if (oldestKey == null) {
+                break;
+            }
+            if (keys.remove(oldestKey)) {
+                delegate.remove(oldestKey);
+            }
         }
     }
 }
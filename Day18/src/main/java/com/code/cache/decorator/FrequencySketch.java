@@ -0,0 +1,122 @@
+package com.code.cache.decorator;
+
+import java.util.Arrays;
+
+/**
+ * 频率草图(Count-Min Sketch)
+ * <p>
+ * 以很小的固定内存估计每个键最近的访问频率：每个键映射到 4 个 4 位计数器(上限 15)，
+ * 估计值取其中最小者。累计记录次数达到容量的 10 倍时所有计数器减半，让频率随时间衰减，
+ * 曾经热门但已不再访问的键不会永久占据缓存。非线程安全，由 {@link TinyLFUCache} 在锁内调用
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    /**
+     * 每个 long 存放 16 个 4 位计数器
+     */
+    private long[] table;
+
+    private int tableMask;
+
+    /**
+     * 衰减前累计的记录次数
+     */
+    private int sampleSize;
+
+    private int additions;
+
+    public FrequencySketch(int maximumSize) {
+        ensureCapacity(maximumSize);
+    }
+
+    /**
+     * 按缓存容量调整草图大小(会清空已有的计数)
+     *
+     * @param maximumSize 缓存容量
+     */
+    void ensureCapacity(int maximumSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, maximumSize) - 1) << 1;
+        if (table != null && table.length == capacity) {
+            return;
+        }
+        table = new long[capacity];
+        tableMask = capacity - 1;
+        sampleSize = Math.max(10, 10 * maximumSize);
+        additions = 0;
+    }
+
+    /**
+     * 估计键的访问频率
+     *
+     * @param key 键
+     * @return int 0 ~ 15
+     */
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = 15;
+        for (int i = 0; i < 4; i++) {
+            int slot = indexOf(hash, i);
+            int count = (int) ((table[(slot >>> 4) & tableMask] >>> ((slot & 15) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param key 键
+     */
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int slot = indexOf(hash, i);
+            int index = (slot >>> 4) & tableMask;
+            int offset = (slot & 15) << 2;
+            long mask = 0xfL << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * 清空计数
+     */
+    void clear() {
+        Arrays.fill(table, 0L);
+        additions = 0;
+    }
+
+    /**
+     * 所有计数器减半
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+        }
+        additions >>>= 1;
+    }
+
+    private static int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
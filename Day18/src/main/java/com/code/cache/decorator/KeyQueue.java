@@ -0,0 +1,61 @@
+package com.code.cache.decorator;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按存入顺序排列的键队列
+ * <p>
+ * 删除缓存项时不在队列中查找，由调用方记录仍在缓存中的键，出队时跳过已删除的键；
+ * 队列长度单独计数(ConcurrentLinkedQueue.size() 需要遍历)，调用方据此判断已删除的键是否过多、需要清理
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+class KeyQueue {
+
+    /**
+     * 键队列(可能包含已删除的键)
+     */
+    private final Queue<Object> keys = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger length = new AtomicInteger();
+
+    /**
+     * 键入队
+     *
+     * @param key 键
+     */
+    void offer(Object key) {
+        keys.offer(key);
+        length.incrementAndGet();
+    }
+
+    /**
+     * 取出最早入队的键
+     *
+     * @return {@link Object} 队列为空时返回 null
+     */
+    Object poll() {
+        Object key = keys.poll();
+        if (key != null) {
+            length.decrementAndGet();
+        }
+        return key;
+    }
+
+    /**
+     * 队列长度(包含已删除的键)
+     *
+     * @return int
+     */
+    int length() {
+        return length.get();
+    }
+
+    void clear() {
+        keys.clear();
+        length.set(0);
+    }
+}
@@ -0,0 +1,122 @@
+package com.code.cache.decorator;
+
+import com.code.cache.Cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 最近最少使用(LRU)缓存
+ * <p>
+ * 键按访问顺序保存在 LinkedHashMap 中，超出容量时淘汰最久未被访问的键。
+ * 写入与淘汰在锁内进行；读取只在能立即拿到锁时才更新访问顺序，锁被占用时放弃这次记录，
+ * 保证读路径不会因为争用而阻塞(偶尔丢失的访问记录只会轻微影响淘汰的准确度)
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class LRUCache implements Cache {
+
+    /**
+     * 委托
+     */
+    private final Cache delegate;
+
+    /**
+     * 按访问顺序排列的键
+     */
+    private final LinkedHashMap<Object, Object> keyMap;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile int size;
+
+    public LRUCache(Cache delegate) {
+        this.delegate = delegate;
+        this.keyMap = new LinkedHashMap<>(16, 0.75f, true);
+        this.size = 1024;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        // 写入委托后再记入访问顺序，超出容量时由 evict 删除最久未访问的键
+        delegate.put(key, value);
+        if (value == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            keyMap.put(key, key);
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object value = delegate.get(key);
+        if (value != null && lock.tryLock()) {
+            try {
+                // 触发访问顺序调整
+                keyMap.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        lock.lock();
+        try {
+            keyMap.remove(key);
+        } finally {
+            lock.unlock();
+        }
+        return delegate.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            keyMap.clear();
+            delegate.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    /**
+     * 淘汰最久未被访问的键，直至不超过容量
+     */
+    private void evict() {
+        Iterator<Object> iterator = keyMap.keySet().iterator();
+        while (keyMap.size() > size && iterator.hasNext()) {
+            Object eldestKey = iterator.next();
+            iterator.remove();
+            delegate.remove(eldestKey);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.code.cache.decorator;
+
+import com.code.cache.Cache;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 定时过期缓存
+ * <p>
+ * clearInterval：每隔固定时间清空整个命名空间的缓存(对应 &lt;cache flushInterval="..."/&gt;)；
+ * timeToLive：每个缓存项存入后的存活时间，重复存入时重新计时。
+ * 两者都由共享的 {@link TimerWheel} 触发，不为每个缓存项创建线程或定时器；
+ * 读取时还会检查到期时间，定时任务略有延迟也不会读到过期的数据
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class ScheduledCache implements Cache {
+
+    /**
+     * 委托
+     */
+    private final Cache delegate;
+
+    /**
+     * 缓存项的过期记录(只有设置了 timeToLive 时才记录)
+     */
+    private final Map<Object, Expiration> expirations = new ConcurrentHashMap<>();
+
+    /**
+     * 清空间隔(毫秒)，0 表示不定时清空
+     */
+    private volatile long clearInterval;
+
+    /**
+     * 缓存项存活时间(毫秒)，0 表示不过期
+     */
+    private volatile long timeToLive;
+
+    private volatile long lastClear;
+
+    private TimerWheel.Timeout clearTimeout;
+
+    public ScheduledCache(Cache delegate) {
+        this.delegate = delegate;
+        this.lastClear = System.currentTimeMillis();
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        if (value == null) {
+            expirations.remove(key);
+            return;
+        }
+        long ttl = timeToLive;
+        if (ttl > 0) {
+            long expireTime = System.currentTimeMillis() + ttl;
+            expirations.compute(key, (k, expiration) -> {
+                if (expiration == null) {
+                    expiration = new Expiration(k, expireTime);
+                    TimerWheel.shared().schedule(expiration, ttl);
+                } else {
+                    // 已有定时任务，到期时按新的过期时间重新计时
+                    expiration.expireTime = expireTime;
+                }
+                return expiration;
+            });
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        long now = System.currentTimeMillis();
+        if (clearWhenStale(now)) {
+            return null;
+        }
+        Expiration expiration = expirations.get(key);
+        if (expiration != null && expiration.expireTime <= now) {
+            expiration.run();
+            return null;
+        }
+        return delegate.get(key);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        expirations.remove(key);
+        return delegate.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        lastClear = System.currentTimeMillis();
+        // 尚未触发的过期任务在到期时发现记录已不存在，直接忽略
+        expirations.clear();
+        delegate.clear();
+    }
+
+    @Override
+    public int size() {
+        clearWhenStale(System.currentTimeMillis());
+        return delegate.size();
+    }
+
+    public long getClearInterval() {
+        return clearInterval;
+    }
+
+    /**
+     * 设置清空间隔，并在时间轮上安排定时清空
+     *
+     * @param clearInterval 清空间隔(毫秒)
+     */
+    public synchronized void setClearInterval(long clearInterval) {
+        this.clearInterval = Math.max(0, clearInterval);
+        if (clearTimeout != null) {
+            clearTimeout.cancel();
+            clearTimeout = null;
+        }
+        if (this.clearInterval > 0) {
+            clearTimeout = scheduleClear(new WeakReference<>(this), this.clearInterval);
+        }
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = Math.max(0, timeToLive);
+    }
+
+    /**
+     * 距上次清空已超过清空间隔时清空缓存
+     *
+     * @param now 当前时间
+     * @return boolean 是否清空
+     */
+    private boolean clearWhenStale(long now) {
+        long interval = clearInterval;
+        if (interval > 0 && now - lastClear >= interval) {
+            clear();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 安排下一次定时清空；任务只弱引用缓存，配置被丢弃后定时任务随之结束
+     *
+     * @param reference 缓存的弱引用
+     * @param delay     延迟(毫秒)
+     * @return {@link TimerWheel.Timeout}
+     */
+    private static TimerWheel.Timeout scheduleClear(WeakReference<ScheduledCache> reference, long delay) {
+        return TimerWheel.shared().schedule(() -> {
+            ScheduledCache cache = reference.get();
+            if (cache == null) {
+                return;
+            }
+            synchronized (cache) {
+                if (cache.clearInterval <= 0) {
+                    return;
+                }
+                long now = System.currentTimeMillis();
+                cache.clearWhenStale(now);
+                cache.clearTimeout = scheduleClear(reference, cache.lastClear + cache.clearInterval - now);
+            }
+        }, delay);
+    }
+
+    /**
+     * 缓存项的过期任务
+     */
+    private class Expiration implements Runnable {
+
+        private final Object key;
+
+        private volatile long expireTime;
+
+        private Expiration(Object key, long expireTime) {
+            this.key = key;
+            this.expireTime = expireTime;
+        }
+
+        /**
+         * 到期时删除缓存项；期间重新存入过的按新的过期时间重新计时。
+         * 是否到期在 compute 中判定，删除缓存项放在 compute 之外，避免持有 ConcurrentHashMap 的桶锁时调用委托缓存
+         * (委托缓存可能加锁或进行 IO，也可能回调本缓存)。
+         * 与并发的存入交错时最多多删除一次新值，只会多一次未命中，不会读到过期数据
+         */
+        @Override
+        public void run() {
+            boolean[] expired = new boolean[1];
+            expirations.computeIfPresent(key, (k, expiration) -> {
+                if (expiration != this) {
+                    return expiration;
+                }
+                long remaining = expireTime - System.currentTimeMillis();
+                if (remaining > 0) {
+                    TimerWheel.shared().schedule(this, remaining);
+                    return this;
+                }
+                expired[0] = true;
+                return null;
+            });
+            if (expired[0]) {
+                delegate.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.code.cache.decorator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 时间轮
+ * <p>
+ * 所有缓存共用一个时间轮和一个守护线程推进：每 {@link #TICK_MILLIS} 毫秒前进一格，执行该格中到期的任务。
+ * 任务按到期时间散列到各格中，超过一圈的任务记录剩余圈数，每经过一次减一；
+ * 新增任务先放入无锁队列，由推进线程在下一格转入，格子只由推进线程访问，无需加锁。
+ * 定时任务的精度为一格，缓存读取时另行检查过期时间，不会读到已过期的缓存项
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+class TimerWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+
+    /**
+     * 每格的时长(毫秒)
+     */
+    static final long TICK_MILLIS = 100;
+
+    /**
+     * 格数(2 的幂)
+     */
+    private static final int WHEEL_SIZE = 512;
+
+    private static final TimerWheel SHARED = new TimerWheel();
+
+    private final List<ArrayDeque<Timeout>> wheel = new ArrayList<>(WHEEL_SIZE);
+
+    /**
+     * 尚未转入格子的任务
+     */
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 推进线程已处理到的格数
+     */
+    private long tick;
+
+    private long startTime;
+
+    private volatile Thread worker;
+
+    private TimerWheel() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * 共享的时间轮
+     *
+     * @return {@link TimerWheel}
+     */
+    static TimerWheel shared() {
+        return SHARED;
+    }
+
+    /**
+     * 延迟执行任务(任务在推进线程中执行，应当尽快返回)
+     *
+     * @param task  任务
+     * @param delay 延迟(毫秒)
+     * @return {@link Timeout}
+     */
+    Timeout schedule(Runnable task, long delay) {
+        start();
+        Timeout timeout = new Timeout(task, System.nanoTime() + Math.max(0, delay) * 1_000_000);
+        pending.offer(timeout);
+        return timeout;
+    }
+
+    /**
+     * 首次使用时启动推进线程
+     */
+    private void start() {
+        if (worker == null) {
+            synchronized (this) {
+                if (worker == null) {
+                    startTime = System.nanoTime();
+                    Thread thread = new Thread(this::run, "ormframework-cache-timer");
+                    thread.setDaemon(true);
+                    thread.start();
+                    worker = thread;
+                }
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            long deadline = startTime + (tick + 1) * TICK_MILLIS * 1_000_000;
+            long sleepMillis = (deadline - System.nanoTime() + 999_999) / 1_000_000;
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            transferPending();
+            expire(wheel.get((int) (tick & (WHEEL_SIZE - 1))));
+            tick++;
+        }
+    }
+
+    /**
+     * 把新增的任务放入到期时间所在的格子
+     */
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long expireTick = Math.max(tick, (timeout.deadline - startTime) / (TICK_MILLIS * 1_000_000));
+            timeout.remainingRounds = (expireTick - tick) / WHEEL_SIZE;
+            wheel.get((int) (expireTick & (WHEEL_SIZE - 1))).add(timeout);
+        }
+    }
+
+    /**
+     * 执行格子中到期的任务，未到期的任务剩余圈数减一
+     *
+     * @param bucket 格子
+     */
+    private void expire(ArrayDeque<Timeout> bucket) {
+        for (int i = bucket.size(); i > 0; i--) {
+            Timeout timeout = bucket.poll();
+            if (timeout.cancelled) {
+                continue;
+            }
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                bucket.add(timeout);
+                continue;
+            }
+            try {
+                timeout.task.run();
+            } catch (Throwable e) {
+                logger.error("缓存定时任务执行失败", e);
+            }
+        }
+    }
+
+    /**
+     * 定时任务
+     */
+    static class Timeout {
+
+        private final Runnable task;
+
+        private final long deadline;
+
+        private volatile boolean cancelled;
+
+        /**
+         * 剩余圈数(只由推进线程访问)
+         */
+        private long remainingRounds;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.code.cache.decorator;
+
+import com.code.cache.Cache;
+
+import java.util.LinkedHashMap;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * W-TinyLFU 缓存
+ * <p>
+ * 新键先进入占容量 1% 的 LRU 窗口区，被挤出窗口时与主区(分段 LRU：试用段 20% + 保护段 80%)
+ * 中最该淘汰的键比较频率草图估计的访问频率，频率更高者留下。
+ * 一次性扫描的键访问频率低，进不了主区，不会把热点键挤出缓存；
+ * 窗口区让突发的新热点有机会积累频率。
+ * <p>
+ * 写入与淘汰在锁内进行；读取先放入有界的读缓冲区，拿到锁的线程顺带回放缓冲区中的访问记录，
+ * 读路径不会因为争用而阻塞(缓冲区满时丢弃记录，只会轻微影响淘汰的准确度)
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class TinyLFUCache implements Cache {
+
+    /**
+     * 读缓冲区容量
+     */
+    private static final int READ_BUFFER_SIZE = 256;
+
+    /**
+     * 委托
+     */
+    private final Cache delegate;
+
+    /**
+     * 窗口区(LRU)
+     */
+    private final LinkedHashMap<Object, Object> window = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 主区试用段(LRU)
+     */
+    private final LinkedHashMap<Object, Object> probation = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 主区保护段(LRU)
+     */
+    private final LinkedHashMap<Object, Object> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 尚未回放的读取记录
+     */
+    private final Queue<Object> readBuffer = new ArrayBlockingQueue<>(READ_BUFFER_SIZE);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final FrequencySketch sketch;
+
+    private volatile int size;
+
+    private int maxWindow;
+
+    private int maxMain;
+
+    private int maxProtected;
+
+    public TinyLFUCache(Cache delegate) {
+        this.delegate = delegate;
+        this.sketch = new FrequencySketch(1024);
+        setSize(1024);
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        // 新键写入委托后进入窗口区，被挤出窗口时才与主区的淘汰候选比较频率，未被接纳的从委托中删除
+        delegate.put(key, value);
+        if (value == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            drainReadBuffer();
+            if (!onAccess(key)) {
+                sketch.increment(key);
+                window.put(key, key);
+                evict();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object value = delegate.get(key);
+        if (value != null) {
+            readBuffer.offer(key);
+            if (lock.tryLock()) {
+                try {
+                    drainReadBuffer();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        lock.lock();
+        try {
+            if (window.remove(key) == null && probation.remove(key) == null) {
+                protectedSegment.remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return delegate.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            readBuffer.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            sketch.clear();
+            delegate.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * 设置容量(在下一次写入时按新容量淘汰)
+     *
+     * @param size 容量
+     */
+    public void setSize(int size) {
+        lock.lock();
+        try {
+            this.size = Math.max(1, size);
+            this.maxWindow = Math.max(1, this.size / 100);
+            this.maxMain = this.size - maxWindow;
+            this.maxProtected = maxMain * 80 / 100;
+            sketch.ensureCapacity(this.size);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    /**
+     * 回放读缓冲区中的访问记录
+     */
+    private void drainReadBuffer() {
+        Object key;
+        while ((key = readBuffer.poll()) != null) {
+            onAccess(key);
+        }
+    }
+
+    /**
+     * 记录一次访问：试用段中的键被再次访问时晋升到保护段
+     *
+     * @param key 键
+     * @return boolean 键是否在缓存中
+     */
+    private boolean onAccess(Object key) {
+        if (window.get(key) != null || protectedSegment.get(key) != null) {
+            sketch.increment(key);
+            return true;
+        }
+        if (probation.remove(key) == null) {
+            return false;
+        }
+        sketch.increment(key);
+        protectedSegment.put(key, key);
+        // 保护段超出容量时，最久未访问的键降回试用段
+        while (protectedSegment.size() > maxProtected) {
+            Object demoted = eldest(protectedSegment);
+            protectedSegment.remove(demoted);
+            probation.put(demoted, demoted);
+        }
+        return true;
+    }
+
+    /**
+     * 窗口区溢出的键与主区的淘汰候选比较访问频率，淘汰频率较低者
+     */
+    private void evict() {
+        while (window.size() > maxWindow) {
+            Object candidate = eldest(window);
+            window.remove(candidate);
+            if (probation.size() + protectedSegment.size() < maxMain) {
+                probation.put(candidate, candidate);
+                continue;
+            }
+            LinkedHashMap<Object, Object> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+            Object victim = eldest(victimSegment);
+            if (victim != null && sketch.frequency(candidate) > sketch.frequency(victim)) {
+                victimSegment.remove(victim);
+                delegate.remove(victim);
+                probation.put(candidate, candidate);
+            } else {
+                delegate.remove(candidate);
+            }
+        }
+        // 缩小容量后主区可能超出上限
+        while (probation.size() + protectedSegment.size() > maxMain) {
+            LinkedHashMap<Object, Object> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+            Object victim = eldest(victimSegment);
+            victimSegment.remove(victim);
+            delegate.remove(victim);
+        }
+    }
+
+    private static Object eldest(LinkedHashMap<Object, Object> segment) {
+        return segment.isEmpty() ? null : segment.keySet().iterator().next();
+    }
+}
@@ -0,0 +1,275 @@
+package com.code.cache.decorator;
+
+import com.code.cache.Cache;
+import com.code.cache.ResultSizeWeigher;
+import com.code.cache.Weigher;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按内存占用限制容量的缓存
+ * <p>
+ * 由 {@link Weigher} 估算每个缓存项的大小，总大小超出 maxBytes 时按存入顺序淘汰，
+ * 单项超出 maxBytes 的结果(如几万行的查询)直接不缓存。
+ * 装饰在淘汰策略(FIFO/LRU/TINYLFU)之外，与按条目数的容量同时生效：
+ * 基础缓存之上的 {@link RemovalTracker} 在内层淘汰(或拒绝接纳)键的同时把它从权重统计中扣除。
+ * 写入、删除与淘汰在同一把锁内进行，总权重始终与缓存中的内容一致
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class WeightedCache implements Cache {
+
+    /**
+     * 委托
+     */
+    private final Cache delegate;
+
+    /**
+     * 每个键的权重
+     */
+    private final Map<Object, Long> weights = new ConcurrentHashMap<>();
+
+    /**
+     * 键队列
+     */
+    private final KeyQueue keyList = new KeyQueue();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 当前总权重(只在锁内修改)
+     */
+    private volatile long totalWeight;
+
+    private volatile long maxBytes = Long.MAX_VALUE;
+
+    private volatile Weigher weigher = new ResultSizeWeigher();
+
+    public WeightedCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 创建按内存占用限制容量的缓存，内层淘汰的键由删除记录器通知扣除
+     *
+     * @param delegate 委托
+     * @param tracker  基础缓存之上的删除记录器
+     */
+    public WeightedCache(Cache delegate, RemovalTracker tracker) {
+        this(delegate);
+        tracker.owner = this;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        // 权重在锁外计算，估算大结果的开销不阻塞其他写入
+        long weight = value == null ? 0 : weigher.weigh(key, value);
+        lock.lock();
+        try {
+            if (value == null) {
+                delegate.put(key, null);
+                release(key);
+                return;
+            }
+            if (weight > maxBytes) {
+                // 单项超出预算，不缓存
+                release(key);
+                delegate.remove(key);
+                return;
+            }
+            // 先登记再写入：写入时被内层立即淘汰的键会经删除记录器扣除
+            Long previous = weights.put(key, weight);
+            totalWeight += weight - (previous == null ? 0 : previous);
+            if (previous == null) {
+                keyList.offer(key);
+            }
+            try {
+                delegate.put(key, value);
+            } catch (RuntimeException | Error e) {
+                release(key);
+                throw e;
+            }
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object value = delegate.get(key);
+        if (value == null && weights.containsKey(key)) {
+            // 自定义的基础缓存没有删除记录器，自行删除的键在未命中时扣除
+            onRemoval(key);
+        }
+        return value;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        lock.lock();
+        try {
+            release(key);
+            return delegate.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            delegate.clear();
+            weights.clear();
+            keyList.clear();
+            totalWeight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public Weigher getWeigher() {
+        return weigher;
+    }
+
+    public void setWeigher(Weigher weigher) {
+        this.weigher = weigher;
+    }
+
+    /**
+     * 当前总权重
+     *
+     * @return long 字节数
+     */
+    public long getWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * 键已从内层删除，从权重统计中扣除
+     *
+     * @param key 键
+     */
+    private void onRemoval(Object key) {
+        lock.lock();
+        try {
+            release(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 从权重统计中扣除键(调用方持有锁)
+     *
+     * @param key 键
+     */
+    private void release(Object key) {
+        Long weight = weights.remove(key);
+        if (weight != null) {
+            totalWeight -= weight;
+        }
+    }
+
+    /**
+     * 按存入顺序淘汰，直至总权重不超过预算；
+     * 队列中已扣除的键过多时顺带清理，仍在缓存中的键移到队尾(调用方持有锁)
+     */
+    private void evict() {
+        // 单次清理的步数有限，避免队列中重复的键导致反复轮转
+        int trimSteps = 128;
+        while (totalWeight > maxBytes || (keyList.length() > 2 * weights.size() + 64 && trimSteps-- > 0)) {
+            Object oldestKey = keyList.poll();
+            if (oldestKey == null) {
+                break;
+            }
+            if (totalWeight <= maxBytes) {
+                if (weights.containsKey(oldestKey)) {
+                    keyList.offer(oldestKey);
+                }
+                continue;
+            }
+            if (weights.containsKey(oldestKey)) {
+                release(oldestKey);
+                delegate.remove(oldestKey);
+            }
+        }
+    }
+
+    /**
+     * 基础缓存之上的删除记录器
+     * <p>
+     * 内层淘汰策略淘汰或拒绝接纳键时会从基础缓存中删除它，记录器据此通知外层的 WeightedCache 扣除权重
+     */
+    public static class RemovalTracker implements Cache {
+
+        /**
+         * 委托(基础缓存)
+         */
+        private final Cache delegate;
+
+        private volatile WeightedCache owner;
+
+        public RemovalTracker(Cache delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            delegate.put(key, value);
+        }
+
+        @Override
+        public Object get(Object key) {
+            return delegate.get(key);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            Object value = delegate.remove(key);
+            WeightedCache weightedCache = owner;
+            if (weightedCache != null) {
+                weightedCache.onRemoval(key);
+            }
+            return value;
+        }
+
+        @Override
+        public void clear() {
+            // 内层只会在外层清空时随之清空，外层自行清空权重统计
+            delegate.clear();
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+    }
+}
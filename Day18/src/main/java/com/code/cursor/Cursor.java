@@ -0,0 +1,36 @@
+package com.code.cursor;
+
+import java.io.Closeable;
+
+/**
+ * 游标(逐行从打开的 ResultSet 中映射结果，适合遍历无法一次性装入内存的大结果集)
+ * <p>
+ * 游标持有数据库连接上的语句与结果集，必须在会话关闭前遍历完毕或显式关闭；
+ * 只能获取一次迭代器
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public interface Cursor<T> extends Closeable, Iterable<T> {
+
+    /**
+     * 游标是否已开始读取且尚未关闭
+     *
+     * @return boolean
+     */
+    boolean isOpen();
+
+    /**
+     * 是否已读取完所有结果
+     *
+     * @return boolean
+     */
+    boolean isConsumed();
+
+    /**
+     * 获取当前结果的下标(从 0 开始，不含因 offset 跳过的行，尚未读取时为 -1)
+     *
+     * @return int
+     */
+    int getCurrentIndex();
+}
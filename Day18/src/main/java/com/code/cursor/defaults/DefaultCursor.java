@@ -0,0 +1,263 @@
+package com.code.cursor.defaults;
+
+import com.code.cursor.Cursor;
+import com.code.executor.result.DefaultResultContext;
+import com.code.executor.resultset.DefaultResultSetHandler;
+import com.code.executor.resultset.ResultSetWrapper;
+import com.code.mapping.ResultMap;
+import com.code.session.ResultContext;
+import com.code.session.ResultHandler;
+import com.code.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 默认游标实现
+ * <p>
+ * 每次迭代只从结果集中读取并映射一行，不缓存已读取的结果；遍历结束、超出 RowBounds 限制或
+ * 调用 close 时关闭结果集与语句
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class DefaultCursor<T> implements Cursor<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultCursor.class);
+
+    /**
+     * 结果集处理器
+     */
+    private final DefaultResultSetHandler resultSetHandler;
+
+    /**
+     * 结果映射
+     */
+    private final ResultMap resultMap;
+
+    /**
+     * 结果集包装器
+     */
+    private final ResultSetWrapper wrapper;
+
+    /**
+     * 行范围
+     */
+    private final RowBounds rowBounds;
+
+    /**
+     * 游标持有的语句(关闭游标时一并关闭)
+     */
+    private final Statement statement;
+
+    /**
+     * 每次只保存一行结果的处理器
+     */
+    private final ObjectWrapperResultHandler<T> objectWrapperResultHandler = new ObjectWrapperResultHandler<>();
+
+    /**
+     * 迭代器
+     */
+    private final CursorIterator cursorIterator = new CursorIterator();
+
+    /**
+     * 是否已获取过迭代器
+     */
+    private boolean iteratorRetrieved;
+
+    /**
+     * 游标状态
+     */
+    private CursorStatus status = CursorStatus.CREATED;
+
+    /**
+     * 已从结果集读取并映射的行数
+     */
+    private long fetchedRows;
+
+    public DefaultCursor(DefaultResultSetHandler resultSetHandler, ResultMap resultMap, ResultSetWrapper wrapper, RowBounds rowBounds, Statement statement) {
+        this.resultSetHandler = resultSetHandler;
+        this.resultMap = resultMap;
+        this.wrapper = wrapper;
+        this.rowBounds = rowBounds;
+        this.statement = statement;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return status == CursorStatus.OPEN;
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return status == CursorStatus.CONSUMED;
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return cursorIterator.iteratorIndex;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (iteratorRetrieved) {
+            throw new IllegalStateException("游标只能遍历一次！");
+        }
+        if (isClosed()) {
+            throw new IllegalStateException("游标已关闭！");
+        }
+        iteratorRetrieved = true;
+        return cursorIterator;
+    }
+
+    @Override
+    public void close() {
+        if (isClosed()) {
+            return;
+        }
+        if (status != CursorStatus.CREATED) {
+            // 游标读取的行数也计入自适应 fetchSize 的统计，须在关闭结果集之前读取元数据
+            try {
+                resultSetHandler.recordFetch(wrapper, fetchedRows);
+            } catch (SQLException ignore) {
+                // 统计失败不影响关闭
+            }
+        }
+        try {
+            wrapper.getResultSet().close();
+        } catch (SQLException ignore) {
+            // 结果集关闭失败不影响语句关闭
+        }
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.warn("关闭游标的 statement 时发生异常", e);
+        } finally {
+            status = CursorStatus.CLOSED;
+        }
+    }
+
+    /**
+     * 从数据库读取并映射下一行(首次读取时跳过 offset 行，已返回 limit 行或读完时关闭游标)
+     *
+     * @param returned 已返回的结果数
+     * @return boolean 是否读取到了一行
+     */
+    protected boolean fetchNextFromDatabase(int returned) {
+        if (isClosed()) {
+            return false;
+        }
+        objectWrapperResultHandler.fetched = false;
+        objectWrapperResultHandler.result = null;
+        try {
+            if (status == CursorStatus.CREATED) {
+                status = CursorStatus.OPEN;
+                // 可滚动结果集直接定位，否则逐行跳过，被跳过的行都不做映射
+                resultSetHandler.skipRows(wrapper.getResultSet(), rowBounds);
+            }
+            if (returned < rowBounds.getLimit()) {
+                resultSetHandler.handleRowValues(wrapper, resultMap, objectWrapperResultHandler, new DefaultResultContext());
+            }
+        } catch (SQLException e) {
+            close();
+            throw new RuntimeException("游标读取数据时发生异常：" + e.getMessage(), e);
+        }
+        if (objectWrapperResultHandler.fetched) {
+            fetchedRows++;
+        } else {
+            close();
+            status = CursorStatus.CONSUMED;
+        }
+        return objectWrapperResultHandler.fetched;
+    }
+
+    private boolean isClosed() {
+        return status == CursorStatus.CLOSED || status == CursorStatus.CONSUMED;
+    }
+
+    /**
+     * 游标状态
+     */
+    private enum CursorStatus {
+        /**
+         * 已创建，尚未读取
+         */
+        CREATED,
+        /**
+         * 正在读取
+         */
+        OPEN,
+        /**
+         * 已关闭(未读完)
+         */
+        CLOSED,
+        /**
+         * 已读完
+         */
+        CONSUMED
+    }
+
+    /**
+     * 只保存当前一行结果的处理器，保存后立即停止读取
+     */
+    private static class ObjectWrapperResultHandler<T> implements ResultHandler {
+
+        private T result;
+
+        private boolean fetched;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void handeResult(ResultContext context) {
+            this.result = (T) context.getResultObject();
+            this.fetched = true;
+            context.stop();
+        }
+    }
+
+    /**
+     * 游标迭代器
+     */
+    private class CursorIterator implements Iterator<T> {
+
+        /**
+         * 预读的下一个结果
+         */
+        private T object;
+
+        /**
+         * 是否已预读到下一个结果
+         */
+        private boolean prefetched;
+
+        /**
+         * 已返回结果的下标
+         */
+        private int iteratorIndex = -1;
+
+        @Override
+        public boolean hasNext() {
+            if (!prefetched && fetchNextFromDatabase(iteratorIndex + 1)) {
+                object = objectWrapperResultHandler.result;
+                prefetched = true;
+            }
+            return prefetched;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T next = object;
+            object = null;
+            prefetched = false;
+            iteratorIndex++;
+            return next;
+        }
+    }
+}
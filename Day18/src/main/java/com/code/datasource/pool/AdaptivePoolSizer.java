@@ -0,0 +1,162 @@
+package com.code.datasource.pool;
+
+import com.code.datasource.pool.metrics.LatencyHistogram;
+import com.code.datasource.pool.metrics.PoolMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 自适应连接池容量控制器
+ * <p>
+ * 由后台维护线程按固定间隔调用 {@link #adjust()}，以两次调用之间的增量指标为依据：
+ * <ul>
+ *     <li>签出等待平均时间超过阈值、有线程在等待、出现获取超时或利用率过高时投票扩容；</li>
+ *     <li>利用率过低且几乎没有等待时投票缩容；</li>
+ *     <li>连接占用时间(近似查询延迟)明显高于基线时说明数据库本身已饱和，此时不扩容，避免雪上加霜。</li>
+ * </ul>
+ * 扩容需要连续 {@link #GROW_PERIODS} 个周期、缩容需要连续 {@link #SHRINK_PERIODS} 个周期的同向投票(滞回)，
+ * 防止容量随瞬时抖动来回振荡
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class AdaptivePoolSizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+    /**
+     * 扩容所需的连续投票周期数
+     */
+    private static final int GROW_PERIODS = 2;
+
+    /**
+     * 缩容所需的连续投票周期数(缩容比扩容更保守)
+     */
+    private static final int SHRINK_PERIODS = 6;
+
+    /**
+     * 高利用率阈值
+     */
+    private static final double HIGH_UTILIZATION = 0.9;
+
+    /**
+     * 低利用率阈值
+     */
+    private static final double LOW_UTILIZATION = 0.5;
+
+    /**
+     * 连接占用时间超过基线的倍数时视为数据库饱和
+     */
+    private static final double LATENCY_DEGRADATION_FACTOR = 2.0;
+
+    /**
+     * 基线的指数移动平均系数
+     */
+    private static final double BASELINE_ALPHA = 0.1;
+
+    /**
+     * 数据源
+     */
+    private final PoolDataSource dataSource;
+
+    /**
+     * 空闲连接数与活跃连接数上限之比(调整容量时保持不变)
+     */
+    private final double idleRatio;
+
+    /**
+     * 上一周期的累计值
+     */
+    private long lastWaitCount;
+    private long lastWaitSum;
+    private long lastUsageCount;
+    private long lastUsageSum;
+    private long lastTimeouts;
+
+    /**
+     * 连接占用时间基线(毫秒，小于 0 表示尚未建立)
+     */
+    private double usageBaseline = -1;
+
+    /**
+     * 连续投票计数
+     */
+    private int growVotes;
+    private int shrinkVotes;
+
+    public AdaptivePoolSizer(PoolDataSource dataSource) {
+        this.dataSource = dataSource;
+        int maxActive = Math.max(1, dataSource.getPoolMaximumActiveConnections());
+        this.idleRatio = Math.min(1.0, (double) dataSource.getPoolMaximumIdleConnections() / maxActive);
+        PoolMetrics metrics = dataSource.getMetrics();
+        this.lastWaitCount = metrics.getCheckoutWaitHistogram().getCount();
+        this.lastWaitSum = metrics.getCheckoutWaitHistogram().getSum();
+        this.lastUsageCount = metrics.getUsageHistogram().getCount();
+        this.lastUsageSum = metrics.getUsageHistogram().getSum();
+        this.lastTimeouts = metrics.getConnectionTimeoutCount();
+    }
+
+    /**
+     * 根据上一周期的指标调整连接池容量
+     */
+    public void adjust() {
+        PoolMetrics metrics = dataSource.getMetrics();
+        LatencyHistogram wait = metrics.getCheckoutWaitHistogram();
+        LatencyHistogram usage = metrics.getUsageHistogram();
+
+        // 本周期的增量(签出等待以微秒记录，连接占用以毫秒记录)
+        long waitCount = wait.getCount();
+        long waitSum = wait.getSum();
+        long usageCount = usage.getCount();
+        long usageSum = usage.getSum();
+        long timeouts = metrics.getConnectionTimeoutCount();
+        double waitMillis = waitCount > lastWaitCount ? (waitSum - lastWaitSum) / 1000.0 / (waitCount - lastWaitCount) : 0;
+        double usageMillis = usageCount > lastUsageCount ? (double) (usageSum - lastUsageSum) / (usageCount - lastUsageCount) : -1;
+        long newTimeouts = timeouts - lastTimeouts;
+        lastWaitCount = waitCount;
+        lastWaitSum = waitSum;
+        lastUsageCount = usageCount;
+        lastUsageSum = usageSum;
+        lastTimeouts = timeouts;
+
+        int maximum = dataSource.getPoolMaximumActiveConnections();
+        int waiting = dataSource.getWaitingThreadCount();
+        double utilization = maximum <= 0 ? 1.0 : (double) dataSource.getActiveConnectionCount() / maximum;
+        long waitThreshold = dataSource.getAdaptiveWaitThreshold();
+
+        boolean pressure = waiting > 0 || newTimeouts > 0 || waitMillis > waitThreshold || utilization >= HIGH_UTILIZATION;
+        boolean degraded = usageBaseline > 0 && usageMillis > usageBaseline * LATENCY_DEGRADATION_FACTOR;
+        boolean underused = waiting == 0 && newTimeouts == 0 && utilization < LOW_UTILIZATION && waitMillis <= waitThreshold / 4.0;
+
+        if (pressure && !degraded) {
+            growVotes++;
+            shrinkVotes = 0;
+        } else if (underused) {
+            shrinkVotes++;
+            growVotes = 0;
+        } else {
+            growVotes = 0;
+            shrinkVotes = 0;
+        }
+
+        // 只在没有压力时更新基线，避免饱和期间的高延迟被当作常态
+        if (usageMillis >= 0 && !pressure) {
+            usageBaseline = usageBaseline < 0 ? usageMillis : usageBaseline + BASELINE_ALPHA * (usageMillis - usageBaseline);
+        }
+
+        if (growVotes >= GROW_PERIODS && maximum < dataSource.getAdaptiveMaxConnections()) {
+            growVotes = 0;
+            resize(Math.min(dataSource.getAdaptiveMaxConnections(), maximum + Math.max(1, maximum / 4)), maximum, waitMillis, utilization);
+        } else if (shrinkVotes >= SHRINK_PERIODS && maximum > dataSource.getAdaptiveMinConnections()) {
+            shrinkVotes = 0;
+            resize(Math.max(dataSource.getAdaptiveMinConnections(), maximum - Math.max(1, maximum / 8)), maximum, waitMillis, utilization);
+        }
+    }
+
+    private void resize(int target, int maximum, double waitMillis, double utilization) {
+        int idle = Math.max(1, (int) Math.round(target * idleRatio));
+        logger.info("连接池 {} 自适应调整容量：{} -> {}(平均等待 {} 毫秒，利用率 {}%)",
+                dataSource.getPoolName(), maximum, target, String.format("%.2f", waitMillis), Math.round(utilization * 100));
+        dataSource.resize(target, Math.min(target, idle));
+    }
+}
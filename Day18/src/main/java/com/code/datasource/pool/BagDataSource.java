@@ -0,0 +1,376 @@
+package com.code.datasource.pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.code.datasource.pool.PoolConnection.STATE_IN_USE;
+import static com.code.datasource.pool.PoolConnection.STATE_NOT_IN_USE;
+
+/**
+ * 无锁连接池数据源
+ * <p>
+ * 与 PoolDataSource 共用同一套配置项，但连接的签出与归还不再竞争 poolState 上的全局锁，
+ * 而是交给 {@link ConcurrentBag} 通过 CAS 完成；新建物理连接也在任何锁之外进行。
+ * 等待线程只在交接队列上等待归还，连接被移除(而非归还)空出名额时，由后台线程为等待线程补建连接
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class BagDataSource extends PoolDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(BagDataSource.class);
+
+    /**
+     * 连接总数(包含正在创建中的连接)
+     */
+    private final AtomicInteger totalConnections = new AtomicInteger();
+
+    /**
+     * 连接包(线程开始等待时若仍有空余名额，在后台补建连接)
+     */
+    private final ConcurrentBag bag = new ConcurrentBag(waiting -> {
+        if (totalConnections.get() < poolMaximumActiveConnections) {
+            fillWaitersAsync();
+        }
+    });
+
+    /**
+     * 为等待线程补建连接的后台线程(首次需要时创建)
+     */
+    private volatile ExecutorService connectionCreator;
+
+    public BagDataSource() {
+        super();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        initializeIfNecessary();
+        return popConnection(dataSource.getUsername(), dataSource.getPassword()).newProxyConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        initializeIfNecessary();
+        return popConnection(username, password).newProxyConnection();
+    }
+
+    /**
+     * 弹出连接
+     *
+     * @param username 用户名
+     * @param password 密码
+     * @return {@link PoolConnection}
+     * @throws SQLException SQLException
+     */
+    private PoolConnection popConnection(String username, String password) throws SQLException {
+        final long startNanos = System.nanoTime();
+        final long deadline = startNanos + TimeUnit.MILLISECONDS.toNanos(poolTimeToWait);
+        int localBadConnectionCount = 0;
+        try {
+            while (true) {
+                // 先不等待地尝试借出空闲连接，没有则尝试新建，都不行再等待归还
+                PoolConnection connection = bag.borrow(0, TimeUnit.NANOSECONDS);
+                if (connection == null) {
+                    connection = createConnection();
+                }
+                if (connection == null) {
+                    long remaining = deadline - System.nanoTime();
+                    connection = remaining > 0 ? bag.borrow(remaining, TimeUnit.NANOSECONDS) : null;
+                }
+                if (connection == null) {
+                    recordConnectionTimeout();
+                    throw new SQLException("等待 " + poolTimeToWait + " 毫秒后仍未能从连接池获取连接！");
+                }
+
+                if (connection.isValid()) {
+                    if (!connection.getRealConnection().getAutoCommit()) {
+                        connection.getRealConnection().rollback();
+                    }
+                    connection.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
+                    connection.setCheckoutTimestamp(System.currentTimeMillis());
+                    connection.setLastUsedTimestamp(System.currentTimeMillis());
+                    recordConnectionAcquired(System.nanoTime() - startNanos);
+                    recordCheckout(connection);
+                    return connection;
+                }
+
+                logger.warn("一个错误的连接 {} 从连接池中返回，正在重新获得其他连接！", connection.getRealHashCode());
+                closeConnection(connection);
+                localBadConnectionCount++;
+                if (localBadConnectionCount > (poolMaximumIdleConnections + 3)) {
+                    throw new SQLException("已无法从该数据源的线程池中获取正确连接！");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("请求连接时线程被中断！", e);
+        }
+    }
+
+    /**
+     * 在未达到最大活跃连接数时新建连接(在锁外创建物理连接)
+     *
+     * @return {@link PoolConnection} 已达上限时返回 null
+     * @throws SQLException SQLException
+     */
+    private PoolConnection createConnection() throws SQLException {
+        int total;
+        while ((total = totalConnections.get()) < poolMaximumActiveConnections) {
+            if (totalConnections.compareAndSet(total, total + 1)) {
+                try {
+                    PoolConnection connection = newPoolConnection();
+                    // 新建的连接直接归创建线程使用
+                    connection.setState(STATE_IN_USE);
+                    bag.add(connection);
+                    logger.debug("新建连接：{}", connection.getRealHashCode());
+                    return connection;
+                } catch (SQLException | RuntimeException e) {
+                    totalConnections.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 收回连接
+     *
+     * @param connection 连接
+     * @throws SQLException SQLException
+     */
+    @Override
+    protected void pushConnection(PoolConnection connection) throws SQLException {
+        // 重复关闭或已被移除的连接直接忽略
+        if (connection.getState() != STATE_IN_USE) {
+            return;
+        }
+        recordConnectionUsage(connection.getCheckoutTime());
+        if (connection.isValid()) {
+            if (!connection.getRealConnection().getAutoCommit()) {
+                connection.getRealConnection().rollback();
+            }
+            // 连接已过期、连接总数超过(缩容后的)上限，或没有线程等待且空闲连接已足够时，关闭该连接
+            if (isExpired(connection) || totalConnections.get() > poolMaximumActiveConnections
+                    || (bag.getWaitingThreadCount() == 0 && bag.getCount(STATE_NOT_IN_USE) >= poolMaximumIdleConnections)) {
+                closeConnection(connection);
+                logger.debug("{} 连接已关闭", connection.getRealHashCode());
+                return;
+            }
+            connection.setLastUsedTimestamp(System.currentTimeMillis());
+            bag.requite(connection);
+        } else {
+            logger.warn("错误连接 {} 尝试放回置连接池，已丢弃该连接！", connection.getRealHashCode());
+            closeConnection(connection);
+        }
+    }
+
+    /**
+     * 后台维护：先通过 CAS 占用空闲连接再检查，避免与签出线程竞争
+     */
+    @Override
+    protected void housekeep() {
+        detectLeaks();
+        int idle = bag.getCount(STATE_NOT_IN_USE);
+        for (PoolConnection connection : bag.values()) {
+            if (!connection.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                continue;
+            }
+            long idleTime = connection.getTimeElapsedSinceLastUse();
+            if (isExpired(connection) || (idleTimeout > 0 && idleTime > idleTimeout && idle > minIdle)) {
+                logger.debug("空闲连接 {} 已过期，正在关闭", connection.getRealHashCode());
+                idle--;
+                closeConnection(connection);
+            } else if (keepaliveTime > 0 && idleTime > keepaliveTime) {
+                if (keepaliveConnection(connection)) {
+                    connection.setLastUsedTimestamp(System.currentTimeMillis());
+                    bag.requite(connection);
+                } else {
+                    idle--;
+                    closeConnection(connection);
+                }
+            } else {
+                bag.requite(connection);
+            }
+        }
+
+        // 补齐最小空闲连接
+        int target = Math.min(minIdle, poolMaximumIdleConnections);
+        while (fillIdleConnection(target)) {
+            // 逐个创建直到达到最小空闲连接数
+        }
+    }
+
+    /**
+     * 空闲连接不足目标数量时，新建一个空闲连接(在锁外创建，总数由 CAS 控制)
+     *
+     * @param target 目标空闲连接数
+     * @return boolean 是否新建了连接
+     */
+    @Override
+    protected boolean fillIdleConnection(int target) {
+        if (bag.getCount(STATE_NOT_IN_USE) >= target) {
+            return false;
+        }
+        PoolConnection connection;
+        try {
+            connection = createConnection();
+        } catch (SQLException e) {
+            logger.warn("新建空闲连接失败：{}", e.getMessage());
+            return false;
+        }
+        if (connection == null) {
+            return false;
+        }
+        bag.requite(connection);
+        return true;
+    }
+
+    /**
+     * 调整容量：缩容时通过 CAS 占用并关闭多余的空闲连接；扩容时为正在等待的线程新建连接并直接移交
+     *
+     * @param maximumActiveConnections 最大活跃连接数
+     * @param maximumIdleConnections   最大空闲连接数
+     */
+    @Override
+    public void resize(int maximumActiveConnections, int maximumIdleConnections) {
+        super.resize(maximumActiveConnections, maximumIdleConnections);
+        int idle = bag.getCount(STATE_NOT_IN_USE);
+        for (PoolConnection connection : bag.values()) {
+            if (idle <= poolMaximumIdleConnections && totalConnections.get() <= poolMaximumActiveConnections) {
+                break;
+            }
+            if (connection.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                idle--;
+                closeConnection(connection);
+            }
+        }
+        // 等待线程只会在交接队列上等待归还，不会自行重试创建，因此由这里补建连接
+        fillWaiters();
+    }
+
+    /**
+     * 为正在等待的线程新建连接并直接移交，直到没有等待线程或达到最大活跃连接数
+     */
+    private void fillWaiters() {
+        for (int waiting = bag.getWaitingThreadCount(); waiting > 0; waiting--) {
+            PoolConnection connection;
+            try {
+                connection = createConnection();
+            } catch (SQLException e) {
+                logger.warn("为等待线程新建连接失败：{}", e.getMessage());
+                return;
+            }
+            if (connection == null) {
+                return;
+            }
+            bag.requite(connection);
+        }
+    }
+
+    /**
+     * 在后台为等待线程补建连接(连接被移除时调用，不阻塞移除连接的线程；已有待执行的补建任务时不重复提交)
+     */
+    private void fillWaitersAsync() {
+        ExecutorService executor = connectionCreator;
+        if (executor == null) {
+            synchronized (this) {
+                executor = connectionCreator;
+                if (executor == null) {
+                    executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                            daemonThreadFactory("creator"), new ThreadPoolExecutor.DiscardPolicy());
+                    connectionCreator = executor;
+                }
+            }
+        }
+        executor.execute(this::fillWaiters);
+    }
+
+    @Override
+    protected List<PoolConnection> getActiveConnectionsSnapshot() {
+        List<PoolConnection> active = new ArrayList<>();
+        for (PoolConnection connection : bag.values()) {
+            if (connection.getState() == STATE_IN_USE) {
+                active.add(connection);
+            }
+        }
+        return active;
+    }
+
+    /**
+     * 将连接移出连接包并关闭
+     *
+     * @param connection 连接
+     */
+    private void closeConnection(PoolConnection connection) {
+        if (!bag.remove(connection)) {
+            return;
+        }
+        totalConnections.decrementAndGet();
+        connection.invalidate();
+        try {
+            connection.getRealConnection().close();
+        } catch (SQLException e) {
+            logger.warn("关闭连接 {} 时出错：{}", connection.getRealHashCode(), e.getMessage());
+        }
+        // 名额已空出，等待线程不会自行重试创建
+        if (bag.getWaitingThreadCount() > 0) {
+            fillWaitersAsync();
+        }
+    }
+
+    /**
+     * 强制关闭全部连接
+     */
+    @Override
+    public void forceCloseAll() {
+        super.forceCloseAll();
+        for (PoolConnection connection : bag.values()) {
+            try {
+                Connection realConnection = connection.getRealConnection();
+                if (!realConnection.getAutoCommit()) {
+                    realConnection.rollback();
+                }
+            } catch (SQLException ignore) {
+                // 关闭前回滚失败不影响关闭
+            }
+            closeConnection(connection);
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        ExecutorService executor = connectionCreator;
+        if (executor != null) {
+            executor.shutdownNow();
+            connectionCreator = null;
+        }
+    }
+
+    @Override
+    public int getActiveConnectionCount() {
+        return bag.getCount(STATE_IN_USE);
+    }
+
+    @Override
+    public int getIdleConnectionCount() {
+        return bag.getCount(STATE_NOT_IN_USE);
+    }
+
+    @Override
+    public int getWaitingThreadCount() {
+        return bag.getWaitingThreadCount();
+    }
+}
@@ -0,0 +1,16 @@
+package com.code.datasource.pool;
+
+import com.code.datasource.unpool.UnpoolDataSourceFactory;
+
+/**
+ * 无锁连接池数据源工厂
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class BagDataSourceFactory extends UnpoolDataSourceFactory {
+
+    public BagDataSourceFactory() {
+        this.dataSource = new BagDataSource();
+    }
+}
@@ -0,0 +1,40 @@
+package com.code.datasource.pool;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * 可缓存的预处理语句
+ * <p>
+ * 调用 close 时不关闭真实语句，而是清理参数后归还到所属连接的语句缓存中
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class CachedStatement extends ProxyPreparedStatement {
+
+    /**
+     * 所属的池化连接
+     */
+    private final PoolConnection poolConnection;
+
+    /**
+     * 缓存键
+     */
+    private final PreparedStatementCache.StatementKey key;
+
+    CachedStatement(PoolConnection poolConnection, ProxyConnection connection, PreparedStatementCache.StatementKey key, PreparedStatement realStatement) {
+        super(connection, realStatement);
+        this.poolConnection = poolConnection;
+        this.key = key;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!closed) {
+            closed = true;
+            connection.unregister(this);
+            poolConnection.returnStatement(connection, key, preparedStatement);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.code.datasource.pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.code.datasource.pool.PoolConnection.STATE_IN_USE;
+import static com.code.datasource.pool.PoolConnection.STATE_NOT_IN_USE;
+import static com.code.datasource.pool.PoolConnection.STATE_REMOVED;
+
+/**
+ * 并发连接包(无锁连接容器)
+ * <p>
+ * 借出连接时依次尝试：当前线程上次归还的连接 -> 共享列表中的空闲连接 -> 等待其他线程通过交接队列直接移交，
+ * 整个过程只依赖 PoolConnection 上的 CAS 状态，不持有任何全局锁。
+ * 线程开始等待时回调 {@link WaitListener}，由数据源判断是否还能新建连接
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class ConcurrentBag {
+
+    /**
+     * 每个线程最多记录的最近使用连接数
+     */
+    private static final int MAX_THREAD_LOCAL_SIZE = 16;
+
+    /**
+     * 共享列表(读多写少，只有新建/移除连接时才会写入)
+     */
+    private final CopyOnWriteArrayList<PoolConnection> sharedList = new CopyOnWriteArrayList<>();
+
+    /**
+     * 线程本地的最近使用连接(连接亲和性)
+     */
+    private final ThreadLocal<List<PoolConnection>> threadList = ThreadLocal.withInitial(() -> new ArrayList<>(MAX_THREAD_LOCAL_SIZE));
+
+    /**
+     * 交接队列(公平模式，先等待的线程先拿到归还的连接)
+     */
+    private final SynchronousQueue<PoolConnection> handoffQueue = new SynchronousQueue<>(true);
+
+    /**
+     * 等待连接的线程数
+     */
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    /**
+     * 等待回调
+     */
+    private final WaitListener waitListener;
+
+    public ConcurrentBag() {
+        this(null);
+    }
+
+    public ConcurrentBag(WaitListener waitListener) {
+        this.waitListener = waitListener;
+    }
+
+    /**
+     * 借出连接
+     *
+     * @param timeout 超时时间
+     * @param unit    时间单位
+     * @return {@link PoolConnection} 超时返回 null
+     * @throws InterruptedException 等待时被中断
+     */
+    public PoolConnection borrow(long timeout, TimeUnit unit) throws InterruptedException {
+        // 优先使用当前线程上次归还的连接
+        final List<PoolConnection> list = threadList.get();
+        for (int i = list.size() - 1; i >= 0; i--) {
+            final PoolConnection connection = list.remove(i);
+            if (connection.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                return connection;
+            }
+        }
+
+        final int waiting = waiters.incrementAndGet();
+        try {
+            // 扫描共享列表
+            for (PoolConnection connection : sharedList) {
+                if (connection.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                    return connection;
+                }
+            }
+
+            // 等待其他线程归还(先登记为等待线程再回调，与移除连接后检查等待线程数配合，空出的名额不会被遗漏)
+            long remaining = unit.toNanos(timeout);
+            if (remaining > 0 && waitListener != null) {
+                waitListener.onWait(waiting);
+            }
+            do {
+                final long start = System.nanoTime();
+                final PoolConnection connection = handoffQueue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (connection == null || connection.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                    return connection;
+                }
+                remaining -= System.nanoTime() - start;
+            } while (remaining > 10_000);
+
+            return null;
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * 归还连接
+     *
+     * @param connection 连接
+     */
+    public void requite(PoolConnection connection) {
+        connection.setState(STATE_NOT_IN_USE);
+
+        // 有线程在等待时尝试直接移交
+        for (int i = 0; waiters.get() > 0; i++) {
+            if (connection.getState() != STATE_NOT_IN_USE || handoffQueue.offer(connection)) {
+                return;
+            } else if ((i & 0xff) == 0xff) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+            } else {
+                Thread.yield();
+            }
+        }
+
+        final List<PoolConnection> list = threadList.get();
+        if (list.size() < MAX_THREAD_LOCAL_SIZE) {
+            list.add(connection);
+        }
+    }
+
+    /**
+     * 添加连接(新建连接由创建线程直接占用，状态应已为使用中)
+     *
+     * @param connection 连接
+     */
+    public void add(PoolConnection connection) {
+        sharedList.add(connection);
+    }
+
+    /**
+     * 移除连接
+     *
+     * @param connection 连接
+     * @return boolean 是否移除成功
+     */
+    public boolean remove(PoolConnection connection) {
+        if (!connection.compareAndSetState(STATE_IN_USE, STATE_REMOVED) && !connection.compareAndSetState(STATE_NOT_IN_USE, STATE_REMOVED)) {
+            return false;
+        }
+        threadList.get().remove(connection);
+        return sharedList.remove(connection);
+    }
+
+    /**
+     * 获取快照
+     *
+     * @return {@link List}<{@link PoolConnection}>
+     */
+    public List<PoolConnection> values() {
+        return new ArrayList<>(sharedList);
+    }
+
+    /**
+     * 统计处于某状态的连接数
+     *
+     * @param state 状态
+     * @return int
+     */
+    public int getCount(int state) {
+        int count = 0;
+        for (PoolConnection connection : sharedList) {
+            if (connection.getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int size() {
+        return sharedList.size();
+    }
+
+    public int getWaitingThreadCount() {
+        return waiters.get();
+    }
+
+    /**
+     * 等待回调
+     */
+    public interface WaitListener {
+
+        /**
+         * 借出连接的线程没有找到空闲连接，即将在交接队列上等待
+         *
+         * @param waiting 等待线程数
+         */
+        void onWait(int waiting);
+    }
+}
@@ -0,0 +1,22 @@
+package com.code.datasource.pool;
+
+/**
+ * 连接泄漏监听器
+ * <p>
+ * 连接签出时间超过 leakDetectionThreshold，或因逾期被连接池强制收回时回调；
+ * 可通过数据源的 leakListenerClass 属性配置实现类(需有无参构造)
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public interface ConnectionLeakListener {
+
+    /**
+     * 发现疑似泄漏的连接
+     *
+     * @param connection   连接(可通过 getCheckoutSite/getCheckoutThread 获取签出位置与线程)
+     * @param checkoutTime 已签出时长(毫秒)
+     * @param reclaimed    是否已被连接池强制收回
+     */
+    void onLeak(PoolConnection connection, long checkoutTime, boolean reclaimed);
+}
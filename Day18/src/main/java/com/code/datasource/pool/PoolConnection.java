@@ -1,10 +1,15 @@
 package com.code.datasource.pool;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 池化连接
@@ -12,14 +17,24 @@ import java.sql.SQLException;
  * @author HeXin
  * @date 2024/01/27
  */
-public class PoolConnection implements InvocationHandler {
+public class PoolConnection {
+
+    private static final Logger logger = LoggerFactory.getLogger(PoolConnection.class);
+
+    /**
+     * 连接状态：空闲
+     */
+    public static final int STATE_NOT_IN_USE = 0;
 
     /**
-     * 关闭
+     * 连接状态：使用中
      */
-    private static final String CLOSE = "close";
+    public static final int STATE_IN_USE = 1;
 
-    private static final Class<?>[] IFACES = new Class<?>[]{Connection.class};
+    /**
+     * 连接状态：已移出连接池
+     */
+    public static final int STATE_REMOVED = -1;
 
     /**
      * 哈希码
@@ -37,9 +52,9 @@ public class PoolConnection implements InvocationHandler {
     private final Connection realConnection;
 
     /**
-     * 代理连接
+     * 当前签出的代理连接(每次签出新建，归还后调用方保留的旧代理连接随之失效)
      */
-    private final Connection proxyConnection;
+    private volatile ProxyConnection proxyConnection;
 
     /**
      * 连接检查时间戳
@@ -62,9 +77,34 @@ public class PoolConnection implements InvocationHandler {
     private int connectionTypeCode;
 
     /**
-     * 连接是否有效
+     * 连接是否有效(被强制收回时由其他线程置为无效)
+     */
+    private volatile boolean valid;
+
+    /**
+     * 连接状态(供 ConcurrentBag 通过 CAS 争抢连接)
      */
-    private boolean valid;
+    private final AtomicInteger state = new AtomicInteger(STATE_NOT_IN_USE);
+
+    /**
+     * 签出位置(开启泄漏检测且被采样时记录)
+     */
+    private volatile Throwable checkoutSite;
+
+    /**
+     * 签出连接的线程名
+     */
+    private volatile String checkoutThread;
+
+    /**
+     * 是否已报告过泄漏
+     */
+    private volatile boolean leakReported;
+
+    /**
+     * 预处理语句缓存(随物理连接在多次签出之间复用)
+     */
+    private PreparedStatementCache statementCache;
 
     public PoolConnection(Connection connection, PoolDataSource dataSource){
         this.hashCode = connection.hashCode();
@@ -73,30 +113,103 @@ public class PoolConnection implements InvocationHandler {
         this.createdTimestamp = System.currentTimeMillis();
         this.lastUsedTimestamp = System.currentTimeMillis();
         this.valid = true;
-        this.proxyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),IFACES,this);
     }
-    @Override
-    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        String methodName = method.getName();
-        // 若调用 close 关闭链接方法，则将链接加入至连接池中，并返回null
-        if(CLOSE.hashCode() == methodName.hashCode() && CLOSE.equals(methodName)){
-            dataSource.pushConnection(this);
-            return null;
-        } else {
-            // 否则执行原来的逻辑
-            if(!Object.class.equals(method.getDeclaringClass())){
-                // 除 toString() 方法，其他方法调用之前要检查 connection 是否合法
-                checkConnection();
+
+    /**
+     * 签出时创建新的代理连接
+     *
+     * @return {@link Connection}
+     */
+    Connection newProxyConnection() {
+        ProxyConnection connection = new ProxyConnection(this, realConnection);
+        this.proxyConnection = connection;
+        return connection;
+    }
+
+    /**
+     * 归还连接(代理连接调用 close 时触发)
+     *
+     * @throws SQLException SQLException
+     */
+    void release() throws SQLException {
+        dataSource.pushConnection(this);
+    }
+
+    /**
+     * 获取预处理语句：开启语句缓存时优先从缓存中获取，未命中时新建
+     *
+     * @param owner                签出该语句的代理连接
+     * @param sql                  SQL 语句
+     * @param resultSetType        结果集类型
+     * @param resultSetConcurrency 结果集并发模式
+     * @param autoGeneratedKeys    是否返回自增主键
+     * @return {@link PreparedStatement}
+     * @throws SQLException SQLException
+     */
+    PreparedStatement prepareStatement(ProxyConnection owner, String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) throws SQLException {
+        int cacheSize = dataSource.getPreparedStatementCacheSize();
+        if(cacheSize <= 0){
+            return new ProxyPreparedStatement(owner, prepareRealStatement(sql, resultSetType, resultSetConcurrency, autoGeneratedKeys));
+        }
+        if(statementCache == null){
+            statementCache = new PreparedStatementCache(cacheSize);
+        }
+        PreparedStatementCache.StatementKey key = new PreparedStatementCache.StatementKey(sql, resultSetType, resultSetConcurrency, autoGeneratedKeys);
+        PreparedStatement statement = statementCache.take(key);
+        dataSource.recordStatementCacheAccess(statement != null);
+        if(statement == null){
+            statement = prepareRealStatement(sql, resultSetType, resultSetConcurrency, autoGeneratedKeys);
+        }
+        return new CachedStatement(this, owner, key, statement);
+    }
+
+    private PreparedStatement prepareRealStatement(String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) throws SQLException {
+        if(autoGeneratedKeys != Statement.NO_GENERATED_KEYS){
+            return realConnection.prepareStatement(sql, autoGeneratedKeys);
+        }
+        if(resultSetType == ResultSet.TYPE_FORWARD_ONLY && resultSetConcurrency == ResultSet.CONCUR_READ_ONLY){
+            return realConnection.prepareStatement(sql);
+        }
+        return realConnection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+    }
+
+    /**
+     * 归还被逻辑关闭的语句(连接已失效、语句不属于当前签出或缓存中已有相同语句时直接关闭)
+     *
+     * @param owner     签出该语句的代理连接
+     * @param key       缓存键
+     * @param statement 真实语句
+     * @throws SQLException SQLException
+     */
+    void returnStatement(ProxyConnection owner, PreparedStatementCache.StatementKey key, PreparedStatement statement) throws SQLException {
+        boolean cached = false;
+        // 已归还或被强制收回的旧签出上的语句不能再放回缓存，缓存此时可能正被下一个使用者访问
+        if(valid && owner == proxyConnection && !owner.isReleased() && statementCache != null && !statement.isClosed()){
+            try {
+                ResultSet resultSet = statement.getResultSet();
+                if(resultSet != null){
+                    resultSet.close();
+                }
+                statement.clearParameters();
+                // 丢弃未执行的批量语句，并把本次使用设置的选项恢复为驱动默认值，避免影响下一个使用者
+                statement.clearBatch();
+                statement.setQueryTimeout(0);
+                statement.setFetchSize(0);
+                statement.setMaxRows(0);
+                cached = statementCache.offer(key, statement);
+            } catch (SQLException e){
+                logger.warn("重置缓存的 statement 时发生异常，改为直接关闭：{}", e.getMessage());
             }
         }
-        // 其余方法则交给 connection 去调用
-        return method.invoke(realConnection,args);
+        if(!cached){
+            statement.close();
+        }
     }
 
     /**
      * 检查连接是否合法
      */
-    private void checkConnection() throws SQLException {
+    void checkConnection() throws SQLException {
         if(!valid){
             throw new SQLException("访问数据库连接池错误，连接非法！");
         }
@@ -110,11 +223,66 @@ public class PoolConnection implements InvocationHandler {
         return valid && realConnection != null && dataSource.pingConnection(this);
     }
 
+    public int getState() {
+        return state.get();
+    }
+
+    public void setState(int state) {
+        this.state.set(state);
+    }
+
+    /**
+     * CAS 修改连接状态
+     *
+     * @param expect 期望状态
+     * @param update 新状态
+     * @return boolean 是否修改成功
+     */
+    public boolean compareAndSetState(int expect, int update) {
+        return state.compareAndSet(expect, update);
+    }
+
+    /**
+     * 记录签出位置(只在开启泄漏检测时调用；按 1/sampleRate 的概率采集完整堆栈，未采样时只记录线程名，不分配对象)
+     *
+     * @param sampleRate 采样间隔
+     */
+    public void recordCheckoutSite(int sampleRate) {
+        this.checkoutThread = Thread.currentThread().getName();
+        this.checkoutSite = sampleRate <= 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0
+                ? new Throwable("连接 " + getRealHashCode() + " 的签出位置") : null;
+        this.leakReported = false;
+    }
+
+    public Throwable getCheckoutSite() {
+        return checkoutSite;
+    }
+
+    public String getCheckoutThread() {
+        return checkoutThread;
+    }
+
+    public boolean isLeakReported() {
+        return leakReported;
+    }
+
+    public void setLeakReported(boolean leakReported) {
+        this.leakReported = leakReported;
+    }
+
+    public PreparedStatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    public void setStatementCache(PreparedStatementCache statementCache) {
+        this.statementCache = statementCache;
+    }
+
     public Connection getRealConnection() {
         return realConnection;
     }
 
-    public Connection getProxyConnection() {
+    public ProxyConnection getProxyConnection() {
         return proxyConnection;
     }
 
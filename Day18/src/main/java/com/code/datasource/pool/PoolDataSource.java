@@ -2,13 +2,30 @@ package com.code.datasource.pool;
 
 
 
+import com.code.datasource.pool.metrics.MetricsTracker;
+import com.code.datasource.pool.metrics.PoolMetrics;
 import com.code.datasource.unpool.UnpoolDataSource;
+import org.slf4j.LoggerFactory;
 
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 import java.io.PrintWriter;
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Proxy;
+import java.lang.management.ManagementFactory;
 import java.sql.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 /**
@@ -18,6 +35,18 @@ import java.util.logging.Logger;
  */
 public class PoolDataSource implements DataSource {
 
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(PoolDataSource.class);
+
+    /**
+     * 预热时并行创建连接的最大线程数
+     */
+    private static final int MAX_WARM_UP_THREADS = 8;
+
+    /**
+     * 默认最多同时等待连接的线程数
+     */
+    public static final int DEFAULT_MAXIMUM_WAITING_THREADS = 256;
+
     /**
      * 池状态
      */
@@ -26,17 +55,17 @@ public class PoolDataSource implements DataSource {
     /**
      * 数据源
      */
-    private final UnpoolDataSource dataSource;
+    protected final UnpoolDataSource dataSource;
 
     /**
-     * 最大活跃连接数
+     * 最大活跃连接数(开启自适应容量后会在运行期被调整)
      */
-    protected int poolMaximumActiveConnections = 10;
+    protected volatile int poolMaximumActiveConnections = 10;
 
     /**
-     * 最大空闲连接数
+     * 最大空闲连接数(开启自适应容量后会在运行期被调整)
      */
-    protected int poolMaximumIdleConnections = 5;
+    protected volatile int poolMaximumIdleConnections = 5;
 
     /**
      * 池中连接被检查的时间(连接被强制返回之前)
@@ -48,6 +77,12 @@ public class PoolDataSource implements DataSource {
      */
     protected int poolTimeToWait = 20000;
 
+    /**
+     * 最多允许同时等待连接的线程数(超出后请求直接失败)；
+     * 默认有上限，避免虚拟线程等大量并发请求全部堆积在连接池上
+     */
+    protected int poolMaximumWaitingThreads = DEFAULT_MAXIMUM_WAITING_THREADS;
+
     /**
      * 池 ping 查询，杨宏宇验证连接是否正常工作，并准备接受请求(默认为 "NO PING QUERY SET"，这会引起许多数据库驱动连接由一个错误的信息而导致失败)
      */
@@ -63,6 +98,131 @@ public class PoolDataSource implements DataSource {
      */
     protected int poolPingConnectionsNotUseFor = 0;
 
+    /**
+     * 最小空闲连接数(由后台维护线程补齐)
+     */
+    protected int minIdle = 0;
+
+    /**
+     * 连接最大存活时间(毫秒，超过后在空闲或归还时被淘汰，0 表示不限制)
+     */
+    protected long maxLifetime = 0;
+
+    /**
+     * 空闲超时时间(毫秒，超过后多于 minIdle 的空闲连接会被关闭，0 表示不限制)
+     */
+    protected long idleTimeout = 0;
+
+    /**
+     * 保活间隔(毫秒，空闲超过该时间的连接由后台线程检测，0 表示不检测)
+     */
+    protected long keepaliveTime = 0;
+
+    /**
+     * 后台维护线程执行间隔(毫秒)
+     */
+    protected long housekeepingPeriod = 30000;
+
+    /**
+     * 后台维护线程(配置了以上任意一项时，在首次获取连接时启动)
+     */
+    private volatile ScheduledExecutorService housekeeper;
+
+    /**
+     * 自适应容量的调度任务(后台维护线程运行且开启自适应容量时存在，在锁内创建与取消)
+     */
+    private ScheduledFuture<?> adaptiveSizingTask;
+
+    /**
+     * 初始连接数(首次获取连接或调用 warmUp 时在后台并行创建，不超过最大活跃/空闲连接数)
+     */
+    protected int initialSize = 0;
+
+    /**
+     * 预热任务
+     */
+    private volatile CompletableFuture<Void> warmUpFuture;
+
+    /**
+     * 泄漏检测阈值(毫秒，连接签出超过该时间未归还视为疑似泄漏，0 表示关闭；由后台维护线程按 housekeepingPeriod 检查)
+     */
+    protected long leakDetectionThreshold = 0;
+
+    /**
+     * 泄漏检测采样间隔(平均每 N 次签出采集一次完整堆栈，其余只记录线程名)
+     */
+    protected int leakDetectionSampleRate = 1;
+
+    /**
+     * 连接泄漏监听器
+     */
+    protected ConnectionLeakListener leakListener = PoolDataSource::printLeak;
+
+    /**
+     * 每个连接缓存的预处理语句数(0 表示不缓存)
+     */
+    protected int preparedStatementCacheSize = 0;
+
+    /**
+     * 预处理语句缓存命中次数
+     */
+    private final LongAdder statementCacheHits = new LongAdder();
+
+    /**
+     * 预处理语句缓存未命中次数
+     */
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    /**
+     * 内置指标(无锁记录，始终开启)
+     */
+    private final PoolMetrics metrics = new PoolMetrics(this);
+
+    /**
+     * 外部指标收集器
+     */
+    protected MetricsTracker metricsTracker;
+
+    /**
+     * 连接池名称(用于 JMX 注册)
+     */
+    protected String poolName = "pool-" + Integer.toHexString(System.identityHashCode(this));
+
+    /**
+     * 是否将指标注册到 JMX
+     */
+    protected boolean registerMbeans = false;
+
+    /**
+     * 已注册的 JMX 名称
+     */
+    private volatile ObjectName mbeanName;
+
+    /**
+     * 是否开启自适应容量(由后台维护线程根据签出等待、利用率与连接占用时间在上下限之间调整最大连接数)
+     */
+    protected boolean adaptiveSizing = false;
+
+    /**
+     * 自适应容量下限
+     */
+    protected int adaptiveMinConnections = 1;
+
+    /**
+     * 自适应容量上限
+     */
+    protected int adaptiveMaxConnections = 50;
+
+    /**
+     * 签出平均等待时间阈值(毫秒，超过后投票扩容)
+     */
+    protected long adaptiveWaitThreshold = 50;
+
+    /**
+     * 自适应容量的调整间隔(毫秒)
+     */
+    protected long adaptiveSizingPeriod = 5000;
+
     /**
      * 预期连接类型代码
      */
@@ -80,9 +240,11 @@ public class PoolDataSource implements DataSource {
      */
     protected void pushConnection(PoolConnection connection) throws SQLException {
         // 加锁，防止其余线程同时抢夺同一个线程
-        synchronized (poolState) {
+        poolState.lock.lock();
+        try {
             // 将该连接从活跃线程中移除
             poolState.activeConnections.remove(connection);
+            recordConnectionUsage(connection.getCheckoutTime());
             // 判断该连接是否有效
             if(connection.isValid()){
                 poolState.accumulatedCheckOutTime += connection.getCheckoutTime();
@@ -90,27 +252,37 @@ public class PoolDataSource implements DataSource {
                 if(!connection.getRealConnection().getAutoCommit()){
                     connection.getRealConnection().rollback();
                 }
-                // 若空闲链接小于设定数量
-                if(poolState.idleConnections.size() < poolMaximumIdleConnections && connection.getConnectionTypeCode() == expectedConnectionTypeCode){
+                // 若空闲链接小于设定数量、连接总数未超过最大活跃连接数(缩容后超出的连接在归还时淘汰)且连接未超过最大存活时间
+                if(poolState.idleConnections.size() < poolMaximumIdleConnections
+                        && countConnections() < poolMaximumActiveConnections
+                        && connection.getConnectionTypeCode() == expectedConnectionTypeCode && !isExpired(connection)){
                     // 实例化一个新的数据库连接，加入到 idle 列表
                     PoolConnection newConnection = new PoolConnection(connection.getRealConnection(), this);
+                    // 语句缓存跟随物理连接
+                    newConnection.setStatementCache(connection.getStatementCache());
                     poolState.idleConnections.add(newConnection);
                     newConnection.setCreatedTimestamp(connection.getCreatedTimestamp());
-                    newConnection.setLastUsedTimestamp(connection.getLastUsedTimestamp());
-                    System.out.println("归还连接 "+newConnection.getRealHashCode() +" 到连接池");
+                    newConnection.setLastUsedTimestamp(System.currentTimeMillis());
+                    // 旧的池化连接失效，调用方保留的旧代理连接不能再使用该物理连接
+                    connection.invalidate();
+                    logger.debug("归还连接 {} 到连接池", newConnection.getRealHashCode());
 
-                    // 通知其余线程来获取数据库连接
-                    poolState.notifyAll();
+                    // 唤醒等待最久的线程来获取数据库连接
+                    poolState.connectionAvailable.signal();
                 } else { // 否则，空闲连接比较充足
                     // 将该连接关闭
                     connection.getRealConnection().close();
-                    System.out.println(connection.getRealHashCode() + " 连接已关闭");
+                    logger.debug("{} 连接已关闭", connection.getRealHashCode());
                     connection.invalidate();
+                    // 名额可能已空出，让等待线程重新检查
+                    poolState.connectionAvailable.signal();
                 }
             } else {
-                System.out.println("错误连接 "+connection.getRealHashCode()+" 尝试放回置连接池，已丢弃该连接！");
+                logger.warn("错误连接 {} 尝试放回置连接池，已丢弃该连接！", connection.getRealHashCode());
                 poolState.badConnectionCount++;
             }
+        } finally {
+            poolState.lock.unlock();
         }
     }
 
@@ -127,24 +299,37 @@ public class PoolDataSource implements DataSource {
         PoolConnection connection = null;
         // 获取当前时间戳
         long stamp = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         int localBadConnectionCount = 0;
+        // 因逾期被强制收回的连接
+        PoolConnection reclaimed = null;
+        // 在锁外新建的连接
+        PoolConnection created = null;
         while(connection == null){
-            synchronized (poolState) {
-                // 若有空闲连接则返回第一个(出栈操作)
-                if(!poolState.idleConnections.isEmpty()){
+            boolean reserved = false;
+            poolState.lock.lock();
+            try {
+                if(created != null){
+                    // 释放预留的名额，新建的连接与空闲连接一样经过下面的检查后签出
+                    poolState.pendingConnections--;
+                    connection = created;
+                    created = null;
+                } else if(!poolState.idleConnections.isEmpty()){
+                    // 若有空闲连接则返回第一个(出栈操作)
                     connection = poolState.idleConnections.remove(0);
-                    System.out.println("已将 "+connection.getRealHashCode()+" 连接签出连接池");
+                    logger.debug("已将 {} 连接签出连接池", connection.getRealHashCode());
                 } else { // 若无空闲连接，则创建新的连接
-                    // 活跃数未满
-                    if(poolState.activeConnections.size() < poolMaximumActiveConnections) {
-                        connection = new PoolConnection(dataSource.getConnection(), this);
-                        System.out.println("新建连接："+connection.getRealHashCode());
+                    // 连接总数(包含正在创建与正在保活的连接)未满
+                    if(countConnections() < poolMaximumActiveConnections) {
+                        // 只在锁内预留名额，物理连接在锁外创建，避免建连耗时阻塞其他线程
+                        poolState.pendingConnections++;
+                        reserved = true;
                     } else { // 活跃连接数已满
-                        // 获取活跃连接列表中的第一个，即最老的连接
-                        PoolConnection oldestConnection = poolState.activeConnections.get(0);
-                        long longestCheckOutTime = oldestConnection.getCheckoutTime();
+                        // 获取活跃连接列表中的第一个，即最老的连接(名额可能全部被正在创建的连接占用)
+                        PoolConnection oldestConnection = poolState.activeConnections.isEmpty() ? null : poolState.activeConnections.get(0);
+                        long longestCheckOutTime = oldestConnection == null ? 0 : oldestConnection.getCheckoutTime();
                         // 若 checkout 时间过长，则该连接标记为过期
-                        if(longestCheckOutTime > poolMaximumCheckOutTime){
+                        if(oldestConnection != null && longestCheckOutTime > poolMaximumCheckOutTime){
                             poolState.claimedOverdueConnectionCount++;
                             poolState.accumulatedCheckOutTimeOfOverdueConnections += longestCheckOutTime;
                             poolState.accumulatedCheckOutTime += longestCheckOutTime;
@@ -154,21 +339,37 @@ public class PoolDataSource implements DataSource {
                             }
                             // 删除最老的连接，重新实例化一个新连接
                             connection = new PoolConnection(oldestConnection.getRealConnection(),this);
+                            connection.setStatementCache(oldestConnection.getStatementCache());
                             // 将旧连接置为非法连接
                             oldestConnection.invalidate();
-                            System.out.println("已声明的逾期连接："+connection.getRealConnection());
+                            reclaimed = oldestConnection;
+                            logger.debug("已声明的逾期连接：{}", connection.getRealConnection());
                         } else { // 若超过时间不够长则继续等待
+                            // 等待队列已满则直接失败，避免无限堆积等待线程
+                            if(poolState.waitingCount >= poolMaximumWaitingThreads){
+                                recordConnectionTimeout();
+                                throw new SQLException("等待连接的线程数已达上限 " + poolMaximumWaitingThreads + "，拒绝本次请求！");
+                            }
                             try {
                                 if(!countedWait){
                                     poolState.hadToWaitCount++;
                                     countedWait = true;
                                 }
-                                System.out.println("连接等待 " + poolTimeToWait + " 毫秒");
+                                logger.debug("连接等待 {} 毫秒", poolTimeToWait);
                                 long waitTime = System.currentTimeMillis();
-                                poolState.wait(poolTimeToWait);
+                                poolState.waitingCount++;
+                                poolState.peakWaitingCount = Math.max(poolState.peakWaitingCount, poolState.waitingCount);
+                                try {
+                                    // Condition 等待会释放锁并挂起当前线程，虚拟线程不会因此钉住载体线程
+                                    if(!poolState.connectionAvailable.await(poolTimeToWait, TimeUnit.MILLISECONDS)){
+                                        recordConnectionTimeout();
+                                    }
+                                } finally {
+                                    poolState.waitingCount--;
+                                }
                                 poolState.accumulatedWaitTime += System.currentTimeMillis() - waitTime;
                             } catch (InterruptedException e) {
-                                System.err.println("请求连接时发生错误！");
+                                logger.warn("请求连接时发生错误！", e);
                                 /* Clean up whatever needs to be handled before interrupting  */
                                 Thread.currentThread().interrupt();
                                 break;
@@ -190,7 +391,7 @@ public class PoolDataSource implements DataSource {
                         poolState.requestCount++;
                         poolState.accumulatedRequestTime += System.currentTimeMillis() - stamp;
                     } else {
-                        System.out.println("一个错误的连接 "+connection.getRealHashCode()+" 从连接池中返回，正在重新获得其他连接！");
+                        logger.warn("一个错误的连接 {} 从连接池中返回，正在重新获得其他连接！", connection.getRealHashCode());
                         // 若未拿到连接则统计失败连接数加一
                         poolState.badConnectionCount++;
                         localBadConnectionCount++;
@@ -201,12 +402,24 @@ public class PoolDataSource implements DataSource {
                         }
                     }
                 }
+            } finally {
+                poolState.lock.unlock();
+            }
+            if(reserved){
+                created = createReservedConnection();
+                logger.debug("新建连接：{}", created.getRealHashCode());
             }
         }
         // 此时连接若为空则证明发生异常
         if(connection == null) {
             throw new SQLException("因发生未知的严重错误情况， 连接池返回了空连接！");
         }
+        // 在锁外报告被强制收回的连接与采集签出位置
+        if(reclaimed != null && leakDetectionThreshold > 0){
+            reportLeak(reclaimed, reclaimed.getCheckoutTime(), true);
+        }
+        recordCheckout(connection);
+        recordConnectionAcquired(System.nanoTime() - startNanos);
         return connection;
     }
 
@@ -214,7 +427,8 @@ public class PoolDataSource implements DataSource {
      * 强制关闭全部连接
      */
     public void forceCloseAll() {
-        synchronized (poolState) {
+        poolState.lock.lock();
+        try {
             expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(),dataSource.getUsername(),dataSource.getPassword());
             // 关闭活跃连接
             for(int i = poolState.activeConnections.size() - 1;i >= 0;i--){
@@ -228,10 +442,27 @@ public class PoolDataSource implements DataSource {
                     }
                     realConnection.close();
                 } catch (Exception ex){
-                    System.err.println("关闭失败！");
+                    logger.warn("关闭失败！", ex);
                 }
             }
-            System.out.println("数据库连接池已强制关闭所有连接！");
+            // 关闭空闲连接
+            for(int i = poolState.idleConnections.size() - 1;i >= 0;i--){
+                try{
+                    PoolConnection connection = poolState.idleConnections.remove(i);
+                    connection.invalidate();
+
+                    Connection realConnection = connection.getRealConnection();
+                    if(!realConnection.getAutoCommit()){
+                        realConnection.rollback();
+                    }
+                    realConnection.close();
+                } catch (Exception ex){
+                    logger.warn("关闭失败！", ex);
+                }
+            }
+            logger.debug("数据库连接池已强制关闭所有连接！");
+        } finally {
+            poolState.lock.unlock();
         }
     }
 
@@ -246,13 +477,14 @@ public class PoolDataSource implements DataSource {
         try {
             result = ! connection.getRealConnection().isClosed();
         } catch (SQLException ex){
-            System.err.println(connection.getRealHashCode() + " 是错误连接，错误信息为："+ex.getMessage());
+            logger.warn("{} 是错误连接，错误信息为：{}", connection.getRealHashCode(), ex.getMessage());
             result = false;
         }
 
-        if(result && (poolPingEnabled && (poolPingConnectionsNotUseFor >= 0 && connection.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUseFor))){
+        // 后台维护线程负责保活时，签出/归还不再执行 ping 查询
+        if(result && !isKeepaliveHousekeeping() && (poolPingEnabled && (poolPingConnectionsNotUseFor >= 0 && connection.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUseFor))){
                     try {
-                        System.out.println("Ping connection "+connection.getRealHashCode()+" ...");
+                        logger.debug("Ping connection {} ...", connection.getRealHashCode());
                         Connection realConnection = connection.getRealConnection();
                         Statement statement = realConnection.createStatement();
                         ResultSet resultSet = statement.executeQuery(poolPingQuery);
@@ -261,16 +493,16 @@ public class PoolDataSource implements DataSource {
                             realConnection.rollback();
                         }
                         // result = true
-                        System.out.println("Connection "+connection.getRealHashCode()+" is good!");
+                        logger.debug("Connection {} is good!", connection.getRealHashCode());
                     } catch (Exception e){
-                        System.err.println("执行 Ping 请求 ' "+poolPingQuery+" '时发生错误，错误信息："+e.getMessage());
+                        logger.warn("执行 Ping 请求 '{}' 时发生错误，错误信息：{}", poolPingQuery, e.getMessage());
                         try {
                             connection.getRealConnection().close();
                         } catch (SQLException ex){
-                            System.err.println("关闭连接时出错！");
+                            logger.warn("关闭连接时出错！", ex);
                         }
                         result = false;
-                        System.err.println(connection.getRealHashCode() + " 是错误连接，错误信息为："+e.getMessage());
+                        logger.warn("{} 是错误连接，错误信息为：{}", connection.getRealHashCode(), e.getMessage());
                     }
 
 
@@ -278,6 +510,567 @@ public class PoolDataSource implements DataSource {
         return result;
     }
 
+    /**
+     * 是否由后台维护线程负责连接保活
+     *
+     * @return boolean
+     */
+    protected boolean isKeepaliveHousekeeping() {
+        return housekeeper != null && keepaliveTime > 0;
+    }
+
+    /**
+     * 连接是否已超过最大存活时间
+     *
+     * @param connection 连接
+     * @return boolean
+     */
+    protected boolean isExpired(PoolConnection connection) {
+        return maxLifetime > 0 && connection.getAge() > maxLifetime;
+    }
+
+    /**
+     * 按需启动预热、后台维护线程并注册 JMX(首次获取连接时调用)
+     */
+    protected void initializeIfNecessary() {
+        if (registerMbeans && mbeanName == null) {
+            registerMBean();
+        }
+        if (initialSize > 0 && warmUpFuture == null) {
+            startWarmUp();
+        }
+        if (housekeeper != null || (!adaptiveSizing && minIdle <= 0 && maxLifetime <= 0 && idleTimeout <= 0 && keepaliveTime <= 0 && leakDetectionThreshold <= 0)) {
+            return;
+        }
+        poolState.lock.lock();
+        try {
+            if (housekeeper == null) {
+                ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("housekeeper"));
+                executor.scheduleWithFixedDelay(() -> {
+                    try {
+                        housekeep();
+                    } catch (Throwable e) {
+                        logger.warn("连接池后台维护时发生错误", e);
+                    }
+                }, 0, housekeepingPeriod, TimeUnit.MILLISECONDS);
+                housekeeper = executor;
+                scheduleAdaptiveSizing();
+            }
+        } finally {
+            poolState.lock.unlock();
+        }
+    }
+
+    /**
+     * 开启了自适应容量且后台维护线程已在运行时，调度容量调整任务(调用方持有锁)
+     * <p>
+     * 后台维护线程尚未启动时由 initializeIfNecessary 在启动后调用，运行期开启自适应容量时由 setAdaptiveSizing 调用
+     */
+    private void scheduleAdaptiveSizing() {
+        ScheduledExecutorService executor = housekeeper;
+        if (!adaptiveSizing || executor == null || adaptiveSizingTask != null) {
+            return;
+        }
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(this);
+        adaptiveSizingTask = executor.scheduleWithFixedDelay(() -> {
+            try {
+                sizer.adjust();
+            } catch (Throwable e) {
+                logger.warn("连接池自适应调整容量时发生错误", e);
+            }
+        }, adaptiveSizingPeriod, adaptiveSizingPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 注册 JMX 指标
+     */
+    private void registerMBean() {
+        poolState.lock.lock();
+        try {
+            if (mbeanName != null) {
+                return;
+            }
+            ObjectName name = new ObjectName("com.code.datasource.pool:type=PoolMetrics,name=" + ObjectName.quote(poolName));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+            mbeanName = name;
+        } catch (Exception e) {
+            // 注册失败不影响连接池使用，避免每次获取连接都重试
+            registerMbeans = false;
+            logger.warn("注册连接池 {} 的 JMX 指标失败：{}", poolName, e.getMessage());
+        } finally {
+            poolState.lock.unlock();
+        }
+    }
+
+    /**
+     * 新建池化连接
+     *
+     * @return {@link PoolConnection}
+     * @throws SQLException SQLException
+     */
+    protected PoolConnection newPoolConnection() throws SQLException {
+        long start = System.nanoTime();
+        PoolConnection connection = new PoolConnection(dataSource.getConnection(), this);
+        recordConnectionCreated(System.nanoTime() - start);
+        return connection;
+    }
+
+    /**
+     * 记录预处理语句缓存的访问
+     *
+     * @param hit 是否命中
+     */
+    protected void recordStatementCacheAccess(boolean hit) {
+        if (hit) {
+            statementCacheHits.increment();
+        } else {
+            statementCacheMisses.increment();
+        }
+    }
+
+    protected void recordConnectionAcquired(long elapsedNanos) {
+        metrics.recordConnectionAcquired(elapsedNanos);
+        if (metricsTracker != null) {
+            metricsTracker.recordConnectionAcquired(elapsedNanos);
+        }
+    }
+
+    protected void recordConnectionUsage(long elapsedMillis) {
+        metrics.recordConnectionUsage(elapsedMillis);
+        if (metricsTracker != null) {
+            metricsTracker.recordConnectionUsage(elapsedMillis);
+        }
+    }
+
+    protected void recordConnectionTimeout() {
+        metrics.recordConnectionTimeout();
+        if (metricsTracker != null) {
+            metricsTracker.recordConnectionTimeout();
+        }
+    }
+
+    protected void recordConnectionCreated(long elapsedNanos) {
+        metrics.recordConnectionCreated(elapsedNanos);
+        if (metricsTracker != null) {
+            metricsTracker.recordConnectionCreated(elapsedNanos);
+        }
+    }
+
+    /**
+     * 后台维护：淘汰超时/过期的空闲连接，对长时间未使用的连接保活，并补齐最小空闲连接
+     * 所有数据库 I/O 都在锁外执行
+     */
+    protected void housekeep() {
+        detectLeaks();
+        List<PoolConnection> retired = new ArrayList<>();
+        List<PoolConnection> stale = new ArrayList<>();
+        poolState.lock.lock();
+        try {
+            int idle = poolState.idleConnections.size();
+            Iterator<PoolConnection> iterator = poolState.idleConnections.iterator();
+            while (iterator.hasNext()) {
+                PoolConnection connection = iterator.next();
+                long idleTime = connection.getTimeElapsedSinceLastUse();
+                if (isExpired(connection) || (idleTimeout > 0 && idleTime > idleTimeout && idle > minIdle)) {
+                    iterator.remove();
+                    idle--;
+                    retired.add(connection);
+                } else if (keepaliveTime > 0 && idleTime > keepaliveTime) {
+                    // 暂时移出空闲列表，避免保活期间被签出；仍计入连接总数，保活期间不会超出最大连接数
+                    iterator.remove();
+                    poolState.keepaliveConnections++;
+                    stale.add(connection);
+                }
+            }
+        } finally {
+            poolState.lock.unlock();
+        }
+
+        for (PoolConnection connection : retired) {
+            logger.debug("空闲连接 {} 已过期，正在关闭", connection.getRealHashCode());
+            closeQuietly(connection);
+        }
+        for (PoolConnection connection : stale) {
+            boolean alive = keepaliveConnection(connection);
+            poolState.lock.lock();
+            try {
+                // 保活结束，释放占用的名额后再按空闲连接放回或关闭
+                poolState.keepaliveConnections--;
+                if (!alive) {
+                    poolState.badConnectionCount++;
+                    // 名额已空出，让等待线程重新检查
+                    poolState.connectionAvailable.signal();
+                }
+            } finally {
+                poolState.lock.unlock();
+            }
+            if (alive) {
+                connection.setLastUsedTimestamp(System.currentTimeMillis());
+                addIdleConnection(connection);
+            } else {
+                closeQuietly(connection);
+            }
+        }
+        fillMinIdle();
+    }
+
+    /**
+     * 记录签出位置(关闭泄漏检测时只有一次比较，不分配对象)
+     *
+     * @param connection 连接
+     */
+    protected void recordCheckout(PoolConnection connection) {
+        if (leakDetectionThreshold > 0) {
+            connection.recordCheckoutSite(leakDetectionSampleRate);
+        }
+    }
+
+    /**
+     * 检查签出时间超过阈值的活跃连接，每个连接每次签出只报告一次
+     */
+    protected void detectLeaks() {
+        if (leakDetectionThreshold <= 0) {
+            return;
+        }
+        for (PoolConnection connection : getActiveConnectionsSnapshot()) {
+            long checkoutTime = connection.getCheckoutTime();
+            // 签出时间戳为 0 的连接刚被创建，尚未真正签出
+            if (connection.getCheckoutTimestamp() > 0 && checkoutTime > leakDetectionThreshold && !connection.isLeakReported()) {
+                connection.setLeakReported(true);
+                reportLeak(connection, checkoutTime, false);
+            }
+        }
+    }
+
+    /**
+     * 获取活跃连接快照
+     *
+     * @return {@link List}<{@link PoolConnection}>
+     */
+    protected List<PoolConnection> getActiveConnectionsSnapshot() {
+        poolState.lock.lock();
+        try {
+            return new ArrayList<>(poolState.activeConnections);
+        } finally {
+            poolState.lock.unlock();
+        }
+    }
+
+    /**
+     * 回调泄漏监听器(监听器异常不影响连接池)
+     *
+     * @param connection   连接
+     * @param checkoutTime 已签出时长
+     * @param reclaimed    是否已被强制收回
+     */
+    protected void reportLeak(PoolConnection connection, long checkoutTime, boolean reclaimed) {
+        try {
+            leakListener.onLeak(connection, checkoutTime, reclaimed);
+        } catch (RuntimeException e) {
+            logger.warn("连接泄漏监听器执行出错", e);
+        }
+    }
+
+    /**
+     * 默认泄漏监听器：记录警告日志(采集到签出位置时附带其堆栈)
+     */
+    private static void printLeak(PoolConnection connection, long checkoutTime, boolean reclaimed) {
+        String message = "疑似连接泄漏：连接 " + connection.getRealHashCode() + " 已被线程 " + connection.getCheckoutThread()
+                + " 签出 " + checkoutTime + " 毫秒未归还" + (reclaimed ? "，已被连接池强制收回" : "");
+        Throwable site = connection.getCheckoutSite();
+        if (site != null) {
+            logger.warn(message, site);
+        } else {
+            logger.warn(message);
+        }
+    }
+
+    /**
+     * 补齐最小空闲连接
+     */
+    private void fillMinIdle() {
+        int target = Math.min(minIdle, poolMaximumIdleConnections);
+        while (fillIdleConnection(target)) {
+            // 逐个创建直到达到最小空闲连接数
+        }
+    }
+
+    /**
+     * 空闲连接(包含正在创建的连接)不足目标数量时，新建一个空闲连接
+     *
+     * @param target 目标空闲连接数
+     * @return boolean 是否新建了连接(已达到目标、上限或创建失败时返回 false)
+     */
+    protected boolean fillIdleConnection(int target) {
+        poolState.lock.lock();
+        try {
+            int idle = poolState.idleConnections.size();
+            if (idle + poolState.pendingConnections + poolState.keepaliveConnections >= target
+                    || countConnections() >= poolMaximumActiveConnections) {
+                return false;
+            }
+            poolState.pendingConnections++;
+        } finally {
+            poolState.lock.unlock();
+        }
+        PoolConnection connection;
+        try {
+            connection = createReservedConnection();
+        } catch (SQLException e) {
+            logger.warn("新建空闲连接失败：{}", e.getMessage());
+            return false;
+        }
+        poolState.lock.lock();
+        try {
+            poolState.pendingConnections--;
+            poolState.idleConnections.add(connection);
+            poolState.connectionAvailable.signal();
+        } finally {
+            poolState.lock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * 为已预留的名额在锁外创建物理连接，创建失败时释放名额
+     *
+     * @return {@link PoolConnection}
+     * @throws SQLException SQLException
+     */
+    private PoolConnection createReservedConnection() throws SQLException {
+        try {
+            return newPoolConnection();
+        } catch (SQLException | RuntimeException e) {
+            poolState.lock.lock();
+            try {
+                poolState.pendingConnections--;
+                // 名额释放后唤醒一个等待线程，由其重新尝试创建
+                poolState.connectionAvailable.signal();
+            } finally {
+                poolState.lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 启动预热：在后台并行创建初始连接
+     *
+     * @return {@link CompletableFuture}<{@link Void}>
+     */
+    private CompletableFuture<Void> startWarmUp() {
+        CompletableFuture<Void> future = warmUpFuture;
+        if (future != null) {
+            return future;
+        }
+        poolState.lock.lock();
+        try {
+            if (warmUpFuture == null) {
+                int target = getInitialTarget();
+                int parallelism = Math.max(1, Math.min(target, MAX_WARM_UP_THREADS));
+                ExecutorService executor = Executors.newFixedThreadPool(parallelism, daemonThreadFactory("warmup"));
+                CompletableFuture<?>[] tasks = new CompletableFuture<?>[parallelism];
+                for (int i = 0; i < parallelism; i++) {
+                    tasks[i] = CompletableFuture.runAsync(() -> {
+                        while (fillIdleConnection(target)) {
+                            // 各线程并行创建，直到达到初始连接数
+                        }
+                    }, executor);
+                }
+                warmUpFuture = CompletableFuture.allOf(tasks).whenComplete((result, e) -> executor.shutdown());
+                logger.debug("连接池开始预热，初始连接数：{}", target);
+            }
+            return warmUpFuture;
+        } finally {
+            poolState.lock.unlock();
+        }
+    }
+
+    /**
+     * 预热连接池，阻塞直到初始连接创建完毕或超时(可用于阻塞就绪探针)
+     *
+     * @param timeout 最长等待时间
+     * @return boolean 是否在超时前完成预热
+     */
+    public boolean warmUp(Duration timeout) {
+        int target = getInitialTarget();
+        if (target <= 0) {
+            return true;
+        }
+        initializeIfNecessary();
+        try {
+            startWarmUp().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            logger.warn("连接池预热失败", e.getCause());
+            return false;
+        }
+        return getIdleConnectionCount() + getActiveConnectionCount() >= target;
+    }
+
+    /**
+     * 获取实际的初始连接数
+     *
+     * @return int
+     */
+    private int getInitialTarget() {
+        return Math.min(initialSize, Math.min(poolMaximumActiveConnections, poolMaximumIdleConnections));
+    }
+
+    /**
+     * 守护线程工厂
+     *
+     * @param name 线程用途
+     * @return {@link ThreadFactory}
+     */
+    protected ThreadFactory daemonThreadFactory(String name) {
+        String prefix = "PoolDataSource-" + name + "-" + Integer.toHexString(System.identityHashCode(this));
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 将连接放入空闲列表并唤醒一个等待线程，空闲连接已满时关闭该连接
+     *
+     * @param connection 连接
+     * @return boolean 是否放入成功
+     */
+    protected boolean addIdleConnection(PoolConnection connection) {
+        poolState.lock.lock();
+        try {
+            int idle = poolState.idleConnections.size();
+            if (idle < poolMaximumIdleConnections && countConnections() < poolMaximumActiveConnections) {
+                poolState.idleConnections.add(connection);
+                poolState.connectionAvailable.signal();
+                return true;
+            }
+            // 名额可能已空出，让等待线程重新检查
+            poolState.connectionAvailable.signal();
+        } finally {
+            poolState.lock.unlock();
+        }
+        closeQuietly(connection);
+        return false;
+    }
+
+    /**
+     * 连接总数：空闲、活跃、正在创建与正在保活的连接(调用方持有锁)
+     *
+     * @return int
+     */
+    private int countConnections() {
+        return poolState.idleConnections.size() + poolState.activeConnections.size()
+                + poolState.pendingConnections + poolState.keepaliveConnections;
+    }
+
+    /**
+     * 连接保活检测(配置了 poolPingQuery 时执行该查询，否则使用驱动的 isValid)
+     *
+     * @param connection 连接
+     * @return boolean 连接是否可用
+     */
+    protected boolean keepaliveConnection(PoolConnection connection) {
+        Connection realConnection = connection.getRealConnection();
+        try {
+            if (poolPingEnabled) {
+                try (Statement statement = realConnection.createStatement()) {
+                    statement.executeQuery(poolPingQuery).close();
+                    if (!realConnection.getAutoCommit()) {
+                        realConnection.rollback();
+                    }
+                }
+                return true;
+            }
+            return realConnection.isValid((int) TimeUnit.MILLISECONDS.toSeconds(Math.max(1000, poolTimeToWait)));
+        } catch (SQLException e) {
+            logger.warn("连接 {} 保活失败，错误信息：{}", connection.getRealHashCode(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 在运行期调整连接池容量(不会像修改连接属性那样强制关闭全部连接)
+     * <p>
+     * 扩容时唤醒所有等待线程，由其在新的名额内创建连接；缩容时只关闭多余的空闲连接，
+     * 超出新上限的活跃连接在归还时自然淘汰
+     *
+     * @param maximumActiveConnections 最大活跃连接数
+     * @param maximumIdleConnections   最大空闲连接数
+     */
+    public void resize(int maximumActiveConnections, int maximumIdleConnections) {
+        if (maximumActiveConnections <= 0 || maximumIdleConnections < 0) {
+            throw new IllegalArgumentException("连接池容量必须为正数！");
+        }
+        List<PoolConnection> trimmed = new ArrayList<>();
+        poolState.lock.lock();
+        try {
+            int previous = poolMaximumActiveConnections;
+            poolMaximumActiveConnections = maximumActiveConnections;
+            poolMaximumIdleConnections = Math.min(maximumIdleConnections, maximumActiveConnections);
+            // 淘汰多余的空闲连接(列表头部的连接空闲最久)
+            while (poolState.idleConnections.size() > poolMaximumIdleConnections) {
+                trimmed.add(poolState.idleConnections.remove(0));
+            }
+            if (maximumActiveConnections > previous) {
+                poolState.connectionAvailable.signalAll();
+            }
+        } finally {
+            poolState.lock.unlock();
+        }
+        for (PoolConnection connection : trimmed) {
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * 静默关闭连接
+     *
+     * @param connection 连接
+     */
+    protected void closeQuietly(PoolConnection connection) {
+        connection.invalidate();
+        try {
+            connection.getRealConnection().close();
+        } catch (SQLException e) {
+            logger.warn("关闭连接 {} 时出错：{}", connection.getRealHashCode(), e.getMessage());
+        }
+    }
+
+    /**
+     * 关闭连接池(停止后台维护线程并关闭所有连接)
+     */
+    public void close() {
+        poolState.lock.lock();
+        try {
+            ScheduledExecutorService executor = housekeeper;
+            if (executor != null) {
+                executor.shutdownNow();
+                housekeeper = null;
+            }
+            adaptiveSizingTask = null;
+        } finally {
+            poolState.lock.unlock();
+        }
+        warmUpFuture = null;
+        ObjectName name = mbeanName;
+        if (name != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (Exception e) {
+                logger.warn("注销连接池 {} 的 JMX 指标失败：{}", poolName, e.getMessage());
+            }
+            mbeanName = null;
+        }
+        forceCloseAll();
+    }
+
     /**
      * 解包连接
      *
@@ -285,16 +1078,13 @@ public class PoolDataSource implements DataSource {
      * @return {@link Connection}
      */
     public static Connection unwrapConnection(Connection connection) {
-        if(Proxy.isProxyClass(connection.getClass())) {
-            InvocationHandler handler = Proxy.getInvocationHandler(connection);
-            if(handler instanceof PoolConnection) {
-                return ((PoolConnection) handler).getRealConnection();
-            }
+        if(connection instanceof ProxyConnection proxyConnection) {
+            return proxyConnection.getRealConnection();
         }
         return connection;
     }
 
-    private int assembleConnectionTypeCode(String url,String username,String password) {
+    protected int assembleConnectionTypeCode(String url,String username,String password) {
         return ("" +url + username + password).hashCode();
     }
 
@@ -306,8 +1096,9 @@ public class PoolDataSource implements DataSource {
      */
     @Override
     public Connection getConnection() throws SQLException {
+        initializeIfNecessary();
         // 通过账号密码获取代理连接
-        return popConnection(dataSource.getUsername(), dataSource.getPassword()).getProxyConnection();
+        return popConnection(dataSource.getUsername(), dataSource.getPassword()).newProxyConnection();
     }
 
     /**
@@ -320,7 +1111,8 @@ public class PoolDataSource implements DataSource {
      */
     @Override
     public Connection getConnection(String username, String password) throws SQLException {
-        return popConnection(username,password).getProxyConnection();
+        initializeIfNecessary();
+        return popConnection(username,password).newProxyConnection();
     }
 
     @Override
@@ -431,6 +1223,14 @@ public class PoolDataSource implements DataSource {
         this.poolTimeToWait = poolTimeToWait;
     }
 
+    public int getPoolMaximumWaitingThreads() {
+        return poolMaximumWaitingThreads;
+    }
+
+    public void setPoolMaximumWaitingThreads(int poolMaximumWaitingThreads) {
+        this.poolMaximumWaitingThreads = poolMaximumWaitingThreads;
+    }
+
     public String getPoolPingQuery() {
         return poolPingQuery;
     }
@@ -455,6 +1255,232 @@ public class PoolDataSource implements DataSource {
         this.poolPingConnectionsNotUseFor = poolPingConnectionsNotUsedFor;
     }
 
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public long getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    public void setMaxLifetime(long maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public long getKeepaliveTime() {
+        return keepaliveTime;
+    }
+
+    public void setKeepaliveTime(long keepaliveTime) {
+        this.keepaliveTime = keepaliveTime;
+    }
+
+    public long getHousekeepingPeriod() {
+        return housekeepingPeriod;
+    }
+
+    public void setHousekeepingPeriod(long housekeepingPeriod) {
+        this.housekeepingPeriod = housekeepingPeriod;
+    }
+
+    public boolean isAdaptiveSizing() {
+        return adaptiveSizing;
+    }
+
+    /**
+     * 开启或关闭自适应容量(后台维护线程已在运行时立即生效，否则在下次获取连接时启动)
+     *
+     * @param adaptiveSizing 是否开启
+     */
+    public void setAdaptiveSizing(boolean adaptiveSizing) {
+        poolState.lock.lock();
+        try {
+            this.adaptiveSizing = adaptiveSizing;
+            if (adaptiveSizing) {
+                scheduleAdaptiveSizing();
+            } else if (adaptiveSizingTask != null) {
+                adaptiveSizingTask.cancel(false);
+                adaptiveSizingTask = null;
+            }
+        } finally {
+            poolState.lock.unlock();
+        }
+    }
+
+    public int getAdaptiveMinConnections() {
+        return adaptiveMinConnections;
+    }
+
+    public void setAdaptiveMinConnections(int adaptiveMinConnections) {
+        this.adaptiveMinConnections = adaptiveMinConnections;
+    }
+
+    public int getAdaptiveMaxConnections() {
+        return adaptiveMaxConnections;
+    }
+
+    public void setAdaptiveMaxConnections(int adaptiveMaxConnections) {
+        this.adaptiveMaxConnections = adaptiveMaxConnections;
+    }
+
+    public long getAdaptiveWaitThreshold() {
+        return adaptiveWaitThreshold;
+    }
+
+    public void setAdaptiveWaitThreshold(long adaptiveWaitThreshold) {
+        this.adaptiveWaitThreshold = adaptiveWaitThreshold;
+    }
+
+    public long getAdaptiveSizingPeriod() {
+        return adaptiveSizingPeriod;
+    }
+
+    public void setAdaptiveSizingPeriod(long adaptiveSizingPeriod) {
+        this.adaptiveSizingPeriod = adaptiveSizingPeriod;
+    }
+
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getActiveConnectionCount() {
+        return poolState.getActiveConnectionCount();
+    }
+
+    public int getIdleConnectionCount() {
+        return poolState.getIdleConnectionCount();
+    }
+
+    public int getKeepaliveConnectionCount() {
+        return poolState.getKeepaliveConnectionCount();
+    }
+
+    public long getLeakDetectionThreshold() {
+        return leakDetectionThreshold;
+    }
+
+    public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+        this.leakDetectionThreshold = leakDetectionThreshold;
+    }
+
+    public int getLeakDetectionSampleRate() {
+        return leakDetectionSampleRate;
+    }
+
+    public void setLeakDetectionSampleRate(int leakDetectionSampleRate) {
+        this.leakDetectionSampleRate = leakDetectionSampleRate;
+    }
+
+    public ConnectionLeakListener getLeakListener() {
+        return leakListener;
+    }
+
+    public void setLeakListener(ConnectionLeakListener leakListener) {
+        this.leakListener = leakListener;
+    }
+
+    public String getLeakListenerClass() {
+        return leakListener.getClass().getName();
+    }
+
+    /**
+     * 通过类名设置泄漏监听器(供 XML 配置使用)
+     *
+     * @param className 实现类全限定名
+     */
+    public void setLeakListenerClass(String className) {
+        try {
+            this.leakListener = (ConnectionLeakListener) Class.forName(className).getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException("无法实例化连接泄漏监听器：" + className, e);
+        }
+    }
+
+    public int getPreparedStatementCacheSize() {
+        return preparedStatementCacheSize;
+    }
+
+    public void setPreparedStatementCacheSize(int preparedStatementCacheSize) {
+        this.preparedStatementCacheSize = preparedStatementCacheSize;
+    }
+
+    public long getStatementCacheHitCount() {
+        return statementCacheHits.sum();
+    }
+
+    public long getStatementCacheMissCount() {
+        return statementCacheMisses.sum();
+    }
+
+    public int getInitialSize() {
+        return initialSize;
+    }
+
+    public void setInitialSize(int initialSize) {
+        this.initialSize = initialSize;
+    }
+
+    public int getWaitingThreadCount() {
+        return poolState.getWaitingCount();
+    }
+
+    public int getPeakWaitingThreadCount() {
+        return poolState.getPeakWaitingCount();
+    }
+
+    public MetricsTracker getMetricsTracker() {
+        return metricsTracker;
+    }
+
+    public void setMetricsTracker(MetricsTracker metricsTracker) {
+        this.metricsTracker = metricsTracker;
+    }
+
+    public String getMetricsTrackerClass() {
+        return metricsTracker == null ? null : metricsTracker.getClass().getName();
+    }
+
+    /**
+     * 通过类名设置外部指标收集器(供 XML 配置使用)
+     *
+     * @param className 实现类全限定名
+     */
+    public void setMetricsTrackerClass(String className) {
+        try {
+            this.metricsTracker = (MetricsTracker) Class.forName(className).getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException("无法实例化指标收集器：" + className, e);
+        }
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public void setPoolName(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public boolean isRegisterMbeans() {
+        return registerMbeans;
+    }
+
+    public void setRegisterMbeans(boolean registerMbeans) {
+        this.registerMbeans = registerMbeans;
+    }
+
     public int getExpectedConnectionTypeCode() {
         return expectedConnectionTypeCode;
     }
@@ -2,6 +2,8 @@ package com.code.datasource.pool;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 池状态
@@ -16,6 +18,17 @@ public class PoolState {
      */
     protected PoolDataSource dataSource;
 
+    /**
+     * 连接池锁(代替 synchronized，避免虚拟线程等待连接时钉住载体线程；
+     * 等待连接的线程已由 Condition 按 FIFO 顺序唤醒，锁本身使用非公平模式以保证吞吐量)
+     */
+    protected final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 连接可用条件(等待线程按 FIFO 顺序被唤醒)
+     */
+    protected final Condition connectionAvailable = lock.newCondition();
+
     /**
      * 空闲连接
      */
@@ -66,48 +79,154 @@ public class PoolState {
      */
     protected long badConnectionCount = 0;
 
+    /**
+     * 当前等待连接的线程数
+     */
+    protected int waitingCount = 0;
+
+    /**
+     * 同时等待连接的线程数峰值
+     */
+    protected int peakWaitingCount = 0;
+
+    /**
+     * 已预留名额、正在锁外创建的连接数
+     */
+    protected int pendingConnections = 0;
+
+    /**
+     * 暂时移出空闲列表、正在锁外保活检测的连接数
+     */
+    protected int keepaliveConnections = 0;
+
     public PoolState(PoolDataSource dataSource) {
         this.dataSource = dataSource;
     }
 
-    public synchronized long getRequestCount() {
-        return requestCount;
+    public long getRequestCount() {
+        lock.lock();
+        try {
+            return requestCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAverageRequestTime() {
+        lock.lock();
+        try {
+            return requestCount == 0 ? 0 : accumulatedRequestTime / requestCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAverageWaitTime() {
+        lock.lock();
+        try {
+            return hadToWaitCount == 0 ? 0 : accumulatedWaitTime / hadToWaitCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHadToWaitCount() {
+        lock.lock();
+        try {
+            return hadToWaitCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBadConnectionCount() {
+        lock.lock();
+        try {
+            return badConnectionCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getAverageRequestTime() {
-        return requestCount == 0 ? 0 : accumulatedRequestTime / requestCount;
+    public long getClaimedOverdueConnectionCount() {
+        lock.lock();
+        try {
+            return claimedOverdueConnectionCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getAverageWaitTime() {
-        return hadToWaitCount == 0 ? 0 : accumulatedWaitTime / hadToWaitCount;
+    public long getAverageOverdueCheckoutTime() {
+        lock.lock();
+        try {
+            return claimedOverdueConnectionCount == 0 ? 0 : accumulatedCheckOutTimeOfOverdueConnections / claimedOverdueConnectionCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getHadToWaitCount() {
-        return hadToWaitCount;
+    public long getAverageCheckoutTime() {
+        lock.lock();
+        try {
+            return requestCount == 0 ? 0 : accumulatedCheckOutTime / requestCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getBadConnectionCount() {
-        return badConnectionCount;
+    public int getIdleConnectionCount() {
+        lock.lock();
+        try {
+            return idleConnections.size();
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getClaimedOverdueConnectionCount() {
-        return claimedOverdueConnectionCount;
+    public int getActiveConnectionCount() {
+        lock.lock();
+        try {
+            return activeConnections.size();
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getAverageOverdueCheckoutTime() {
-        return claimedOverdueConnectionCount == 0 ? 0 : accumulatedCheckOutTimeOfOverdueConnections / claimedOverdueConnectionCount;
+    public int getPendingConnectionCount() {
+        lock.lock();
+        try {
+            return pendingConnections;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getAverageCheckoutTime() {
-        return requestCount == 0 ? 0 : accumulatedCheckOutTime / requestCount;
+    public int getKeepaliveConnectionCount() {
+        lock.lock();
+        try {
+            return keepaliveConnections;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized int getIdleConnectionCount() {
-        return idleConnections.size();
+    public int getWaitingCount() {
+        lock.lock();
+        try {
+            return waitingCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized int getActiveConnectionCount() {
-        return activeConnections.size();
+    public int getPeakWaitingCount() {
+        lock.lock();
+        try {
+            return peakWaitingCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
 }
@@ -0,0 +1,122 @@
+package com.code.datasource.pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 预处理语句缓存(LRU)
+ * <p>
+ * 挂在池化连接上，只保存已被逻辑关闭、可以复用的语句；通常同一时刻只被持有连接的线程访问，
+ * 但被强制收回的连接上的旧语句可能在其他线程中关闭，因此各方法加锁(无竞争时开销很小)
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class PreparedStatementCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreparedStatementCache.class);
+
+    /**
+     * 最大缓存语句数
+     */
+    private final int capacity;
+
+    /**
+     * 缓存的语句(按访问顺序排列，最久未使用的在最前)
+     */
+    private final LinkedHashMap<StatementKey, PreparedStatement> statements;
+
+    /**
+     * 命中次数
+     */
+    private long hitCount;
+
+    /**
+     * 未命中次数
+     */
+    private long missCount;
+
+    public PreparedStatementCache(int capacity) {
+        this.capacity = capacity;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * 取出缓存的语句(取出后从缓存移除，直到再次被逻辑关闭)
+     *
+     * @param key 键
+     * @return {@link PreparedStatement} 未命中时返回 null
+     */
+    public synchronized PreparedStatement take(StatementKey key) {
+        PreparedStatement statement = statements.remove(key);
+        if (statement != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return statement;
+    }
+
+    /**
+     * 放回语句，超出容量时关闭最久未使用的语句
+     *
+     * @param key       键
+     * @param statement 语句
+     * @return boolean 是否放回成功(相同的键已存在时返回 false，由调用方关闭)
+     */
+    public synchronized boolean offer(StatementKey key, PreparedStatement statement) {
+        if (capacity <= 0 || statements.containsKey(key)) {
+            return false;
+        }
+        statements.put(key, statement);
+        if (statements.size() > capacity) {
+            Iterator<Map.Entry<StatementKey, PreparedStatement>> iterator = statements.entrySet().iterator();
+            PreparedStatement eldest = iterator.next().getValue();
+            iterator.remove();
+            closeQuietly(eldest);
+        }
+        return true;
+    }
+
+    /**
+     * 关闭并清空所有缓存的语句
+     */
+    public synchronized void clear() {
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+        statements.clear();
+    }
+
+    public synchronized int size() {
+        return statements.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.warn("关闭缓存的 statement 时发生异常：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 缓存键：SQL 语句与结果集类型、并发模式及是否返回自增主键
+     */
+    public record StatementKey(String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) {
+    }
+}
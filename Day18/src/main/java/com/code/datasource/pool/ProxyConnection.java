@@ -0,0 +1,463 @@
+package com.code.datasource.pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * 池化连接的代理连接
+ * <p>
+ * 手写的委托类，代替 java.lang.reflect.Proxy：每次调用只检查一次连接是否合法，然后直接调用真实连接，
+ * 没有反射调用、参数数组分配和方法名比较；close 时将连接归还连接池，prepareStatement 优先使用语句缓存，
+ * 创建的语句都经过包装，其 getConnection 返回代理连接。
+ * 每次签出都创建新的代理连接，归还后旧的代理连接上的调用直接报错，不会影响下一个签出该物理连接的线程；
+ * 归还时关闭本次签出中调用方未关闭的语句
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class ProxyConnection implements Connection {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProxyConnection.class);
+
+    /**
+     * 池化连接
+     */
+    private final PoolConnection poolConnection;
+
+    /**
+     * 真实的连接
+     */
+    private final Connection realConnection;
+
+    /**
+     * 是否已归还(调用方关闭后仍保留的代理连接不能再访问物理连接)
+     */
+    private volatile boolean closed;
+
+    /**
+     * 本次签出中尚未关闭的语句(与连接一样同一时刻只被一个线程使用)
+     */
+    private final List<Statement> openStatements = new ArrayList<>();
+
+    ProxyConnection(PoolConnection poolConnection, Connection realConnection) {
+        this.poolConnection = poolConnection;
+        this.realConnection = realConnection;
+    }
+
+    public Connection getRealConnection() {
+        return realConnection;
+    }
+
+    /**
+     * 是否已归还连接池
+     *
+     * @return boolean
+     */
+    boolean isReleased() {
+        return closed;
+    }
+
+    /**
+     * 登记本次签出中创建的语句
+     *
+     * @param statement 语句
+     * @return T 语句本身
+     */
+    private <T extends Statement> T track(T statement) {
+        openStatements.add(statement);
+        return statement;
+    }
+
+    /**
+     * 语句已关闭，取消登记
+     *
+     * @param statement 语句
+     */
+    void unregister(Statement statement) {
+        openStatements.remove(statement);
+    }
+
+    /**
+     * 检查代理连接是否仍可使用
+     */
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("连接已归还连接池，不能继续使用！");
+        }
+        poolConnection.checkConnection();
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        checkOpen();
+        return track(new ProxyStatement(this, realConnection.createStatement()));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        checkOpen();
+        return track(poolConnection.prepareStatement(this, sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, Statement.NO_GENERATED_KEYS));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        checkOpen();
+        return track(new ProxyCallableStatement(this, realConnection.prepareCall(sql)));
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        checkOpen();
+        return realConnection.nativeSQL(sql);
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        checkOpen();
+        realConnection.setAutoCommit(autoCommit);
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        checkOpen();
+        return realConnection.getAutoCommit();
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        checkOpen();
+        realConnection.commit();
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        checkOpen();
+        realConnection.rollback();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        // 重复关闭时不再归还，避免把其他线程正在使用的物理连接放回连接池
+        if (closed) {
+            return;
+        }
+        // 先关闭调用方未关闭的语句，缓存的语句在本次签出失效前放回语句缓存
+        closeStatements();
+        closed = true;
+        poolConnection.release();
+    }
+
+    /**
+     * 关闭本次签出中尚未关闭的语句
+     */
+    private void closeStatements() {
+        if (openStatements.isEmpty()) {
+            return;
+        }
+        List<Statement> statements = new ArrayList<>(openStatements);
+        openStatements.clear();
+        for (Statement statement : statements) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                logger.warn("归还连接时关闭未关闭的 statement 出错：{}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        if (closed) {
+            return true;
+        }
+        checkOpen();
+        return realConnection.isClosed();
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        checkOpen();
+        return realConnection.getMetaData();
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        checkOpen();
+        realConnection.setReadOnly(readOnly);
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        checkOpen();
+        return realConnection.isReadOnly();
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        checkOpen();
+        realConnection.setCatalog(catalog);
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        checkOpen();
+        return realConnection.getCatalog();
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        checkOpen();
+        realConnection.setTransactionIsolation(level);
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        checkOpen();
+        return realConnection.getTransactionIsolation();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        checkOpen();
+        return realConnection.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        checkOpen();
+        realConnection.clearWarnings();
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        return track(new ProxyStatement(this, realConnection.createStatement(resultSetType, resultSetConcurrency)));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        return track(poolConnection.prepareStatement(this, sql, resultSetType, resultSetConcurrency, Statement.NO_GENERATED_KEYS));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        return track(new ProxyCallableStatement(this, realConnection.prepareCall(sql, resultSetType, resultSetConcurrency)));
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        checkOpen();
+        return realConnection.getTypeMap();
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+        checkOpen();
+        realConnection.setTypeMap(map);
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+        checkOpen();
+        realConnection.setHoldability(holdability);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        checkOpen();
+        return realConnection.getHoldability();
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        checkOpen();
+        return realConnection.setSavepoint();
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) throws SQLException {
+        checkOpen();
+        return realConnection.setSavepoint(name);
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException {
+        checkOpen();
+        realConnection.rollback(savepoint);
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        checkOpen();
+        realConnection.releaseSavepoint(savepoint);
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        return track(new ProxyStatement(this, realConnection.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability)));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        return track(new ProxyPreparedStatement(this, realConnection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability)));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        return track(new ProxyCallableStatement(this, realConnection.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability)));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        checkOpen();
+        return track(poolConnection.prepareStatement(this, sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, autoGeneratedKeys));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        checkOpen();
+        return track(new ProxyPreparedStatement(this, realConnection.prepareStatement(sql, columnIndexes)));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        checkOpen();
+        return track(new ProxyPreparedStatement(this, realConnection.prepareStatement(sql, columnNames)));
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        checkOpen();
+        return realConnection.createClob();
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        checkOpen();
+        return realConnection.createBlob();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        checkOpen();
+        return realConnection.createNClob();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        checkOpen();
+        return realConnection.createSQLXML();
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        checkOpen();
+        return realConnection.isValid(timeout);
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+        // SQLClientInfoException 不能携带非法连接的错误，这里直接交给真实连接处理
+        realConnection.setClientInfo(name, value);
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+        // SQLClientInfoException 不能携带非法连接的错误，这里直接交给真实连接处理
+        realConnection.setClientInfo(properties);
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        checkOpen();
+        return realConnection.getClientInfo(name);
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        checkOpen();
+        return realConnection.getClientInfo();
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        checkOpen();
+        return realConnection.createArrayOf(typeName, elements);
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+        checkOpen();
+        return realConnection.createStruct(typeName, attributes);
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        checkOpen();
+        realConnection.setSchema(schema);
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        checkOpen();
+        return realConnection.getSchema();
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        checkOpen();
+        realConnection.abort(executor);
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        checkOpen();
+        realConnection.setNetworkTimeout(executor, milliseconds);
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        checkOpen();
+        return realConnection.getNetworkTimeout();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(realConnection)) {
+            return iface.cast(realConnection);
+        }
+        return realConnection.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(realConnection) || realConnection.isWrapperFor(iface);
+    }
+
+    @Override
+    public int hashCode() {
+        return realConnection.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || realConnection.equals(obj);
+    }
+
+    @Override
+    public String toString() {
+        return realConnection.toString();
+    }
+}
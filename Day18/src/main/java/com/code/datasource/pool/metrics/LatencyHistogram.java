@@ -0,0 +1,147 @@
+package com.code.datasource.pool.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 延迟直方图(类 HDR 的对数-线性分桶)
+ * <p>
+ * 以 2 的幂划分区间，每个区间再线性细分为 16 个子桶，相对误差不超过 1/16；
+ * 记录只是一次 AtomicLongArray 自增，无锁且不分配对象，可在获取连接的热路径上调用
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class LatencyHistogram {
+
+    /**
+     * 每个 2 的幂区间的子桶位数
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 桶总数(覆盖 0 ~ Long.MAX_VALUE)
+     */
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    /**
+     * 各桶计数
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * 记录总数
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * 数值总和
+     */
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * 最大值
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一个值(负数按 0 处理)
+     *
+     * @param value 值
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // CAS 失败则重试
+        }
+    }
+
+    /**
+     * 获取百分位数(返回所在桶的上界)
+     *
+     * @param percentile 百分位(0 ~ 100)
+     * @return long
+     */
+    public long getPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getSum() {
+        return sum.get();
+    }
+
+    public double getMean() {
+        long total = count.get();
+        return total == 0 ? 0 : (double) sum.get() / total;
+    }
+
+    /**
+     * 清空直方图
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * 计算值所在的桶
+     *
+     * @param value 值
+     * @return int
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * 计算桶的上界
+     *
+     * @param index 桶下标
+     * @return long
+     */
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,43 @@
+package com.code.datasource.pool.metrics;
+
+/**
+ * 连接池指标收集器(SPI)
+ * <p>
+ * 通过数据源的 metricsTrackerClass 属性配置实现类(需有无参构造)，可将指标对接到外部监控系统；
+ * 回调发生在获取/归还连接的热路径上，实现应尽量轻量且不能抛出异常
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public interface MetricsTracker {
+
+    /**
+     * 成功获取连接
+     *
+     * @param elapsedNanos 获取连接耗时(纳秒)
+     */
+    default void recordConnectionAcquired(long elapsedNanos) {
+    }
+
+    /**
+     * 连接被归还
+     *
+     * @param elapsedMillis 连接被签出的时长(毫秒)
+     */
+    default void recordConnectionUsage(long elapsedMillis) {
+    }
+
+    /**
+     * 获取连接超时(等待超时或等待队列已满)
+     */
+    default void recordConnectionTimeout() {
+    }
+
+    /**
+     * 新建物理连接
+     *
+     * @param elapsedNanos 建立连接耗时(纳秒)
+     */
+    default void recordConnectionCreated(long elapsedNanos) {
+    }
+}
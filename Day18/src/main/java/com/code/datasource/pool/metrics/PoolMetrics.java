@@ -0,0 +1,166 @@
+package com.code.datasource.pool.metrics;
+
+import com.code.datasource.pool.PoolDataSource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 连接池内置指标
+ * <p>
+ * 签出等待与使用时长分别记录在延迟直方图中，计数器使用 LongAdder，
+ * 当前活跃/空闲/等待数则在读取时直接从数据源获取
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class PoolMetrics implements MetricsTracker, PoolMetricsMXBean {
+
+    /**
+     * 数据源
+     */
+    private final PoolDataSource dataSource;
+
+    /**
+     * 签出等待时间直方图(微秒)
+     */
+    private final LatencyHistogram checkoutWait = new LatencyHistogram();
+
+    /**
+     * 连接使用时间直方图(毫秒)
+     */
+    private final LatencyHistogram usage = new LatencyHistogram();
+
+    /**
+     * 超时次数
+     */
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * 新建物理连接次数
+     */
+    private final LongAdder created = new LongAdder();
+
+    public PoolMetrics(PoolDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void recordConnectionAcquired(long elapsedNanos) {
+        checkoutWait.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+    }
+
+    @Override
+    public void recordConnectionUsage(long elapsedMillis) {
+        usage.record(elapsedMillis);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    @Override
+    public void recordConnectionCreated(long elapsedNanos) {
+        created.increment();
+    }
+
+    public LatencyHistogram getCheckoutWaitHistogram() {
+        return checkoutWait;
+    }
+
+    public LatencyHistogram getUsageHistogram() {
+        return usage;
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return dataSource.getActiveConnectionCount();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return dataSource.getIdleConnectionCount();
+    }
+
+    @Override
+    public int getPendingThreads() {
+        return dataSource.getWaitingThreadCount();
+    }
+
+    @Override
+    public long getConnectionAcquiredCount() {
+        return checkoutWait.getCount();
+    }
+
+    @Override
+    public long getConnectionTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public long getConnectionCreatedCount() {
+        return created.sum();
+    }
+
+    @Override
+    public double getCheckoutWaitMean() {
+        return checkoutWait.getMean();
+    }
+
+    @Override
+    public long getCheckoutWaitP50() {
+        return checkoutWait.getPercentile(50);
+    }
+
+    @Override
+    public long getCheckoutWaitP99() {
+        return checkoutWait.getPercentile(99);
+    }
+
+    @Override
+    public long getCheckoutWaitP999() {
+        return checkoutWait.getPercentile(99.9);
+    }
+
+    @Override
+    public long getCheckoutWaitMax() {
+        return checkoutWait.getMax();
+    }
+
+    @Override
+    public double getUsageMean() {
+        return usage.getMean();
+    }
+
+    @Override
+    public long getUsageP50() {
+        return usage.getPercentile(50);
+    }
+
+    @Override
+    public long getUsageP99() {
+        return usage.getPercentile(99);
+    }
+
+    @Override
+    public long getUsageMax() {
+        return usage.getMax();
+    }
+
+    @Override
+    public void reset() {
+        checkoutWait.reset();
+        usage.reset();
+        timeouts.reset();
+        created.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "PoolMetrics{active=" + getActiveConnections() + ", idle=" + getIdleConnections() + ", pending=" + getPendingThreads()
+                + ", acquired=" + getConnectionAcquiredCount() + ", timeouts=" + getConnectionTimeoutCount()
+                + ", waitP50=" + getCheckoutWaitP50() + "us, waitP99=" + getCheckoutWaitP99() + "us, waitMax=" + getCheckoutWaitMax()
+                + "us, usageP99=" + getUsageP99() + "ms}";
+    }
+}
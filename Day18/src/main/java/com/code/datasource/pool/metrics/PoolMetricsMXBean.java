@@ -0,0 +1,47 @@
+package com.code.datasource.pool.metrics;
+
+/**
+ * 连接池 JMX 指标
+ * <p>
+ * 时间类指标中，等待时间单位为微秒，使用时间单位为毫秒
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public interface PoolMetricsMXBean {
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getPendingThreads();
+
+    long getConnectionAcquiredCount();
+
+    long getConnectionTimeoutCount();
+
+    long getConnectionCreatedCount();
+
+    double getCheckoutWaitMean();
+
+    long getCheckoutWaitP50();
+
+    long getCheckoutWaitP99();
+
+    long getCheckoutWaitP999();
+
+    long getCheckoutWaitMax();
+
+    double getUsageMean();
+
+    long getUsageP50();
+
+    long getUsageP99();
+
+    long getUsageMax();
+
+    /**
+     * 清空直方图与计数器
+     */
+    void reset();
+}
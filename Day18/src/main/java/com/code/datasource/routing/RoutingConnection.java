@@ -0,0 +1,504 @@
+package com.code.datasource.routing;
+
+import com.code.mapping.SqlCommandType;
+
+import java.sql.*;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * 路由连接
+ * <p>
+ * 主库与从库连接都在第一次用到时才获取；事务设置会同步到已获取的连接上，
+ * 写语句执行后本连接变为"脏"连接，之后的查询也留在主库，直到事务提交或回滚(自动提交模式下保持到连接关闭，保证读到自己的写入)。
+ * 与连接池的代理连接一样是手写的委托类，不经过反射；未参与路由的方法都交给主库
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class RoutingConnection implements Connection {
+
+    /**
+     * 路由数据源
+     */
+    private final RoutingDataSource dataSource;
+
+    private final String username;
+
+    private final String password;
+
+    /**
+     * 主库连接
+     */
+    private Connection primaryConnection;
+
+    /**
+     * 从库连接
+     */
+    private RoutingDataSource.ReplicaConnection replicaConnection;
+
+    /**
+     * 没有可用从库(本连接内不再尝试)
+     */
+    private boolean replicaUnavailable;
+
+    /**
+     * 最近一条语句是否路由到了从库
+     */
+    private boolean routedToReplica;
+
+    /**
+     * 是否已执行过写语句
+     */
+    private boolean dirty;
+
+    /**
+     * 是否已关闭
+     */
+    private boolean closed;
+
+    /**
+     * 事务设置(延迟获取的连接也要应用)
+     */
+    private Boolean autoCommit;
+
+    private Integer transactionIsolation;
+
+    RoutingConnection(RoutingDataSource dataSource, String username, String password) {
+        this.dataSource = dataSource;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * 按语句类型选择连接
+     *
+     * @param commandType SQL 命令类型
+     * @return {@link Connection}
+     * @throws SQLException SQLException
+     */
+    public Connection route(SqlCommandType commandType) throws SQLException {
+        checkOpen();
+        routedToReplica = false;
+        if (commandType == SqlCommandType.SELECT && !dirty) {
+            Connection replica = replica();
+            if (replica != null) {
+                routedToReplica = true;
+                return replica;
+            }
+        } else if (commandType != SqlCommandType.SELECT) {
+            dirty = true;
+        }
+        return primary();
+    }
+
+    /**
+     * 语句执行失败：最近一条语句在从库上执行且属于连接类错误时摘除该从库，
+     * 并放弃当前从库连接，之后的查询重新选择从库(或回退到主库)
+     *
+     * @param e 异常
+     */
+    void reportFailure(SQLException e) {
+        if (!routedToReplica || replicaConnection == null || !RoutingDataSource.isConnectionFailure(e)) {
+            return;
+        }
+        RoutingDataSource.ReplicaConnection failed = replicaConnection;
+        replicaConnection = null;
+        routedToReplica = false;
+        dataSource.eject(failed.replica(), e);
+        try {
+            failed.connection().close();
+        } catch (SQLException ignore) {
+            // 连接已经出错，关闭失败不影响摘除
+        } finally {
+            failed.replica().release();
+        }
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("路由连接已关闭！");
+        }
+    }
+
+    private Connection primary() throws SQLException {
+        checkOpen();
+        if (primaryConnection == null) {
+            primaryConnection = username == null ? dataSource.getPrimary().getConnection() : dataSource.getPrimary().getConnection(username, password);
+            applySettings(primaryConnection);
+        }
+        return primaryConnection;
+    }
+
+    private Connection replica() throws SQLException {
+        if (replicaConnection == null && !replicaUnavailable) {
+            replicaConnection = dataSource.acquireReplica(username, password);
+            if (replicaConnection == null) {
+                replicaUnavailable = true;
+                return null;
+            }
+            applySettings(replicaConnection.connection());
+        }
+        return replicaConnection == null ? null : replicaConnection.connection();
+    }
+
+    private void applySettings(Connection connection) throws SQLException {
+        if (transactionIsolation != null) {
+            connection.setTransactionIsolation(transactionIsolation);
+        }
+        if (autoCommit != null) {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        checkOpen();
+        this.autoCommit = autoCommit;
+        if (primaryConnection != null) {
+            primaryConnection.setAutoCommit(autoCommit);
+        }
+        if (replicaConnection != null) {
+            replicaConnection.connection().setAutoCommit(autoCommit);
+        }
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        checkOpen();
+        return autoCommit != null ? autoCommit : primary().getAutoCommit();
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        checkOpen();
+        this.transactionIsolation = level;
+        if (primaryConnection != null) {
+            primaryConnection.setTransactionIsolation(level);
+        }
+        if (replicaConnection != null) {
+            replicaConnection.connection().setTransactionIsolation(level);
+        }
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        checkOpen();
+        return transactionIsolation != null ? transactionIsolation : primary().getTransactionIsolation();
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        checkOpen();
+        if (primaryConnection != null) {
+            primaryConnection.commit();
+        }
+        if (replicaConnection != null) {
+            replicaConnection.connection().commit();
+        }
+        // 事务结束，之后的查询可以重新走从库
+        dirty = false;
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        checkOpen();
+        if (primaryConnection != null) {
+            primaryConnection.rollback();
+        }
+        if (replicaConnection != null) {
+            replicaConnection.connection().rollback();
+        }
+        dirty = false;
+    }
+
+    /**
+     * 关闭(归还)主库与从库连接
+     *
+     * @throws SQLException SQLException
+     */
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        SQLException exception = null;
+        if (replicaConnection != null) {
+            try {
+                replicaConnection.connection().close();
+            } catch (SQLException e) {
+                exception = e;
+            } finally {
+                replicaConnection.replica().release();
+                replicaConnection = null;
+            }
+        }
+        if (primaryConnection != null) {
+            try {
+                primaryConnection.close();
+            } catch (SQLException e) {
+                exception = e;
+            }
+            primaryConnection = null;
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        return primary().createStatement();
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return primary().prepareStatement(sql);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        return primary().prepareCall(sql);
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        return primary().nativeSQL(sql);
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        return primary().getMetaData();
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        primary().setReadOnly(readOnly);
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        return primary().isReadOnly();
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        primary().setCatalog(catalog);
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        return primary().getCatalog();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return primary().getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        primary().clearWarnings();
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        return primary().createStatement(resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return primary().prepareStatement(sql, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return primary().prepareCall(sql, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        return primary().getTypeMap();
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+        primary().setTypeMap(map);
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+        primary().setHoldability(holdability);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        return primary().getHoldability();
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        return primary().setSavepoint();
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) throws SQLException {
+        return primary().setSavepoint(name);
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException {
+        primary().rollback(savepoint);
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        primary().releaseSavepoint(savepoint);
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return primary().createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return primary().prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return primary().prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return primary().prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        return primary().prepareStatement(sql, columnIndexes);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        return primary().prepareStatement(sql, columnNames);
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        return primary().createClob();
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        return primary().createBlob();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        return primary().createNClob();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        return primary().createSQLXML();
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        return primary().isValid(timeout);
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        return primary().getClientInfo(name);
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        return primary().getClientInfo();
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        return primary().createArrayOf(typeName, elements);
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+        return primary().createStruct(typeName, attributes);
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        primary().setSchema(schema);
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        return primary().getSchema();
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        primary().abort(executor);
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        primary().setNetworkTimeout(executor, milliseconds);
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        return primary().getNetworkTimeout();
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+        try {
+            primary().setClientInfo(name, value);
+        } catch (SQLClientInfoException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new SQLClientInfoException(e.getMessage(), null, e);
+        }
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+        try {
+            primary().setClientInfo(properties);
+        } catch (SQLClientInfoException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new SQLClientInfoException(e.getMessage(), null, e);
+        }
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return primary().unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary().isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,288 @@
+package com.code.datasource.routing;
+
+import com.code.mapping.SqlCommandType;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * 读写分离路由数据源
+ * <p>
+ * 由一个主库与若干只读从库组成。getConnection 返回的路由连接在真正执行语句时才决定使用哪个库：
+ * 事务未写入前的查询语句路由到从库(按当前未归还的连接数最少选择)，写语句以及写入之后的所有语句都留在主库；
+ * 从库获取连接失败或执行语句时出现连接类错误时会被摘除一段时间，所有从库都不可用时回退到主库
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class RoutingDataSource implements DataSource {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(RoutingDataSource.class);
+
+    /**
+     * 主库
+     */
+    private DataSource primary;
+
+    /**
+     * 从库
+     */
+    private final List<Replica> replicas = new CopyOnWriteArrayList<>();
+
+    /**
+     * 从库出错后被摘除的时长(毫秒)
+     */
+    private long ejectionTime = 30000;
+
+    /**
+     * 轮询起点(未归还连接数相同的从库之间轮流选择)
+     */
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return newRoutingConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return newRoutingConnection(username, password);
+    }
+
+    private Connection newRoutingConnection(String username, String password) throws SQLException {
+        if (primary == null) {
+            throw new SQLException("路由数据源未配置主库！");
+        }
+        return new RoutingConnection(this, username, password);
+    }
+
+    /**
+     * 按语句类型选择实际执行的连接(非路由连接原样返回)
+     *
+     * @param connection  连接
+     * @param commandType SQL 命令类型
+     * @return {@link Connection}
+     * @throws SQLException SQLException
+     */
+    public static Connection route(Connection connection, SqlCommandType commandType) throws SQLException {
+        if (connection instanceof RoutingConnection routingConnection) {
+            return routingConnection.route(commandType);
+        }
+        return connection;
+    }
+
+    /**
+     * 语句执行失败时通知路由连接(非路由连接忽略)，从库上的连接类错误会摘除该从库
+     *
+     * @param connection 连接
+     * @param e          异常
+     */
+    public static void reportFailure(Connection connection, SQLException e) {
+        if (connection instanceof RoutingConnection routingConnection) {
+            routingConnection.reportFailure(e);
+        }
+    }
+
+    /**
+     * 是否为连接类错误(网络中断、连接被关闭等，SQLState 以 08 开头)，语法等语句本身的错误不摘除从库
+     *
+     * @param e 异常
+     * @return boolean
+     */
+    static boolean isConnectionFailure(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException || cause instanceof SQLNonTransientConnectionException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && sqlException.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 摘除从库
+     *
+     * @param replica 从库
+     * @param e       原因
+     */
+    void eject(Replica replica, Exception e) {
+        replica.ejectedUntil = System.currentTimeMillis() + ejectionTime;
+        logger.warn("从库 {} 出现连接错误，摘除 {} 毫秒：{}", replica.index, ejectionTime, e.getMessage());
+    }
+
+    /**
+     * 从可用从库中选择未归还连接数最少的一个获取连接，失败的从库会被摘除
+     *
+     * @param username 用户名
+     * @param password 密码
+     * @return {@link ReplicaConnection} 没有可用从库时返回 null
+     */
+    ReplicaConnection acquireReplica(String username, String password) {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int attempt = 0; attempt < size; attempt++) {
+            Replica best = null;
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (replica.isAvailable(now) && (best == null || replica.outstanding.get() < best.outstanding.get())) {
+                    best = replica;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            best.outstanding.incrementAndGet();
+            try {
+                Connection connection = username == null ? best.dataSource.getConnection() : best.dataSource.getConnection(username, password);
+                return new ReplicaConnection(best, connection);
+            } catch (SQLException | RuntimeException e) {
+                best.outstanding.decrementAndGet();
+                eject(best, e);
+            }
+        }
+        return null;
+    }
+
+    public void setPrimary(DataSource primary) {
+        this.primary = primary;
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public void addReplica(DataSource dataSource) {
+        replicas.add(new Replica(replicas.size(), dataSource));
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public long getEjectionTime() {
+        return ejectionTime;
+    }
+
+    public void setEjectionTime(long ejectionTime) {
+        this.ejectionTime = ejectionTime;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        throw new SQLException(getClass().getName() + "不是一个wrapper映射");
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return false;
+    }
+
+    /**
+     * 从库
+     */
+    public static class Replica {
+
+        /**
+         * 序号
+         */
+        private final int index;
+
+        /**
+         * 数据源
+         */
+        private final DataSource dataSource;
+
+        /**
+         * 未归还的连接数
+         */
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        /**
+         * 摘除截止时间(过期后重新参与路由)
+         */
+        private volatile long ejectedUntil;
+
+        Replica(int index, DataSource dataSource) {
+            this.index = index;
+            this.dataSource = dataSource;
+        }
+
+        boolean isAvailable(long now) {
+            return ejectedUntil <= now;
+        }
+
+        /**
+         * 归还连接后减少未归还连接数
+         */
+        void release() {
+            outstanding.decrementAndGet();
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        public boolean isEjected() {
+            return !isAvailable(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 从某个从库获取到的连接
+     */
+    record ReplicaConnection(Replica replica, Connection connection) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.code.datasource.routing;
+
+import com.code.datasource.DataSourceFactory;
+
+import javax.sql.DataSource;
+import java.util.Properties;
+
+/**
+ * 读写分离路由数据源工厂
+ * <p>
+ * 主库与从库由 XML 中嵌套的 dataSource 元素(role="primary"/"replica")配置
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class RoutingDataSourceFactory implements DataSourceFactory {
+
+    private final RoutingDataSource dataSource = new RoutingDataSource();
+
+    @Override
+    public void setProperties(Properties props) {
+        String ejectionTime = props.getProperty("ejectionTime");
+        if (ejectionTime != null) {
+            dataSource.setEjectionTime(Long.parseLong(ejectionTime));
+        }
+    }
+
+    public void setPrimary(DataSource primary) {
+        dataSource.setPrimary(primary);
+    }
+
+    public void addReplica(DataSource replica) {
+        dataSource.addReplica(replica);
+    }
+
+    @Override
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+}
@@ -2,11 +2,16 @@ package com.code.executor;
 
 import com.code.cache.CacheKey;
 import com.code.cache.Impl.PerpetualCache;
+import com.code.cursor.Cursor;
+import com.code.datasource.routing.RoutingDataSource;
+import com.code.executor.statement.StatementHandler;
 import com.code.mapping.BoundSql;
 import com.code.mapping.MappedStatement;
+import com.code.mapping.MultiRowInsertRewriter;
 import com.code.mapping.ParameterMapping;
 import com.code.reflection.MetaObject;
 import com.code.session.Configuration;
+import com.code.session.KeysetRowBounds;
 import com.code.session.LocalCacheScope;
 import com.code.session.ResultHandler;
 import com.code.session.RowBounds;
@@ -15,7 +20,10 @@ import com.code.type.TypeHandlerRegistry;
 
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 执行器抽象基类
@@ -42,6 +50,21 @@ public abstract class BaseExecutor implements Executor {
 
     protected boolean closed;
 
+    /**
+     * 当前事务中是否执行过更新
+     */
+    protected boolean dirty;
+
+    /**
+     * 正在执行的语句(供其他线程取消)
+     */
+    protected volatile Statement runningStatement;
+
+    /**
+     * 游标持有的语句(游标在整个遍历期间都在读取，取消时与正在执行的语句一并取消，已关闭的在登记与取消时清理)
+     */
+    private final Set<Statement> cursorStatements = ConcurrentHashMap.newKeySet();
+
     /**
      * 本地缓存
      */
@@ -61,7 +84,7 @@ public abstract class BaseExecutor implements Executor {
 
     @Override
     public void setExecutorWrapper(Executor executor) {
-        this.wrapper  = wrapper;
+        this.wrapper = executor;
     }
 
     @Override
@@ -126,6 +149,12 @@ public abstract class BaseExecutor implements Executor {
         cacheKey.update(mappedStatement.getId());
         cacheKey.update(rowBounds.getOffset());
         cacheKey.update(rowBounds.getLimit());
+        if (rowBounds instanceof KeysetRowBounds keyset) {
+            // 键集分页的页由起始键值决定
+            cacheKey.update(keyset.getKeyColumn());
+            cacheKey.update(keyset.getLastKey());
+            cacheKey.update(keyset.isDescending());
+        }
         cacheKey.update(boundSql.getSql());
 
         // 获取SQL语句的参数映射信息
@@ -175,6 +204,18 @@ public abstract class BaseExecutor implements Executor {
         return query(mappedStatement, parameter, rowBounds, resultHandler, key, boundSql);
     }
 
+    @Override
+    public <E> Cursor<E> queryCursor(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds) throws SQLException {
+        if (closed) {
+            throw new RuntimeException("执行器为关闭状态！");
+        }
+        if (mappedStatement.isFlushCacheRequired()) {
+            clearLocalCache();
+        }
+        BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+        return doQueryCursor(mappedStatement, parameter, rowBounds, boundSql);
+    }
+
     @Override
     public int update(MappedStatement mappedStatement, Object parameter) throws SQLException {
         if (closed) {
@@ -182,7 +223,27 @@ public abstract class BaseExecutor implements Executor {
         }
         // 清理缓存
         clearLocalCache();
-        return doUpdate(mappedStatement, parameter);
+        dirty = true;
+        List<?> rows = mappedStatement.isMultiRowInsert() ? MultiRowInsertRewriter.rows(parameter) : null;
+        if (rows == null) {
+            return doUpdate(mappedStatement, parameter);
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        // 按参数个数上限分块，每块展开为一条多行 INSERT 语句
+        int rowsPerStatement = MultiRowInsertRewriter.rowsPerStatement(mappedStatement, rows);
+        int updateCount = 0;
+        for (int from = 0; from < rows.size(); from += rowsPerStatement) {
+            List<?> chunk = new ArrayList<>(rows.subList(from, Math.min(rows.size(), from + rowsPerStatement)));
+            int count = doUpdate(mappedStatement, chunk);
+            if (count == BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+                updateCount = count;
+            } else if (updateCount != BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+                updateCount += count;
+            }
+        }
+        return updateCount;
     }
 
     /**
@@ -197,6 +258,53 @@ public abstract class BaseExecutor implements Executor {
      */
     protected abstract <E> List<E> doQuery(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql);
 
+    /**
+     * 执行游标查询(新建的语句交由游标关闭，因此不参与语句复用)
+     *
+     * @param mappedStatement 映射语句
+     * @param parameter       参数
+     * @param rowBounds       行范围
+     * @param boundSql        绑定 SQL
+     * @return {@link Cursor}<{@link E}>
+     * @throws SQLException SQLException
+     */
+    protected <E> Cursor<E> doQueryCursor(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql) throws SQLException {
+        StatementHandler handler = configuration.newStatementHandler(wrapper, mappedStatement, parameter, rowBounds, null, boundSql);
+        Statement statement = handler.prepare(transaction.getConnection());
+        registerCursorStatement(statement);
+        try {
+            handler.parameterize(statement);
+            return handler.queryCursor(statement);
+        } catch (SQLException e) {
+            cursorStatements.remove(statement);
+            closeStatement(statement);
+            reportQueryFailure(e);
+            throw e;
+        } catch (RuntimeException e) {
+            cursorStatements.remove(statement);
+            closeStatement(statement);
+            throw e;
+        }
+    }
+
+    /**
+     * 登记游标持有的语句以便取消，顺带清理已随游标关闭的语句
+     *
+     * @param statement 语句
+     */
+    private void registerCursorStatement(Statement statement) {
+        cursorStatements.removeIf(BaseExecutor::isStatementClosed);
+        cursorStatements.add(statement);
+    }
+
+    private static boolean isStatementClosed(Statement statement) {
+        try {
+            return statement.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
     /**
      * 执行更新
      *
@@ -207,6 +315,73 @@ public abstract class BaseExecutor implements Executor {
      */
     protected abstract int doUpdate(MappedStatement mappedStatement, Object parameter) throws SQLException;
 
+    /**
+     * 刷新执行器持有的语句(执行尚未执行的批处理并关闭语句)，在提交、回滚及关闭前调用
+     *
+     * @param isRollback 是否因回滚而刷新(回滚时丢弃尚未执行的批处理)
+     * @return {@link List}<{@link BatchResult}>
+     * @throws SQLException sqlexception异常
+     */
+    protected abstract List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException;
+
+    @Override
+    public List<BatchResult> flushStatements() throws SQLException {
+        if (closed) {
+            throw new RuntimeException("执行器为关闭状态！");
+        }
+        return doFlushStatements(false);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        Statement statement = runningStatement;
+        if (statement != null) {
+            statement.cancel();
+        }
+        for (Statement cursorStatement : cursorStatements) {
+            if (isStatementClosed(cursorStatement)) {
+                cursorStatements.remove(cursorStatement);
+            } else {
+                cursorStatement.cancel();
+            }
+        }
+    }
+
+    /**
+     * 执行查询，执行期间登记为正在执行的语句以便取消
+     *
+     * @param handler       语句处理器
+     * @param statement     语句
+     * @param resultHandler 结果处理器
+     * @return {@link List}<{@link E}>
+     * @throws SQLException SQLException
+     */
+    protected <E> List<E> executeQuery(StatementHandler handler, Statement statement, ResultHandler resultHandler) throws SQLException {
+        runningStatement = statement;
+        try {
+            return handler.query(statement, resultHandler);
+        } finally {
+            runningStatement = null;
+        }
+    }
+
+    /**
+     * 执行更新，执行期间登记为正在执行的语句以便取消
+     *
+     * @param handler   语句处理器
+     * @param statement 语句
+     * @return int
+     * @throws SQLException SQLException
+     */
+    protected int executeUpdate(StatementHandler handler, Statement statement) throws SQLException {
+        runningStatement = statement;
+        try {
+            return handler.update(statement);
+        } finally {
+            runningStatement = null;
+        }
+    }
+
     @Override
     public Transaction getTransaction() {
         if (closed) {
@@ -215,14 +390,21 @@ public abstract class BaseExecutor implements Executor {
         return transaction;
     }
 
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
     @Override
     public void commit(boolean required) throws SQLException {
         if (closed) {
             throw new RuntimeException("执行器为关闭状态！");
         }
         clearLocalCache();
+        doFlushStatements(false);
         if (required) {
             transaction.commit();
+            dirty = false;
         }
     }
 
@@ -231,8 +413,10 @@ public abstract class BaseExecutor implements Executor {
         if (!closed) {
             try {
                 clearLocalCache();
+                doFlushStatements(true);
             } finally {
                 if (required) {
+                    dirty = false;
                     transaction.rollback();
                 }
             }
@@ -252,10 +436,24 @@ public abstract class BaseExecutor implements Executor {
         } finally {
             transaction = null;
             localCache = null;
+            cursorStatements.clear();
             closed = true;
         }
     }
 
+    /**
+     * 查询失败时通知读写分离数据源，从库上的连接类错误会摘除该从库
+     *
+     * @param e 异常
+     */
+    protected void reportQueryFailure(SQLException e) {
+        try {
+            RoutingDataSource.reportFailure(transaction.getConnection(), e);
+        } catch (SQLException ignore) {
+            // 连接不可用时原异常已足够说明问题
+        }
+    }
+
     /**
      * 关闭语句
      *
@@ -290,8 +488,10 @@ public abstract class BaseExecutor implements Executor {
         } finally {
             localCache.remove(key);
         }
-        // 存入缓存
-        localCache.put(key, list);
+        // 存入缓存(交给结果处理器逐行处理时没有完整结果，不缓存)
+        if (handler == null) {
+            localCache.put(key, list);
+        }
         return list;
     }
 }
@@ -0,0 +1,175 @@
+package com.code.executor;
+
+import com.code.cursor.Cursor;
+import com.code.executor.keygen.Jdbc3KeyGenerator;
+import com.code.executor.keygen.KeyGenerator;
+import com.code.executor.keygen.NoKeyGenerator;
+import com.code.executor.statement.StatementHandler;
+import com.code.mapping.BoundSql;
+import com.code.mapping.MappedStatement;
+import com.code.session.Configuration;
+import com.code.session.ResultHandler;
+import com.code.session.RowBounds;
+import com.code.transaction.Transaction;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批处理执行器
+ * <p>
+ * 将连续执行的相同 SQL 的更新通过 addBatch 合并为一批，在以下时机统一 executeBatch：
+ * 累计条数达到 batchSize、执行查询之前、提交事务或显式调用 flushStatements 时。
+ * 批处理模式下 update 无法立即得知受影响行数，统一返回 {@link #BATCH_UPDATE_RETURN_VALUE}，
+ * 实际结果通过 flushStatements 返回的 {@link BatchResult} 获取
+ * (MySQL 需在连接 URL 中开启 rewriteBatchedStatements=true，驱动才会真正合并为多值插入)
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class BatchExecutor extends BaseExecutor {
+
+    /**
+     * 批处理模式下 update 的返回值
+     */
+    public static final int BATCH_UPDATE_RETURN_VALUE = Integer.MIN_VALUE + 1002;
+
+    /**
+     * 待执行的语句
+     */
+    private final List<Statement> statementList = new ArrayList<>();
+
+    /**
+     * 与语句一一对应的批处理结果
+     */
+    private final List<BatchResult> batchResultList = new ArrayList<>();
+
+    /**
+     * 因达到 batchSize 而自动执行的批处理结果(在下一次显式刷新时一并返回)
+     */
+    private final List<BatchResult> flushedResultList = new ArrayList<>();
+
+    /**
+     * 当前批次的 SQL
+     */
+    private String currentSql;
+
+    /**
+     * 当前批次的映射语句
+     */
+    private MappedStatement currentStatement;
+
+    /**
+     * 尚未执行的更新条数
+     */
+    private int pendingCount;
+
+    public BatchExecutor(Configuration configuration, Transaction transaction) {
+        super(configuration, transaction);
+    }
+
+    @Override
+    protected int doUpdate(MappedStatement mappedStatement, Object parameter) throws SQLException {
+        Configuration configuration = mappedStatement.getConfiguration();
+        StatementHandler handler = configuration.newStatementHandler(this, mappedStatement, parameter, RowBounds.DEFAULT, null, null);
+        BoundSql boundSql = handler.getBoundsql();
+        String sql = boundSql.getSql();
+        Statement statement;
+        if (sql.equals(currentSql) && mappedStatement.equals(currentStatement)) {
+            // 与上一条更新相同，继续加入当前批次
+            int last = statementList.size() - 1;
+            statement = statementList.get(last);
+            handler.parameterize(statement);
+            batchResultList.get(last).addParameterObject(parameter);
+        } else {
+            Connection connection = transaction.getConnection();
+            statement = handler.prepare(connection);
+            handler.parameterize(statement);
+            currentSql = sql;
+            currentStatement = mappedStatement;
+            statementList.add(statement);
+            BatchResult batchResult = new BatchResult(mappedStatement, sql);
+            batchResult.addParameterObject(parameter);
+            batchResultList.add(batchResult);
+        }
+        handler.batch(statement);
+        if (++pendingCount >= configuration.getBatchSize()) {
+            flushedResultList.addAll(doFlushStatements(false));
+        }
+        return BATCH_UPDATE_RETURN_VALUE;
+    }
+
+    @Override
+    protected <E> List<E> doQuery(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
+        Statement statement = null;
+        try {
+            // 查询前先执行尚未提交到数据库的更新，保证读到自己的写入
+            flushedResultList.addAll(doFlushStatements(false));
+            Configuration configuration = mappedStatement.getConfiguration();
+            StatementHandler handler = configuration.newStatementHandler(wrapper, mappedStatement, parameter, rowBounds, resultHandler, boundSql);
+            statement = handler.prepare(transaction.getConnection());
+            handler.parameterize(statement);
+            return executeQuery(handler, statement, resultHandler);
+        } catch (SQLException e) {
+            reportQueryFailure(e);
+            throw new RuntimeException("执行查询操作时发生异常："+e.getMessage());
+        } finally {
+            closeStatement(statement);
+        }
+    }
+
+    @Override
+    protected <E> Cursor<E> doQueryCursor(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql) throws SQLException {
+        flushedResultList.addAll(doFlushStatements(false));
+        return super.doQueryCursor(mappedStatement, parameter, rowBounds, boundSql);
+    }
+
+    @Override
+    protected List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
+        try {
+            List<BatchResult> results = new ArrayList<>(flushedResultList);
+            flushedResultList.clear();
+            if (isRollback) {
+                return Collections.emptyList();
+            }
+            for (int i = 0; i < statementList.size(); i++) {
+                Statement statement = statementList.get(i);
+                BatchResult batchResult = batchResultList.get(i);
+                runningStatement = statement;
+                try {
+                    batchResult.setUpdateCounts(statement.executeBatch());
+                } catch (BatchUpdateException e) {
+                    // 已成功执行的批次随异常返回，调用方据此得知哪些更新已经生效
+                    throw new BatchExecutorException("执行批处理 " + batchResult.getMappedStatement().getId() + " 时发生异常，已成功执行的批次数：" + results.size() + "，错误信息：" + e.getMessage(), e, results, batchResult);
+                }
+                MappedStatement mappedStatement = batchResult.getMappedStatement();
+                KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
+                if (keyGenerator instanceof Jdbc3KeyGenerator jdbc3KeyGenerator) {
+                    // 一次性读取整批生成的主键并回填到各参数对象
+                    jdbc3KeyGenerator.processBatch(mappedStatement, statement, batchResult.getParameterObjects());
+                } else if (!(keyGenerator instanceof NoKeyGenerator)) {
+                    for (Object parameter : batchResult.getParameterObjects()) {
+                        keyGenerator.processAfter(this, mappedStatement, statement, parameter);
+                    }
+                }
+                results.add(batchResult);
+            }
+            return results;
+        } finally {
+            runningStatement = null;
+            for (Statement statement : statementList) {
+                closeStatement(statement);
+            }
+            statementList.clear();
+            batchResultList.clear();
+            currentSql = null;
+            currentStatement = null;
+            pendingCount = 0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.code.executor;
+
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 批处理执行失败
+ * <p>
+ * 一次刷新会依次执行多个批次，某一批失败时，之前已成功执行的批次结果随异常一并返回，
+ * 调用方据此得知哪些更新已经生效(如回填的主键与受影响行数)
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class BatchExecutorException extends SQLException {
+
+    /**
+     * 失败之前已成功执行的批处理结果
+     */
+    private final List<BatchResult> successfulBatchResults;
+
+    /**
+     * 驱动抛出的批处理异常
+     */
+    private final BatchUpdateException batchUpdateException;
+
+    /**
+     * 执行失败的批次
+     */
+    private final BatchResult batchResult;
+
+    public BatchExecutorException(String message, BatchUpdateException cause, List<BatchResult> successfulBatchResults, BatchResult batchResult) {
+        super(message, cause.getSQLState(), cause.getErrorCode(), cause);
+        this.batchUpdateException = cause;
+        this.successfulBatchResults = successfulBatchResults;
+        this.batchResult = batchResult;
+    }
+
+    public List<BatchResult> getSuccessfulBatchResults() {
+        return successfulBatchResults;
+    }
+
+    public BatchUpdateException getBatchUpdateException() {
+        return batchUpdateException;
+    }
+
+    /**
+     * 执行失败的 SQL 语句
+     *
+     * @return {@link String}
+     */
+    public String getFailingSqlStatement() {
+        return batchResult.getSql();
+    }
+
+    /**
+     * 执行失败的映射语句 ID
+     *
+     * @return {@link String}
+     */
+    public String getFailingStatementId() {
+        return batchResult.getMappedStatement().getId();
+    }
+}
@@ -0,0 +1,64 @@
+package com.code.executor;
+
+import com.code.mapping.MappedStatement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批处理结果(同一条 SQL 连续执行的一批更新)
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class BatchResult {
+
+    /**
+     * 映射语句
+     */
+    private final MappedStatement mappedStatement;
+
+    /**
+     * SQL 语句
+     */
+    private final String sql;
+
+    /**
+     * 每条更新对应的参数
+     */
+    private final List<Object> parameterObjects = new ArrayList<>();
+
+    /**
+     * 每条更新的受影响行数(executeBatch 的返回值)
+     */
+    private int[] updateCounts;
+
+    public BatchResult(MappedStatement mappedStatement, String sql) {
+        this.mappedStatement = mappedStatement;
+        this.sql = sql;
+    }
+
+    public void addParameterObject(Object parameterObject) {
+        this.parameterObjects.add(parameterObject);
+    }
+
+    public MappedStatement getMappedStatement() {
+        return mappedStatement;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<Object> getParameterObjects() {
+        return parameterObjects;
+    }
+
+    public int[] getUpdateCounts() {
+        return updateCounts;
+    }
+
+    public void setUpdateCounts(int[] updateCounts) {
+        this.updateCounts = updateCounts;
+    }
+}
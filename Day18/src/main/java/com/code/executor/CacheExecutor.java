@@ -4,6 +4,7 @@ import com.alibaba.fastjson.JSON;
 import com.code.cache.Cache;
 import com.code.cache.CacheKey;
 import com.code.cache.TransactionalCacheManager;
+import com.code.cursor.Cursor;
 import com.code.mapping.BoundSql;
 import com.code.mapping.MappedStatement;
 import com.code.session.ResultHandler;
@@ -44,7 +45,7 @@ public class CacheExecutor implements Executor{
             if (mappedStatement.isUseCache() && resultHandler == null) {
                 List<E> list = (List<E>) transactionalCacheManager.get(cache, key);
                 if (list == null) {
-                    list = delegate.<E>query(mappedStatement, parameter, rowBounds, resultHandler, key, boundSql);
+                    list = queryFromDelegate(mappedStatement, parameter, rowBounds, key, boundSql);
                     // cache：缓存队列实现类，FIFO
                     // key：哈希值 [mappedStatementId + offset + limit + SQL + queryParams + environment]
                     // list：查询的数据
@@ -62,6 +63,25 @@ public class CacheExecutor implements Executor{
 
     }
 
+    /**
+     * 二级缓存未命中时查询：开启查询合并且当前事务未执行过更新时，与其他会话中相同的并发查询共享一次数据库访问
+     *
+     * @param mappedStatement 映射语句
+     * @param parameter       参数
+     * @param rowBounds       行范围
+     * @param key             缓存键
+     * @param boundSql        绑定 SQL
+     * @return {@link List}<{@link E}>
+     */
+    private <E> List<E> queryFromDelegate(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, CacheKey key, BoundSql boundSql) {
+        SingleFlight singleFlight = mappedStatement.getConfiguration().getSingleFlight();
+        // 执行过更新的会话可能读到自己未提交的数据，不参与查询合并
+        if (singleFlight == null || delegate.isDirty()) {
+            return delegate.query(mappedStatement, parameter, rowBounds, NO_RESULT_HANDLER, key, boundSql);
+        }
+        return singleFlight.execute(key, () -> delegate.query(mappedStatement, parameter, rowBounds, NO_RESULT_HANDLER, key, boundSql));
+    }
+
     /**
      * 如果需要，刷新缓存
      *
@@ -84,16 +104,37 @@ public class CacheExecutor implements Executor{
 
     }
 
+    @Override
+    public <E> Cursor<E> queryCursor(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds) throws SQLException {
+        flushCacheIfRequired(mappedStatement);
+        return delegate.queryCursor(mappedStatement, parameter, rowBounds);
+    }
+
     @Override
     public int update(MappedStatement mappedStatement, Object parameter) throws SQLException {
         return delegate.update(mappedStatement,parameter);
     }
 
+    @Override
+    public List<BatchResult> flushStatements() throws SQLException {
+        return delegate.flushStatements();
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        delegate.cancel();
+    }
+
     @Override
     public Transaction getTransaction() {
         return delegate.getTransaction();
     }
 
+    @Override
+    public boolean isDirty() {
+        return delegate.isDirty();
+    }
+
     @Override
     public void commit(boolean required) throws SQLException {
         delegate.commit(required);
@@ -1,6 +1,7 @@
 package com.code.executor;
 
 import com.code.cache.CacheKey;
+import com.code.cursor.Cursor;
 import com.code.mapping.BoundSql;
 import com.code.mapping.MappedStatement;
 import com.code.session.ResultHandler;
@@ -45,6 +46,17 @@ public interface Executor {
      */
     <E> List<E> query(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, ResultHandler resultHandler);
 
+    /**
+     * 游标查询(不经过一级、二级缓存)
+     *
+     * @param mappedStatement 映射语句
+     * @param parameter       参数
+     * @param rowBounds       行范围
+     * @return {@link Cursor}<{@link E}>
+     * @throws SQLException SQLException
+     */
+    <E> Cursor<E> queryCursor(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds) throws SQLException;
+
     /**
      * 更新数据(返回受影响行数)
      *
@@ -55,6 +67,21 @@ public interface Executor {
      */
     int update(MappedStatement mappedStatement,Object parameter) throws SQLException;
 
+    /**
+     * 刷新批处理语句
+     *
+     * @return {@link List}<{@link BatchResult}> 每批更新的执行结果
+     * @throws SQLException sqlexception异常
+     */
+    List<BatchResult> flushStatements() throws SQLException;
+
+    /**
+     * 取消正在执行的语句(可由其他线程调用，没有正在执行的语句时不做任何操作)
+     *
+     * @throws SQLException SQLException
+     */
+    void cancel() throws SQLException;
+
     /**
      * 获取事务
      *
@@ -62,6 +89,13 @@ public interface Executor {
      */
     Transaction getTransaction();
 
+    /**
+     * 当前事务中是否执行过更新(提交或回滚后重置)
+     *
+     * @return boolean
+     */
+    boolean isDirty();
+
     /**
      * 提交事务
      *
@@ -0,0 +1,108 @@
+package com.code.executor;
+
+import com.code.datasource.routing.RoutingDataSource;
+import com.code.executor.statement.StatementHandler;
+import com.code.mapping.BoundSql;
+import com.code.mapping.MappedStatement;
+import com.code.session.Configuration;
+import com.code.session.ResultHandler;
+import com.code.session.RowBounds;
+import com.code.transaction.Transaction;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 复用执行器
+ * <p>
+ * 在一个会话内按 SQL 缓存已准备好的语句，同一条 SQL 再次执行时只重新设置参数，
+ * 语句在提交、回滚或关闭会话时统一关闭
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class ReuseExecutor extends BaseExecutor {
+
+    /**
+     * 已准备的语句(SQL -> 语句)
+     */
+    private final Map<String, ReusedStatement> statementMap = new HashMap<>();
+
+    public ReuseExecutor(Configuration configuration, Transaction transaction) {
+        super(configuration, transaction);
+    }
+
+    @Override
+    protected <E> List<E> doQuery(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
+        try {
+            Configuration configuration = mappedStatement.getConfiguration();
+            StatementHandler handler = configuration.newStatementHandler(wrapper, mappedStatement, parameter, rowBounds, resultHandler, boundSql);
+            Statement statement = prepareStatement(handler, mappedStatement);
+            return executeQuery(handler, statement, resultHandler);
+        } catch (SQLException e) {
+            reportQueryFailure(e);
+            throw new RuntimeException("执行查询操作时发生异常："+e.getMessage());
+        }
+    }
+
+    @Override
+    protected int doUpdate(MappedStatement mappedStatement, Object parameter) throws SQLException {
+        Configuration configuration = mappedStatement.getConfiguration();
+        StatementHandler handler = configuration.newStatementHandler(this, mappedStatement, parameter, RowBounds.DEFAULT, null, null);
+        Statement statement = prepareStatement(handler, mappedStatement);
+        return executeUpdate(handler, statement);
+    }
+
+    @Override
+    protected List<BatchResult> doFlushStatements(boolean isRollback) {
+        for (ReusedStatement reused : statementMap.values()) {
+            closeStatement(reused.statement());
+        }
+        statementMap.clear();
+        return Collections.emptyList();
+    }
+
+    /**
+     * 准备语句：已缓存且所属连接仍可用时直接复用，否则新建并缓存
+     *
+     * @param handler         处理器
+     * @param mappedStatement 映射语句
+     * @return {@link Statement}
+     * @throws SQLException SQLException
+     */
+    private Statement prepareStatement(StatementHandler handler, MappedStatement mappedStatement) throws SQLException {
+        String sql = handler.getBoundsql().getSql();
+        // 先完成读写分离路由，保证同一条 SQL 在切换到主库后不会复用从库上的语句
+        Connection connection = RoutingDataSource.route(transaction.getConnection(), mappedStatement.getSqlCommandType());
+        // 带行范围的查询可能在准备时被分页插件改写 SQL，不能按原 SQL 查找复用
+        boolean reusable = handler.getRowBounds() == null || handler.getRowBounds() == RowBounds.DEFAULT;
+        ReusedStatement reused = reusable ? statementMap.get(sql) : null;
+        Statement statement;
+        if (reused != null && reused.connection() == connection && !reused.statement().isClosed()) {
+            statement = reused.statement();
+        } else {
+            statement = handler.prepare(connection);
+            // 以实际准备的 SQL 缓存，替换掉的旧语句直接关闭
+            ReusedStatement previous = statementMap.put(handler.getBoundsql().getSql(), new ReusedStatement(connection, statement));
+            if (previous != null && previous.statement() != statement) {
+                closeStatement(previous.statement());
+            }
+        }
+        handler.parameterize(statement);
+        return statement;
+    }
+
+    /**
+     * 已缓存的语句
+     *
+     * @param connection 准备语句时使用的连接
+     * @param statement  语句
+     */
+    private record ReusedStatement(Connection connection, Statement statement) {
+    }
+}
@@ -11,6 +11,7 @@ import com.code.transaction.Transaction;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -34,8 +35,9 @@ public class SimpleExecutor extends BaseExecutor {
             // 准备语句
             statement = prepareStatement(handler);
             // 返回结果
-            return handler.query(statement, resultHandler);
+            return executeQuery(handler, statement, resultHandler);
         } catch (SQLException e) {
+            reportQueryFailure(e);
             throw new RuntimeException("执行查询操作时发生异常："+e.getMessage());
         } finally {
             closeStatement(statement);
@@ -52,12 +54,18 @@ public class SimpleExecutor extends BaseExecutor {
             // 准备语句
             statement = prepareStatement(handler);
             // 执行更新操作
-            return handler.update(statement);
+            return executeUpdate(handler, statement);
         } finally {
             closeStatement(statement);
         }
     }
 
+    @Override
+    protected List<BatchResult> doFlushStatements(boolean isRollback) {
+        // 语句在每次执行后即已关闭，无需刷新
+        return Collections.emptyList();
+    }
+
     /**
      * 准备语句
      *
@@ -0,0 +1,149 @@
+package com.code.executor;
+
+import com.code.cache.CacheKey;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 查询合并(single-flight)
+ * <p>
+ * 在所有会话之间共享：同一 {@link CacheKey} 的查询同时只有一个(领头者)访问数据库，
+ * 其余并发调用者(跟随者)等待并共享其结果(各自得到一份列表副本)。
+ * 领头者执行失败时，所有跟随者抛出同一个异常，不会在数据库已经出错时再各自重试一遍；
+ * 跟随者等待超时或被中断时自行查询
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class SingleFlight {
+
+    /**
+     * 等待领头者超时或被中断时的结果标记
+     */
+    private static final Object TIMED_OUT = new Object();
+
+    /**
+     * 正在执行的查询
+     */
+    private final ConcurrentHashMap<CacheKey, Call> calls = new ConcurrentHashMap<>();
+
+    /**
+     * 跟随者等待领头者的最长时间(毫秒)
+     */
+    private final long waitTimeout;
+
+    /**
+     * 实际访问数据库的次数
+     */
+    private final LongAdder executions = new LongAdder();
+
+    /**
+     * 共享了他人结果的次数
+     */
+    private final LongAdder coalesced = new LongAdder();
+
+    public SingleFlight(long waitTimeout) {
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * 执行查询：没有相同的查询在执行时自己执行，否则等待并共享其结果
+     *
+     * @param key   缓存键
+     * @param query 查询
+     * @return {@link List}<{@link E}>
+     */
+    @SuppressWarnings("unchecked")
+    public <E> List<E> execute(CacheKey key, Supplier<List<E>> query) {
+        Call call = new Call();
+        Call existing = calls.putIfAbsent(key, call);
+        // 领头者在执行过程中再次发起相同查询(嵌套查询)时直接执行，避免等待自己
+        if (existing == null || existing.leader == Thread.currentThread()) {
+            return lead(key, existing == null ? call : null, query);
+        }
+        Object result = existing.await(waitTimeout);
+        if (result == TIMED_OUT) {
+            return lead(key, null, query);
+        }
+        coalesced.increment();
+        return result == null ? null : new ArrayList<>((List<E>) result);
+    }
+
+    /**
+     * 自己执行查询，作为领头者时把结果交给跟随者
+     *
+     * @param key   缓存键
+     * @param call  登记的调用(不是领头者时为 null)
+     * @param query 查询
+     * @return {@link List}<{@link E}>
+     */
+    private <E> List<E> lead(CacheKey key, Call call, Supplier<List<E>> query) {
+        executions.increment();
+        if (call == null) {
+            return query.get();
+        }
+        try {
+            List<E> result = query.get();
+            // 跟随者拿到的是返回给调用方之前取得的不可变快照，调用方随后修改自己的结果不会影响跟随者
+            // (不用 List.copyOf：结果中可能有 null 元素)
+            call.complete(result == null ? null : Collections.unmodifiableList(new ArrayList<>(result)));
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * 正在执行的查询
+     */
+    private static final class Call extends CompletableFuture<Object> {
+
+        private final Thread leader = Thread.currentThread();
+
+        /**
+         * 等待领头者的结果，领头者失败时抛出其异常
+         *
+         * @param timeout 超时时间(毫秒)
+         * @return {@link Object} 等待超时或被中断时返回 TIMED_OUT
+         */
+        Object await(long timeout) {
+            try {
+                return get(timeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return TIMED_OUT;
+            } catch (TimeoutException e) {
+                return TIMED_OUT;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.code.executor.keygen;
 
 import com.code.executor.Executor;
 import com.code.mapping.MappedStatement;
+import com.code.mapping.MultiRowInsertRewriter;
 import com.code.reflection.MetaObject;
 import com.code.session.Configuration;
 import com.code.type.TypeHandler;
@@ -11,6 +12,8 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -27,17 +30,33 @@ public class Jdbc3KeyGenerator implements KeyGenerator{
 
     @Override
     public void processAfter(Executor executor, MappedStatement mappedStatement, Statement statement, Object parameter) {
-        //
+        processBatch(mappedStatement, statement, Collections.singletonList(parameter));
     }
 
     /**
-     * 批处理过程
+     * 批处理过程(按参数顺序逐行回填生成的键，单条插入视为只有一个参数的批次)
      *
-     * @param ms         女士
-     * @param stmt       支撑
+     * @param ms         映射语句
+     * @param stmt       语句
      * @param parameters 参数
      */
     public void processBatch(MappedStatement ms, Statement stmt, List<Object> parameters) {
+        if (ms.getKeyProperties() == null || parameters.isEmpty()) {
+            return;
+        }
+        if (ms.isMultiRowInsert()) {
+            // 多行插入时每个参数是一组行，生成的键按行的顺序返回
+            List<Object> rows = new ArrayList<>();
+            for (Object parameter : parameters) {
+                List<?> parameterRows = MultiRowInsertRewriter.rows(parameter);
+                if (parameterRows == null) {
+                    rows.add(parameter);
+                } else {
+                    rows.addAll(parameterRows);
+                }
+            }
+            parameters = rows;
+        }
         try (ResultSet rs = stmt.getGeneratedKeys()) {
             final Configuration configuration = ms.getConfiguration();
             final TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
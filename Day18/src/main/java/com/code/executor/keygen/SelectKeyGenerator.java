@@ -4,6 +4,7 @@ import com.code.executor.Executor;
 import com.code.mapping.MappedStatement;
 import com.code.reflection.MetaObject;
 import com.code.session.Configuration;
+import com.code.session.ExecutorType;
 import com.code.session.RowBounds;
 
 import java.sql.Statement;
@@ -69,7 +70,7 @@ public class SelectKeyGenerator implements KeyGenerator{
                     // 创建参数对象的 MetaObject
                     final MetaObject metaParam = configuration.newMetaObject(parameter);
                     // 创建专门用于执行 keyStatement 的 Executor
-                    Executor keyExecutor = configuration.newExecutor(executor.getTransaction());
+                    Executor keyExecutor = configuration.newExecutor(executor.getTransaction(), ExecutorType.SIMPLE);
 
                     // 执行 keyStatement 查询，获取结果列表
                     List<Object> values = keyExecutor.query(keyStatement, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
@@ -20,9 +20,15 @@ public class DefaultResultContext implements ResultContext {
      */
     private int resultCount;
 
+    /**
+     * 是否已停止
+     */
+    private boolean stopped;
+
     public DefaultResultContext() {
         this.resultObject = null;
         this.resultCount = 0;
+        this.stopped = false;
     }
 
     @Override
@@ -35,6 +41,16 @@ public class DefaultResultContext implements ResultContext {
         return resultCount;
     }
 
+    @Override
+    public void stop() {
+        this.stopped = true;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return stopped;
+    }
+
     /**
      * 下一个结果对象
      *
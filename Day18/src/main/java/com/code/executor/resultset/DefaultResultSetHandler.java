@@ -1,8 +1,11 @@
 package com.code.executor.resultset;
 
+import com.code.cursor.Cursor;
+import com.code.cursor.defaults.DefaultCursor;
 import com.code.executor.Executor;
 import com.code.executor.result.DefaultResultContext;
 import com.code.executor.result.DefaultResultHandler;
+import com.code.executor.statement.FetchSizeAdvisor;
 import com.code.mapping.BoundSql;
 import com.code.mapping.MappedStatement;
 import com.code.mapping.ResultMap;
@@ -90,6 +93,64 @@ public class DefaultResultSetHandler implements ResultSetHandler{
     }
 
 
+    @Override
+    public <E> Cursor<E> handleCursorResultSets(Statement statement) throws SQLException {
+        ResultSetWrapper wrapper = new ResultSetWrapper(statement.getResultSet(), configuration);
+        List<ResultMap> resultMaps = mappedStatement.getResultMaps();
+        if (resultMaps.size() != 1) {
+            throw new RuntimeException("游标查询只支持一个 resultMap，实际数量为：" + resultMaps.size());
+        }
+        return new DefaultCursor<>(this, resultMaps.get(0), wrapper, getEffectiveRowBounds(), statement);
+    }
+
+    /**
+     * 逐行处理结果集，直到结果集读完或结果上下文被停止(供游标按需读取)
+     *
+     * @param wrapper       包装器
+     * @param resultMap     结果映射
+     * @param resultHandler 结果处理器
+     * @param resultContext 结果上下文
+     * @throws SQLException SQLException
+     */
+    public void handleRowValues(ResultSetWrapper wrapper, ResultMap resultMap, ResultHandler resultHandler, DefaultResultContext resultContext) throws SQLException {
+        handleRowValuesForSimpleResultMap(wrapper, resultMap, resultHandler, RowBounds.DEFAULT, resultContext);
+    }
+
+    /**
+     * 跳过 offset 指定的行(被跳过的行不做映射)
+     * <p>
+     * 语句总是以只能向前读取的方式创建(可滚动结果集会让 MySQL 等驱动把整个结果集读入内存)，逐行跳过；
+     * 驱动自行返回的可滚动结果集通过 absolute 直接定位
+     *
+     * @param resultSet 结果集
+     * @param rowBounds 行范围
+     * @throws SQLException SQLException
+     */
+    public void skipRows(ResultSet resultSet, RowBounds rowBounds) throws SQLException {
+        if (rowBounds.getOffset() <= RowBounds.NO_ROW_OFFSET) {
+            return;
+        }
+        if (resultSet.getType() != ResultSet.TYPE_FORWARD_ONLY) {
+            // 定位到最后一个被跳过的行，超出结果集范围时游标停在末尾之后
+            resultSet.absolute(rowBounds.getOffset());
+        } else {
+            for (int i = 0; i < rowBounds.getOffset(); i++) {
+                if (!resultSet.next()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取实际生效的行范围(SQL 已被改写为物理分页时，数据库返回的就是目标行，不再跳过和截断)
+     *
+     * @return {@link RowBounds}
+     */
+    private RowBounds getEffectiveRowBounds() {
+        return boundSql.isRowBoundsApplied() ? RowBounds.DEFAULT : rowBounds;
+    }
+
     /**
      * 获取下一个结果集包装对象。
      *
@@ -122,13 +183,46 @@ public class DefaultResultSetHandler implements ResultSetHandler{
      * @param parentMapping   父映射
      */
     private void handleResultSet(ResultSetWrapper wrapper, ResultMap resultMap, List<Object> multipleResults, ResultMapping parentMapping) throws SQLException {
+        RowBounds rowBounds = getEffectiveRowBounds();
         if(resultHandler == null) {
             // 创建新的结果处理器
             DefaultResultHandler defaultResultHandler = new DefaultResultHandler(objectFactory);
             // 封装数据
-            handleRowValuesForSimpleResultMap(wrapper,resultMap,defaultResultHandler,rowBounds,null);
+            DefaultResultContext resultContext = new DefaultResultContext();
+            handleRowValuesForSimpleResultMap(wrapper,resultMap,defaultResultHandler,rowBounds,resultContext);
             // 保存结果
             multipleResults.add(defaultResultHandler.getResultList());
+            recordFetch(wrapper, resultContext);
+        } else {
+            // 由调用方的结果处理器逐行处理，不构建结果列表
+            DefaultResultContext resultContext = new DefaultResultContext();
+            handleRowValuesForSimpleResultMap(wrapper,resultMap,resultHandler,rowBounds,resultContext);
+            recordFetch(wrapper, resultContext);
+        }
+    }
+
+    /**
+     * 开启自适应 fetchSize 时记录本次读取的行数与行宽
+     *
+     * @param wrapper       包装器
+     * @param resultContext 结果上下文
+     * @throws SQLException SQLException
+     */
+    private void recordFetch(ResultSetWrapper wrapper, DefaultResultContext resultContext) throws SQLException {
+        recordFetch(wrapper, resultContext.getResultCount());
+    }
+
+    /**
+     * 开启自适应 fetchSize 时记录本次读取的行数与行宽(游标在关闭结果集前调用)
+     *
+     * @param wrapper 包装器
+     * @param rows    读取的行数
+     * @throws SQLException SQLException
+     */
+    public void recordFetch(ResultSetWrapper wrapper, long rows) throws SQLException {
+        FetchSizeAdvisor advisor = configuration.getFetchSizeAdvisor();
+        if (advisor != null) {
+            advisor.record(mappedStatement.getId(), rows, wrapper.getResultSet().getMetaData());
         }
     }
 
@@ -139,16 +233,28 @@ public class DefaultResultSetHandler implements ResultSetHandler{
      * @param resultMap            结果图
      * @param resultHandler 结果处理器
      * @param rowBounds            行范围
-     * @param parentMapping        父映射
+     * @param resultContext        结果上下文
      */
-    private void handleRowValuesForSimpleResultMap(ResultSetWrapper wrapper, ResultMap resultMap, ResultHandler resultHandler, RowBounds rowBounds, ResultMapping parentMapping) throws SQLException {
-        DefaultResultContext resultContext = new DefaultResultContext();
-        while(resultContext.getResultCount() < rowBounds.getLimit() && wrapper.getResultSet().next()) {
+    private void handleRowValuesForSimpleResultMap(ResultSetWrapper wrapper, ResultMap resultMap, ResultHandler resultHandler, RowBounds rowBounds, DefaultResultContext resultContext) throws SQLException {
+        ResultSet resultSet = wrapper.getResultSet();
+        skipRows(resultSet, rowBounds);
+        while(shouldProcessMoreRows(resultContext, rowBounds) && resultSet.next()) {
             Object rowValue = getRowValue(wrapper,resultMap);
             callResultHandler(resultHandler,resultContext,rowValue);
         }
     }
 
+    /**
+     * 是否继续读取后续行
+     *
+     * @param resultContext 结果上下文
+     * @param rowBounds     行范围
+     * @return boolean
+     */
+    private boolean shouldProcessMoreRows(DefaultResultContext resultContext, RowBounds rowBounds) {
+        return !resultContext.isStopped() && resultContext.getResultCount() < rowBounds.getLimit();
+    }
+
     /**
      * 调用结果处理器
      *
@@ -1,5 +1,7 @@
 package com.code.executor.resultset;
 
+import com.code.cursor.Cursor;
+
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
@@ -19,4 +21,13 @@ public interface ResultSetHandler {
      * @throws SQLException SQLException
      */
     <E>List<E> handleResultSets(Statement statement) throws SQLException;
+
+    /**
+     * 以游标的形式处理结果集(逐行映射，不一次性读取全部结果)
+     *
+     * @param statement 语句
+     * @return {@link Cursor}<{@link E}>
+     * @throws SQLException SQLException
+     */
+    <E> Cursor<E> handleCursorResultSets(Statement statement) throws SQLException;
 }
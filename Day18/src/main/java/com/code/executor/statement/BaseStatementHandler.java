@@ -1,12 +1,15 @@
 package com.code.executor.statement;
 
+import com.code.datasource.routing.RoutingDataSource;
 import com.code.executor.Executor;
 import com.code.executor.keygen.KeyGenerator;
 import com.code.executor.parameter.ParameterHandler;
 import com.code.executor.resultset.ResultSetHandler;
 import com.code.mapping.BoundSql;
 import com.code.mapping.MappedStatement;
+import com.code.mapping.SqlCommandType;
 import com.code.session.Configuration;
+import com.code.session.KeysetRowBounds;
 import com.code.session.ResultHandler;
 import com.code.session.RowBounds;
 
@@ -67,24 +70,69 @@ public abstract class BaseStatementHandler implements StatementHandler{
 
     @Override
     public Statement prepare(Connection connection) throws SQLException {
+        if (rowBounds instanceof KeysetRowBounds && !boundSql.isRowBoundsApplied()) {
+            // 键集分页只能由分页插件改写 SQL，否则会静默返回第一页
+            throw new RuntimeException("键集分页需要注册分页插件 PaginationInterceptor：" + mappedStatement.getId());
+        }
         Statement statement = null;
         try {
-            // 实例化 Statement
-            statement = instantiateStatement(connection);
-            // 参数设置(可以将其抽取出来提供配置)
-            statement.setQueryTimeout(350);
-            statement.setFetchSize(10000);
+            // 实例化 Statement(读写分离时按语句类型选择主库或从库连接)
+            statement = instantiateStatement(RoutingDataSource.route(connection, mappedStatement.getSqlCommandType()));
+            // 超时时间与 fetchSize：语句配置优先，其次为自适应值与全局默认值
+            setStatementTimeout(statement);
+            setFetchSize(statement);
             return statement;
         } catch (Exception e){
             throw new RuntimeException("准备 SQL 语句时发生错误："+e.getMessage());
         }
     }
 
+    /**
+     * 设置语句超时时间(映射语句未配置且无全局默认值时设为 0，即不限时)
+     * <p>
+     * 语句会被缓存复用，每次都显式设置，避免沿用上一条映射语句的超时时间
+     *
+     * @param statement 语句
+     * @throws SQLException SQLException
+     */
+    protected void setStatementTimeout(Statement statement) throws SQLException {
+        Integer timeout = mappedStatement.getTimeout();
+        if (timeout == null) {
+            timeout = configuration.getDefaultStatementTimeout();
+        }
+        statement.setQueryTimeout(timeout == null ? 0 : timeout);
+    }
+
+    /**
+     * 设置 fetchSize(映射语句上的配置 > 自适应建议值 > 全局默认值 > 0，即驱动默认)
+     *
+     * @param statement 语句
+     * @throws SQLException SQLException
+     */
+    protected void setFetchSize(Statement statement) throws SQLException {
+        Integer fetchSize = mappedStatement.getFetchSize();
+        if (fetchSize == null && mappedStatement.getSqlCommandType() == SqlCommandType.SELECT) {
+            FetchSizeAdvisor advisor = configuration.getFetchSizeAdvisor();
+            if (advisor != null) {
+                fetchSize = advisor.advise(mappedStatement.getId());
+            }
+        }
+        if (fetchSize == null) {
+            fetchSize = configuration.getDefaultFetchSize();
+        }
+        statement.setFetchSize(fetchSize == null ? 0 : fetchSize);
+    }
+
     @Override
     public BoundSql getBoundsql() {
         return boundSql;
     }
 
+    @Override
+    public RowBounds getRowBounds() {
+        return rowBounds;
+    }
+
     /**
      * 实例化语句
      *
@@ -0,0 +1,134 @@
+package com.code.executor.statement;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 自适应 fetchSize 顾问
+ * <p>
+ * 按映射语句 id 统计每次查询返回的行数和估算的行宽(指数移动平均)，据此给出下一次查询的 fetchSize：
+ * <ul>
+ *     <li>fetchSize 不超过预期行数，点查不会为一行结果预留成千上万行的缓冲；</li>
+ *     <li>fetchSize × 行宽不超过单次往返的内存预算，大结果集导出时客户端内存可控；</li>
+ *     <li>在这两个上限内尽量取大，减少网络往返次数。</li>
+ * </ul>
+ * 尚无统计数据的语句返回 null，由调用方使用全局默认值
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class FetchSizeAdvisor {
+
+    /**
+     * 指数移动平均系数
+     */
+    private static final double ALPHA = 0.2;
+
+    /**
+     * 单列宽度估算上限(字节，避免 LOB/TEXT 列的显示宽度把行宽估得过大)
+     */
+    private static final int MAX_COLUMN_WIDTH = 4096;
+
+    /**
+     * 每列的固定开销估算(字节)
+     */
+    private static final int COLUMN_OVERHEAD = 16;
+
+    /**
+     * 建议值下限
+     */
+    private static final int MIN_FETCH_SIZE = 1;
+
+    /**
+     * 建议值上限
+     */
+    private static final int MAX_FETCH_SIZE = 10000;
+
+    /**
+     * 单次往返的内存预算(字节)
+     */
+    private final long memoryBudget;
+
+    /**
+     * 各语句的统计信息
+     */
+    private final Map<String, Statistics> statisticsMap = new ConcurrentHashMap<>();
+
+    public FetchSizeAdvisor(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * 给出语句的 fetchSize 建议值
+     *
+     * @param statementId 映射语句 id
+     * @return {@link Integer} 尚无统计数据时返回 null
+     */
+    public Integer advise(String statementId) {
+        Statistics statistics = statisticsMap.get(statementId);
+        return statistics == null ? null : statistics.advise(memoryBudget);
+    }
+
+    /**
+     * 记录一次查询的结果
+     *
+     * @param statementId 映射语句 id
+     * @param rows        读取的行数
+     * @param metaData    结果集元数据(用于估算行宽)
+     */
+    public void record(String statementId, long rows, ResultSetMetaData metaData) {
+        int rowWidth = estimateRowWidth(metaData);
+        statisticsMap.computeIfAbsent(statementId, key -> new Statistics()).record(rows, rowWidth);
+    }
+
+    /**
+     * 根据列的显示宽度估算行宽
+     *
+     * @param metaData 结果集元数据
+     * @return int 无法获取时返回 0
+     */
+    private int estimateRowWidth(ResultSetMetaData metaData) {
+        try {
+            int width = 0;
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                width += Math.min(Math.max(metaData.getColumnDisplaySize(i), 1), MAX_COLUMN_WIDTH) + COLUMN_OVERHEAD;
+            }
+            return width;
+        } catch (SQLException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 单条语句的统计信息
+     */
+    private static class Statistics {
+
+        /**
+         * 平均行数
+         */
+        private double rows = -1;
+
+        /**
+         * 平均行宽(字节)
+         */
+        private double rowWidth = -1;
+
+        synchronized void record(long rows, int rowWidth) {
+            this.rows = this.rows < 0 ? rows : this.rows + ALPHA * (rows - this.rows);
+            if (rowWidth > 0) {
+                this.rowWidth = this.rowWidth < 0 ? rowWidth : this.rowWidth + ALPHA * (rowWidth - this.rowWidth);
+            }
+        }
+
+        synchronized int advise(long memoryBudget) {
+            // 多取一行，让驱动在同一次往返中确认结果集已结束
+            long byRows = (long) Math.ceil(rows) + 1;
+            long byMemory = rowWidth > 0 ? (long) (memoryBudget / rowWidth) : MAX_FETCH_SIZE;
+            long fetchSize = Math.min(byRows, byMemory);
+            return (int) Math.max(MIN_FETCH_SIZE, Math.min(MAX_FETCH_SIZE, fetchSize));
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.code.executor.statement;
 
+import com.code.cursor.Cursor;
 import com.code.executor.Executor;
+import com.code.executor.keygen.Jdbc3KeyGenerator;
 import com.code.executor.keygen.KeyGenerator;
 import com.code.mapping.BoundSql;
 import com.code.mapping.MappedStatement;
@@ -26,6 +28,10 @@ public class PreparedStatementHandler extends BaseStatementHandler{
 
     @Override
     protected Statement instantiateStatement(Connection connection) throws SQLException {
+        // 使用自增主键时需要驱动返回生成的键
+        if (mappedStatement.getKeyGenerator() instanceof Jdbc3KeyGenerator) {
+            return connection.prepareStatement(boundSql.getSql(), Statement.RETURN_GENERATED_KEYS);
+        }
         return connection.prepareStatement(boundSql.getSql());
     }
 
@@ -34,6 +40,11 @@ public class PreparedStatementHandler extends BaseStatementHandler{
         parameterHandler.setParameters((PreparedStatement) statement);
     }
 
+    @Override
+    public void batch(Statement statement) throws SQLException {
+        ((PreparedStatement) statement).addBatch();
+    }
+
     @Override
     public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
         PreparedStatement preparedStatement = (PreparedStatement) statement;
@@ -41,6 +52,13 @@ public class PreparedStatementHandler extends BaseStatementHandler{
         return resultSetHandler.handleResultSets(preparedStatement);
     }
 
+    @Override
+    public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
+        PreparedStatement preparedStatement = (PreparedStatement) statement;
+        preparedStatement.execute();
+        return resultSetHandler.handleCursorResultSets(preparedStatement);
+    }
+
     @Override
     public int update(Statement statement) throws SQLException {
         PreparedStatement preparedStatement = (PreparedStatement) statement;
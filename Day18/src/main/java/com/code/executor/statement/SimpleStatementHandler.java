@@ -1,5 +1,6 @@
 package com.code.executor.statement;
 
+import com.code.cursor.Cursor;
 import com.code.executor.Executor;
 import com.code.executor.resultset.ResultSetHandler;
 import com.code.mapping.BoundSql;
@@ -34,6 +35,11 @@ public class SimpleStatementHandler extends BaseStatementHandler {
         // N/A
     }
 
+    @Override
+    public void batch(Statement statement) throws SQLException {
+        statement.addBatch(boundSql.getSql());
+    }
+
     @Override
     public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
         String sql = boundSql.getSql();
@@ -41,6 +47,12 @@ public class SimpleStatementHandler extends BaseStatementHandler {
         return resultSetHandler.handleResultSets(statement);
     }
 
+    @Override
+    public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
+        statement.execute(boundSql.getSql());
+        return resultSetHandler.handleCursorResultSets(statement);
+    }
+
     @Override
     public int update(Statement statement) throws SQLException {
         String sql = boundSql.getSql();
@@ -1,7 +1,9 @@
 package com.code.executor.statement;
 
+import com.code.cursor.Cursor;
 import com.code.mapping.BoundSql;
 import com.code.session.ResultHandler;
+import com.code.session.RowBounds;
 
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -33,6 +35,14 @@ public interface StatementHandler {
      */
     void parameterize(Statement statement) throws SQLException;
 
+    /**
+     * 加入批处理
+     *
+     * @param statement 语句
+     * @throws SQLException SQLException
+     */
+    void batch(Statement statement) throws SQLException;
+
     /**
      * 执行查询
      *
@@ -43,6 +53,15 @@ public interface StatementHandler {
      */
     <E>List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException;
 
+    /**
+     * 执行查询并以游标形式返回结果(语句由游标负责关闭)
+     *
+     * @param statement 语句
+     * @return {@link Cursor}<{@link E}>
+     * @throws SQLException SQLException
+     */
+    <E> Cursor<E> queryCursor(Statement statement) throws SQLException;
+
     /**
      * 执行更新
      *
@@ -58,4 +77,11 @@ public interface StatementHandler {
      * @return {@link BoundSql}
      */
     BoundSql getBoundsql();
+
+    /**
+     * 获取行范围
+     *
+     * @return {@link RowBounds}
+     */
+    RowBounds getRowBounds();
 }
@@ -14,6 +14,9 @@ import java.util.Map;
  * @date 2024/01/26
  */
 public class BoundSql {
+
+    private final Configuration configuration;
+
     /**
      * sql 语句
      */
@@ -39,7 +42,13 @@ public class BoundSql {
      */
     private MetaObject metaParameters;
 
+    /**
+     * SQL 是否已包含 RowBounds 指定的行范围(物理分页)，为 true 时结果集处理器不再跳过和截断行
+     */
+    private boolean rowBoundsApplied;
+
     public BoundSql(Configuration configuration,String sql,List<ParameterMapping> parameterMappings,Object parameterObject) {
+        this.configuration = configuration;
         this.sql = sql;
         this.parameterMappings = parameterMappings;
         this.parameterObject =parameterObject;
@@ -47,14 +56,34 @@ public class BoundSql {
         this.metaParameters = configuration.newMetaObject(additionalParameters);
     }
 
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
     public String getSql() {
         return sql;
     }
 
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
     public List<ParameterMapping> getParameterMappings() {
         return parameterMappings;
     }
 
+    public void setParameterMappings(List<ParameterMapping> parameterMappings) {
+        this.parameterMappings = parameterMappings;
+    }
+
+    public boolean isRowBoundsApplied() {
+        return rowBoundsApplied;
+    }
+
+    public void setRowBoundsApplied(boolean rowBoundsApplied) {
+        this.rowBoundsApplied = rowBoundsApplied;
+    }
+
     public Object getParameterObject() {
         return parameterObject;
     }
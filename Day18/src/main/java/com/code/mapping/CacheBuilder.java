@@ -1,8 +1,13 @@
 package com.code.mapping;
 
 import com.code.cache.Cache;
+import com.code.cache.Weigher;
+import com.code.cache.Impl.ConcurrentCache;
 import com.code.cache.Impl.PerpetualCache;
+import com.code.cache.decorator.BlockingCache;
 import com.code.cache.decorator.FIFOCache;
+import com.code.cache.decorator.ScheduledCache;
+import com.code.cache.decorator.WeightedCache;
 import com.code.reflection.MetaObject;
 import com.code.reflection.SystemMetaObject;
 
@@ -41,6 +46,11 @@ public class CacheBuilder {
      */
     private Long clearInterval;
 
+    /**
+     * 缓存项存活时间(毫秒)
+     */
+    private Long timeToLive;
+
     /**
      * 读 or 写
      */
@@ -56,6 +66,16 @@ public class CacheBuilder {
      */
     private boolean blocking;
 
+    /**
+     * 内存预算(字节)，为 null 时只按条目数限制容量
+     */
+    private Long maxBytes;
+
+    /**
+     * 权重计算器
+     */
+    private Class<? extends Weigher> weigher;
+
     public CacheBuilder(String id) {
         this.id = id;
         this.decorators = new ArrayList<>();
@@ -101,6 +121,17 @@ public class CacheBuilder {
         return this;
     }
 
+    /**
+     * 缓存项存活时间
+     *
+     * @param timeToLive 存活时间(毫秒)
+     * @return {@link CacheBuilder}
+     */
+    public CacheBuilder timeToLive(Long timeToLive) {
+        this.timeToLive = timeToLive;
+        return this;
+    }
+
     /**
      * 阅读写
      *
@@ -123,6 +154,28 @@ public class CacheBuilder {
         return this;
     }
 
+    /**
+     * 内存预算
+     *
+     * @param maxBytes 字节数
+     * @return {@link CacheBuilder}
+     */
+    public CacheBuilder maxBytes(Long maxBytes) {
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * 权重计算器
+     *
+     * @param weigher 权重计算器类型
+     * @return {@link CacheBuilder}
+     */
+    public CacheBuilder weigher(Class<? extends Weigher> weigher) {
+        this.weigher = weigher;
+        return this;
+    }
+
     /**
      * 属性
      *
@@ -138,17 +191,78 @@ public class CacheBuilder {
         setDefaultImplementations();
         Cache cache = newBaseCacheInstance(implementation,id);
         setCacheProperties(cache);
-        if(PerpetualCache.class.equals(cache.getClass())) {
+        // 内置的基础缓存才使用装饰器包装，自定义实现自行负责淘汰等策略
+        boolean builtin = PerpetualCache.class.equals(cache.getClass()) || ConcurrentCache.class.equals(cache.getClass());
+        WeightedCache.RemovalTracker tracker = null;
+        if (builtin && maxBytes != null) {
+            // 内层淘汰策略删除的键经删除记录器从权重统计中扣除
+            tracker = new WeightedCache.RemovalTracker(cache);
+            cache = tracker;
+        }
+        if (builtin) {
             for (Class<? extends Cache> decorator : decorators) {
                 // 装饰者模式包装
                 cache = newCacheDecoratorInstance(decorator,cache);
+                // 淘汰策略装饰器的容量
+                setCacheSize(cache);
                 // 额外属性设置
                 setCacheProperties(cache);
             }
         }
+        if (maxBytes != null) {
+            cache = newWeightedCache(cache, tracker);
+        }
+        cache = setStandardDecorators(cache);
         return cache;
     }
 
+    /**
+     * 按配置包装定时过期与阻塞装饰器(对所有缓存实现生效)
+     *
+     * @param cache 缓存
+     * @return {@link Cache}
+     */
+    private Cache setStandardDecorators(Cache cache) {
+        boolean scheduled = clearInterval != null && clearInterval > 0;
+        boolean expiring = timeToLive != null && timeToLive > 0;
+        if (scheduled || expiring) {
+            ScheduledCache scheduledCache = new ScheduledCache(cache);
+            if (expiring) {
+                scheduledCache.setTimeToLive(timeToLive);
+            }
+            if (scheduled) {
+                scheduledCache.setClearInterval(clearInterval);
+            }
+            cache = scheduledCache;
+        }
+        if (blocking) {
+            cache = new BlockingCache(cache);
+            // 等待超时：<property name="timeout" value="10000"/>
+            setCacheProperties(cache);
+        }
+        return cache;
+    }
+
+    /**
+     * 在最外层按内存预算限制容量
+     *
+     * @param cache   缓存
+     * @param tracker 基础缓存之上的删除记录器(自定义缓存实现时为 null)
+     * @return {@link Cache}
+     */
+    private Cache newWeightedCache(Cache cache, WeightedCache.RemovalTracker tracker) {
+        WeightedCache weightedCache = tracker == null ? new WeightedCache(cache) : new WeightedCache(cache, tracker);
+        weightedCache.setMaxBytes(maxBytes);
+        if (weigher != null) {
+            try {
+                weightedCache.setWeigher(weigher.getDeclaredConstructor().newInstance());
+            } catch (Exception e) {
+                throw new RuntimeException("无法实例化缓存权重计算器 (" + weigher + ")。造成原因: " + e, e);
+            }
+        }
+        return weightedCache;
+    }
+
     /**
      * 新建缓存装饰器实例
      *
@@ -165,6 +279,20 @@ public class CacheBuilder {
         }
     }
 
+    /**
+     * 设置缓存容量(装饰器有 size 属性时)
+     *
+     * @param cache 缓存
+     */
+    private void setCacheSize(Cache cache) {
+        if (size != null) {
+            MetaObject metaCache = SystemMetaObject.forObject(cache);
+            if (metaCache.hasSetter("size")) {
+                metaCache.setValue("size", size);
+            }
+        }
+    }
+
     /**
      * 设置缓存的属性值，根据提供的属性映射。
      *
@@ -265,7 +393,7 @@ public class CacheBuilder {
      */
     private void setDefaultImplementations() {
         if(implementation == null) {
-            implementation = PerpetualCache.class;
+            implementation = ConcurrentCache.class;
             if(decorators.isEmpty()) {
                 decorators.add(FIFOCache.class);
             }
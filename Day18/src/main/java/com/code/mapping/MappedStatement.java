@@ -58,6 +58,20 @@ public class MappedStatement {
 
     private boolean useCache;
 
+    /**
+     * 语句超时时间(秒)
+     */
+    private Integer timeout;
+
+    /**
+     * 每次往返读取的行数
+     */
+    private Integer fetchSize;
+
+    /**
+     * 是否把集合参数展开为多行 INSERT 语句
+     */
+    private boolean multiRowInsert;
 
     /**
      * 默认构造器
@@ -135,6 +149,21 @@ public class MappedStatement {
             mappedStatement.useCache = useCache;
             return this;
         }
+
+        public Builder timeout(Integer timeout) {
+            mappedStatement.timeout = timeout;
+            return this;
+        }
+
+        public Builder fetchSize(Integer fetchSize) {
+            mappedStatement.fetchSize = fetchSize;
+            return this;
+        }
+
+        public Builder multiRowInsert(boolean multiRowInsert) {
+            mappedStatement.multiRowInsert = multiRowInsert;
+            return this;
+        }
     }
 
     /**
@@ -151,6 +180,13 @@ public class MappedStatement {
     }
 
     public BoundSql getBoundSql(Object parameterObject) {
+        if (multiRowInsert) {
+            // 集合参数展开为 INSERT ... VALUES (...), (...)
+            List<?> rows = MultiRowInsertRewriter.rows(parameterObject);
+            if (rows != null && !rows.isEmpty()) {
+                return MultiRowInsertRewriter.rewrite(this, rows);
+            }
+        }
         return sqlSource.getBoundSql(parameterObject);
     }
     public Configuration getConfiguration() {
@@ -213,4 +249,16 @@ public class MappedStatement {
     public Cache getCache() {
         return cache;
     }
+
+    public Integer getTimeout() {
+        return timeout;
+    }
+
+    public Integer getFetchSize() {
+        return fetchSize;
+    }
+
+    public boolean isMultiRowInsert() {
+        return multiRowInsert;
+    }
 }
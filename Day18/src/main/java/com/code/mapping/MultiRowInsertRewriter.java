@@ -0,0 +1,219 @@
+package com.code.mapping;
+
+import com.code.reflection.MetaObject;
+import com.code.session.Configuration;
+import com.code.type.TypeHandlerRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 多行插入改写器
+ * <p>
+ * 把按单个元素编写的 INSERT 语句(如 INSERT INTO user (id, name) VALUES (#{id}, #{name}))
+ * 在参数为集合或数组时展开为 INSERT INTO user (id, name) VALUES (?, ?), (?, ?), ...，
+ * 一次往返插入多行。每一行的参数值在改写时按元素取出，作为附加参数绑定到展开后的语句上
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class MultiRowInsertRewriter {
+
+    /**
+     * 展开后每个参数对应的附加参数名前缀
+     */
+    private static final String ROW_PARAMETER_PREFIX = "__row_";
+
+    private MultiRowInsertRewriter() {
+    }
+
+    /**
+     * 取得需要展开的行
+     *
+     * @param parameterObject 参数对象
+     * @return {@link List}<?> 参数不是集合或对象数组时返回 null
+     */
+    public static List<?> rows(Object parameterObject) {
+        if (parameterObject instanceof List<?> list) {
+            return list;
+        }
+        if (parameterObject instanceof Collection<?> collection) {
+            return new ArrayList<>(collection);
+        }
+        if (parameterObject instanceof Object[] array) {
+            return Arrays.asList(array);
+        }
+        return null;
+    }
+
+    /**
+     * 计算一条语句最多插入的行数，使展开后的参数个数不超过配置的上限
+     *
+     * @param mappedStatement 映射语句
+     * @param rows            所有行
+     * @return int
+     */
+    public static int rowsPerStatement(MappedStatement mappedStatement, List<?> rows) {
+        int parametersPerRow = mappedStatement.getSqlSource().getBoundSql(rows.get(0)).getParameterMappings().size();
+        if (parametersPerRow == 0) {
+            return rows.size();
+        }
+        return Math.max(1, mappedStatement.getConfiguration().getMultiRowInsertMaxParameters() / parametersPerRow);
+    }
+
+    /**
+     * 把单行 INSERT 语句展开为多行
+     *
+     * @param mappedStatement 映射语句
+     * @param rows            行(非空)
+     * @return {@link BoundSql} 参数对象为 rows
+     */
+    public static BoundSql rewrite(MappedStatement mappedStatement, List<?> rows) {
+        Configuration configuration = mappedStatement.getConfiguration();
+        SqlSource sqlSource = mappedStatement.getSqlSource();
+        BoundSql template = sqlSource.getBoundSql(rows.get(0));
+        String sql = template.getSql();
+        int[] tuple = locateValuesTuple(mappedStatement.getId(), sql);
+        String prefix = sql.substring(0, tuple[0]);
+        String values = sql.substring(tuple[0], tuple[1]);
+        String suffix = sql.substring(tuple[1]);
+        if (countPlaceholders(prefix) + countPlaceholders(suffix) > 0 || suffix.trim().startsWith(",")) {
+            throw new RuntimeException("多行插入只支持单个 VALUES 元组中的参数：" + mappedStatement.getId());
+        }
+
+        List<ParameterMapping> parameterMappings = new ArrayList<>(rows.size() * template.getParameterMappings().size());
+        BoundSql boundSql = new BoundSql(configuration, sql, parameterMappings, rows);
+        StringBuilder expanded = new StringBuilder(prefix.length() + suffix.length() + (values.length() + 2) * rows.size());
+        expanded.append(prefix);
+        for (int i = 0; i < rows.size(); i++) {
+            Object row = rows.get(i);
+            BoundSql rowSql = i == 0 ? template : sqlSource.getBoundSql(row);
+            if (!sql.equals(rowSql.getSql())) {
+                throw new RuntimeException("多行插入要求每个元素生成相同的 SQL：" + mappedStatement.getId());
+            }
+            if (i > 0) {
+                expanded.append(", ");
+            }
+            expanded.append(values);
+            List<ParameterMapping> rowMappings = rowSql.getParameterMappings();
+            for (int j = 0; j < rowMappings.size(); j++) {
+                ParameterMapping parameterMapping = rowMappings.get(j);
+                String name = ROW_PARAMETER_PREFIX + i + "_" + j;
+                boundSql.setAdditionalParameters(name, resolveValue(configuration, rowSql, parameterMapping.getProperty(), row));
+                parameterMappings.add(new ParameterMapping.Builder(configuration, name, parameterMapping.getJavaType())
+                        .jdbcType(parameterMapping.getJdbcType())
+                        .build());
+            }
+        }
+        expanded.append(suffix);
+        boundSql.setSql(expanded.toString());
+        return boundSql;
+    }
+
+    /**
+     * 按 DefaultParameterHandler 的规则取出单行的参数值
+     *
+     * @param configuration 配置
+     * @param rowSql        单行的绑定 SQL
+     * @param property      属性名
+     * @param row           行对象
+     * @return {@link Object}
+     */
+    private static Object resolveValue(Configuration configuration, BoundSql rowSql, String property, Object row) {
+        TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+        if (rowSql.hasAdditionalParameter(property)) {
+            return rowSql.getAdditionalParameter(property);
+        } else if (row == null) {
+            return null;
+        } else if (typeHandlerRegistry.hasTypeHandler(row.getClass())) {
+            return row;
+        }
+        MetaObject metaObject = configuration.newMetaObject(row);
+        return metaObject.getValue(property);
+    }
+
+    /**
+     * 定位 VALUES 后的元组
+     *
+     * @param id  语句 id
+     * @param sql SQL
+     * @return int[] 元组的起始下标(左括号)与结束下标(右括号之后)
+     */
+    private static int[] locateValuesTuple(String id, String sql) {
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (sql.regionMatches(true, i, "VALUES", 0, 6)
+                    && (i == 0 || !Character.isLetterOrDigit(sql.charAt(i - 1)))) {
+                int open = i + 6;
+                while (open < sql.length() && Character.isWhitespace(sql.charAt(open))) {
+                    open++;
+                }
+                if (open < sql.length() && sql.charAt(open) == '(') {
+                    return new int[]{open, matchParenthesis(id, sql, open) + 1};
+                }
+            }
+        }
+        throw new RuntimeException("多行插入语句中未找到 VALUES (...) 子句：" + id);
+    }
+
+    /**
+     * 查找与左括号匹配的右括号
+     *
+     * @param id   语句 id
+     * @param sql  SQL
+     * @param open 左括号下标
+     * @return int 右括号下标
+     */
+    private static int matchParenthesis(String id, String sql, int open) {
+        int depth = 0;
+        char quote = 0;
+        for (int i = open; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        throw new RuntimeException("多行插入语句的 VALUES 子句括号不匹配：" + id);
+    }
+
+    /**
+     * 统计引号之外的参数占位符个数
+     *
+     * @param sql SQL 片段
+     * @return int
+     */
+    private static int countPlaceholders(String sql) {
+        int count = 0;
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,41 @@
+package com.code.plugin.pagination;
+
+/**
+ * 分页方言
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public interface Dialect {
+
+    /**
+     * 将查询改写为偏移分页语句
+     *
+     * @param sql    原始 SQL
+     * @param offset 偏移量
+     * @param limit  行数上限(为 RowBounds.NO_ROW_LIMIT 时不限制)
+     * @return {@link String}
+     */
+    String getLimitString(String sql, int offset, int limit);
+
+    /**
+     * 将查询改写为键集分页语句：外层按键列排序，并从上一页最后一个键值之后开始读取
+     *
+     * @param sql        原始 SQL
+     * @param keyColumn  键列名
+     * @param descending 是否降序
+     * @param hasLastKey 是否有起始键值(有时追加一个 ? 占位符)
+     * @param limit      行数上限
+     * @return {@link String}
+     */
+    default String getKeysetString(String sql, String keyColumn, boolean descending, boolean hasLastKey, int limit) {
+        // 原始查询作为派生表，外层只能引用结果列名，去掉表别名前缀
+        String column = "page_." + keyColumn.substring(keyColumn.lastIndexOf('.') + 1);
+        StringBuilder builder = new StringBuilder("SELECT * FROM (").append(sql).append(") page_");
+        if (hasLastKey) {
+            builder.append(" WHERE ").append(column).append(descending ? " < ?" : " > ?");
+        }
+        builder.append(" ORDER BY ").append(column).append(descending ? " DESC" : " ASC");
+        return getLimitString(builder.toString(), 0, limit);
+    }
+}
@@ -0,0 +1,26 @@
+package com.code.plugin.pagination;
+
+import com.code.session.RowBounds;
+
+/**
+ * MySQL 分页方言
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class MySqlDialect implements Dialect {
+
+    /**
+     * MySQL 不支持只写 OFFSET，不限制行数时使用官方文档推荐的最大值
+     */
+    private static final String MAX_ROWS = "18446744073709551615";
+
+    @Override
+    public String getLimitString(String sql, int offset, int limit) {
+        String rows = limit == RowBounds.NO_ROW_LIMIT ? MAX_ROWS : String.valueOf(limit);
+        if (offset > RowBounds.NO_ROW_OFFSET) {
+            return sql + " LIMIT " + offset + ", " + rows;
+        }
+        return sql + " LIMIT " + rows;
+    }
+}
@@ -0,0 +1,119 @@
+package com.code.plugin.pagination;
+
+import com.code.executor.statement.StatementHandler;
+import com.code.io.Resources;
+import com.code.mapping.BoundSql;
+import com.code.mapping.ParameterMapping;
+import com.code.plugin.Interceptor;
+import com.code.plugin.Intercepts;
+import com.code.plugin.Invocation;
+import com.code.plugin.Signature;
+import com.code.session.KeysetRowBounds;
+import com.code.session.RowBounds;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * 物理分页插件
+ * <p>
+ * 在语句准备前把带 RowBounds 的查询改写为方言对应的 LIMIT/OFFSET 语句，
+ * 使用 {@link KeysetRowBounds} 时改写为键集分页(WHERE key > ? ORDER BY key LIMIT n)，
+ * 由数据库只返回目标页的行，而不是把前面所有页传输到客户端后再丢弃。
+ * 通过 dialect 属性指定方言：mysql(默认)、postgresql 或自定义 {@link Dialect} 实现类的全限定名
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+@Intercepts({@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class})})
+public class PaginationInterceptor implements Interceptor {
+
+    /**
+     * 键集分页起始键值的附加参数名
+     */
+    public static final String LAST_KEY_PARAMETER = "_keyset_last_key";
+
+    private Dialect dialect = new MySqlDialect();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        StatementHandler statementHandler = (StatementHandler) invocation.getTarget();
+        BoundSql boundSql = statementHandler.getBoundsql();
+        RowBounds rowBounds = statementHandler.getRowBounds();
+        if (rowBounds != null && !boundSql.isRowBoundsApplied()) {
+            if (rowBounds instanceof KeysetRowBounds keyset) {
+                rewriteKeyset(boundSql, keyset);
+            } else if (rowBounds.getOffset() > RowBounds.NO_ROW_OFFSET || rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT) {
+                boundSql.setSql(dialect.getLimitString(trimSql(boundSql.getSql()), rowBounds.getOffset(), rowBounds.getLimit()));
+                boundSql.setRowBoundsApplied(true);
+            }
+        }
+        return invocation.proceed();
+    }
+
+    /**
+     * 改写为键集分页，起始键值作为附加参数绑定到末尾的占位符
+     *
+     * @param boundSql 绑定 SQL
+     * @param keyset   键集行范围
+     */
+    private void rewriteKeyset(BoundSql boundSql, KeysetRowBounds keyset) {
+        Object lastKey = keyset.getLastKey();
+        boundSql.setSql(dialect.getKeysetString(trimSql(boundSql.getSql()), keyset.getKeyColumn(), keyset.isDescending(), lastKey != null, keyset.getLimit()));
+        if (lastKey != null) {
+            ParameterMapping parameterMapping = new ParameterMapping.Builder(boundSql.getConfiguration(), LAST_KEY_PARAMETER, lastKey.getClass()).build();
+            if (parameterMapping.getTypeHandler() == null) {
+                throw new RuntimeException("键集分页不支持的键值类型：" + lastKey.getClass().getName());
+            }
+            List<ParameterMapping> parameterMappings = new ArrayList<>(boundSql.getParameterMappings());
+            parameterMappings.add(parameterMapping);
+            boundSql.setParameterMappings(parameterMappings);
+            boundSql.setAdditionalParameters(LAST_KEY_PARAMETER, lastKey);
+        }
+        boundSql.setRowBoundsApplied(true);
+    }
+
+    /**
+     * 去掉末尾的分号和空白，便于追加分页子句
+     *
+     * @param sql SQL
+     * @return {@link String}
+     */
+    private String trimSql(String sql) {
+        String trimmed = sql.trim();
+        while (trimmed.endsWith(";")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+        }
+        return trimmed;
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        String name = properties.getProperty("dialect");
+        if (name == null) {
+            return;
+        }
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "mysql", "mariadb" -> dialect = new MySqlDialect();
+            case "postgresql", "postgres" -> dialect = new PostgreSqlDialect();
+            default -> {
+                try {
+                    dialect = (Dialect) Resources.classForName(name).getDeclaredConstructor().newInstance();
+                } catch (Exception e) {
+                    throw new RuntimeException("无法加载分页方言 " + name + "：" + e, e);
+                }
+            }
+        }
+    }
+
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    public void setDialect(Dialect dialect) {
+        this.dialect = dialect;
+    }
+}
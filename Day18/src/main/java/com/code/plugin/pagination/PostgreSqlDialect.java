@@ -0,0 +1,24 @@
+package com.code.plugin.pagination;
+
+import com.code.session.RowBounds;
+
+/**
+ * PostgreSQL 分页方言
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class PostgreSqlDialect implements Dialect {
+
+    @Override
+    public String getLimitString(String sql, int offset, int limit) {
+        StringBuilder builder = new StringBuilder(sql);
+        if (limit != RowBounds.NO_ROW_LIMIT) {
+            builder.append(" LIMIT ").append(limit);
+        }
+        if (offset > RowBounds.NO_ROW_OFFSET) {
+            builder.append(" OFFSET ").append(offset);
+        }
+        return builder.toString();
+    }
+}
@@ -66,8 +66,13 @@ public class DefaultParameterHandler implements ParameterHandler {
 
             // 获取参数值
             Object value;
-            // 如果已注册对应参数类型的类型处理器
-            if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+            // 优先使用附加参数(如分页插件追加的参数)
+            if (boundSql.hasAdditionalParameter(propertyName)) {
+                value = boundSql.getAdditionalParameter(propertyName);
+            } else if (parameterObject == null) {
+                value = null;
+            } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+                // 如果已注册对应参数类型的类型处理器
                 value = parameterObject;
             } else {
                 // 否则，通过元对象获取属性值
@@ -0,0 +1,105 @@
+package com.code.session;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 异步 SQL 会话
+ * <p>
+ * 每个操作在专用执行器上使用独立的 SqlSession 执行(更新操作执行成功后自动提交)，调用方线程不会被阻塞。
+ * 同时在途的操作数以连接池容量为上限，超出排队上限时返回的 Future 以
+ * {@link java.util.concurrent.RejectedExecutionException} 异常完成(背压)；
+ * 取消返回的 Future 会通过 Statement.cancel() 中止正在数据库中执行的语句
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public interface AsyncSqlSession extends Closeable {
+
+    /**
+     * 异步获取单条记录
+     *
+     * @param statement 语句
+     * @param parameter 参数
+     * @return {@link CompletableFuture}<{@link T}>
+     */
+    <T> CompletableFuture<T> selectOne(String statement, Object parameter);
+
+    /**
+     * 异步获取多条记录
+     *
+     * @param statement 语句
+     * @param parameter 参数
+     * @return {@link CompletableFuture}<{@link List}<{@link E}>>
+     */
+    <E> CompletableFuture<List<E>> selectList(String statement, Object parameter);
+
+    /**
+     * 异步获取指定范围内的多条记录
+     *
+     * @param statement 语句
+     * @param parameter 参数
+     * @param rowBounds 行范围
+     * @return {@link CompletableFuture}<{@link List}<{@link E}>>
+     */
+    <E> CompletableFuture<List<E>> selectList(String statement, Object parameter, RowBounds rowBounds);
+
+    /**
+     * 异步插入记录
+     *
+     * @param statement 语句
+     * @param parameter 参数
+     * @return {@link CompletableFuture}<{@link Integer}> 受影响的行数
+     */
+    CompletableFuture<Integer> insert(String statement, Object parameter);
+
+    /**
+     * 异步更新记录
+     *
+     * @param statement 语句
+     * @param parameter 参数
+     * @return {@link CompletableFuture}<{@link Integer}> 受影响的行数
+     */
+    CompletableFuture<Integer> update(String statement, Object parameter);
+
+    /**
+     * 异步删除记录
+     *
+     * @param statement 语句
+     * @param parameter 参数
+     * @return {@link CompletableFuture}<{@link Integer}> 受影响的行数
+     */
+    CompletableFuture<Integer> delete(String statement, Object parameter);
+
+    /**
+     * 在专用执行器上以独立的 SqlSession 执行任意操作
+     *
+     * @param operation 操作
+     * @param commit    操作成功后是否提交事务
+     * @return {@link CompletableFuture}<{@link T}>
+     */
+    <T> CompletableFuture<T> execute(Function<SqlSession, T> operation, boolean commit);
+
+    /**
+     * 获取异步映射器(映射器方法需返回 CompletableFuture)
+     *
+     * @param type 映射器接口
+     * @return {@link T}
+     */
+    <T> T getMapper(Class<T> type);
+
+    /**
+     * 获取配置
+     *
+     * @return {@link Configuration}
+     */
+    Configuration getConfiguration();
+
+    /**
+     * 关闭会话：不再接受新操作，取消尚未完成的操作并关闭执行器
+     */
+    @Override
+    void close();
+}
@@ -2,18 +2,28 @@ package com.code.session;
 
 import com.code.binding.MapperRegistry;
 import com.code.cache.Cache;
+import com.code.cache.Impl.ConcurrentCache;
+import com.code.cache.Impl.MappedFileCache;
 import com.code.cache.Impl.PerpetualCache;
 import com.code.cache.decorator.FIFOCache;
+import com.code.cache.decorator.LRUCache;
+import com.code.cache.decorator.TinyLFUCache;
 import com.code.datasource.druid.DruidDataSourceFactory;
+import com.code.datasource.pool.BagDataSourceFactory;
 import com.code.datasource.pool.PoolDataSourceFactory;
+import com.code.datasource.routing.RoutingDataSourceFactory;
 import com.code.datasource.unpool.UnpoolDataSourceFactory;
+import com.code.executor.BatchExecutor;
 import com.code.executor.CacheExecutor;
 import com.code.executor.Executor;
+import com.code.executor.ReuseExecutor;
 import com.code.executor.SimpleExecutor;
+import com.code.executor.SingleFlight;
 import com.code.executor.keygen.KeyGenerator;
 import com.code.executor.parameter.ParameterHandler;
 import com.code.executor.resultset.DefaultResultSetHandler;
 import com.code.executor.resultset.ResultSetHandler;
+import com.code.executor.statement.FetchSizeAdvisor;
 import com.code.executor.statement.PreparedStatementHandler;
 import com.code.executor.statement.StatementHandler;
 import com.code.mapping.BoundSql;
@@ -30,6 +40,8 @@ import com.code.reflection.wrapper.ObjectWrapperFactory;
 import com.code.script.LanguageDriver;
 import com.code.script.LanguageDriverRegistry;
 import com.code.script.xmltags.XMLLanguageDriver;
+import com.code.session.defaults.AsyncGate;
+import com.code.session.defaults.ParallelSelector;
 import com.code.transaction.Transaction;
 import com.code.transaction.jdbc.JdbcTrasactionFactory;
 import com.code.type.TypeAliasRegistry;
@@ -109,6 +121,81 @@ public class Configuration {
      */
     protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
 
+    /**
+     * 默认执行器类型
+     */
+    protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
+
+    /**
+     * 批处理执行器累计多少条更新后自动执行一次
+     */
+    protected int batchSize = 1000;
+
+    /**
+     * 默认语句超时时间(秒，为 null 时使用驱动默认值)
+     */
+    protected Integer defaultStatementTimeout;
+
+    /**
+     * 默认 fetchSize(为 null 时使用驱动默认值)
+     */
+    protected Integer defaultFetchSize;
+
+    /**
+     * 是否根据历史结果自适应调整 fetchSize(语句上显式配置的 fetchSize 优先)
+     */
+    protected boolean adaptiveFetchSize = false;
+
+    /**
+     * 自适应 fetchSize 单次往返的内存预算(字节)
+     */
+    protected long adaptiveFetchMemory = 4 * 1024 * 1024;
+
+    /**
+     * 异步会话是否使用虚拟线程(运行环境不支持时退回平台线程)
+     */
+    protected boolean asyncVirtualThreads = false;
+
+    /**
+     * 异步会话除正在执行的操作外最多排队的操作数(为 null 时与连接池容量相同)
+     */
+    protected Integer asyncMaxQueued;
+
+    /**
+     * 是否合并并发的相同查询(二级缓存未命中时同一缓存键只有一个会话访问数据库)
+     */
+    protected boolean singleFlightEnabled = false;
+
+    /**
+     * 合并查询时跟随者等待领头者的最长时间(毫秒)，超时后自行查询
+     */
+    protected long singleFlightWaitTimeout = 10000;
+
+    /**
+     * 多行插入时单条语句最多绑定的参数个数(MySQL 预处理语句的上限为 65535)
+     */
+    protected int multiRowInsertMaxParameters = 65535;
+
+    /**
+     * 查询合并器(开启合并时创建，所有会话共享)
+     */
+    protected volatile SingleFlight singleFlight;
+
+    /**
+     * 并行查询器(首次使用时创建，所有会话共享)
+     */
+    protected volatile ParallelSelector parallelSelector;
+
+    /**
+     * 异步会话的并发闸门(首次打开异步会话时创建，所有异步会话共享)
+     */
+    protected volatile AsyncGate asyncGate;
+
+    /**
+     * 自适应 fetchSize 顾问(开启自适应时创建)
+     */
+    protected volatile FetchSizeAdvisor fetchSizeAdvisor;
+
     /**
      * 拦截器链
      */
@@ -127,9 +214,15 @@ public class Configuration {
         typeAliasRegistry.registerAlias("JDBC", JdbcTrasactionFactory.class);
         typeAliasRegistry.registerAlias("DRUID", DruidDataSourceFactory.class);
         typeAliasRegistry.registerAlias("POOL", PoolDataSourceFactory.class);
+        typeAliasRegistry.registerAlias("BAG", BagDataSourceFactory.class);
         typeAliasRegistry.registerAlias("UNPOOL", UnpoolDataSourceFactory.class);
+        typeAliasRegistry.registerAlias("ROUTING", RoutingDataSourceFactory.class);
         typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
+        typeAliasRegistry.registerAlias("CONCURRENT", ConcurrentCache.class);
+        typeAliasRegistry.registerAlias("MAPPED", MappedFileCache.class);
         typeAliasRegistry.registerAlias("FIFO", FIFOCache.class);
+        typeAliasRegistry.registerAlias("LRU", LRUCache.class);
+        typeAliasRegistry.registerAlias("TINYLFU", TinyLFUCache.class);
 
         languageDriverRegistry.setDefaultDriverClass(XMLLanguageDriver.class);
     }
@@ -217,7 +310,23 @@ public class Configuration {
      * @return {@link Executor}
      */
     public Executor newExecutor(Transaction transaction) {
-        Executor executor = new SimpleExecutor(this, transaction);
+        return newExecutor(transaction, defaultExecutorType);
+    }
+
+    /**
+     * 创建指定类型的执行器
+     *
+     * @param transaction  事务
+     * @param executorType 执行器类型(为 null 时使用默认类型)
+     * @return {@link Executor}
+     */
+    public Executor newExecutor(Transaction transaction, ExecutorType executorType) {
+        executorType = executorType == null ? defaultExecutorType : executorType;
+        Executor executor = switch (executorType) {
+            case REUSE -> new ReuseExecutor(this, transaction);
+            case BATCH -> new BatchExecutor(this, transaction);
+            default -> new SimpleExecutor(this, transaction);
+        };
         // 配置开启缓存，创建 CacheExecutor(默认就是有缓存)装饰者模式
         if (cacheEnabled) {
             executor = new CacheExecutor(executor);
@@ -368,6 +477,192 @@ public class Configuration {
         this.localCacheScope = localCacheScope;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Integer getDefaultStatementTimeout() {
+        return defaultStatementTimeout;
+    }
+
+    public void setDefaultStatementTimeout(Integer defaultStatementTimeout) {
+        this.defaultStatementTimeout = defaultStatementTimeout;
+    }
+
+    public Integer getDefaultFetchSize() {
+        return defaultFetchSize;
+    }
+
+    public void setDefaultFetchSize(Integer defaultFetchSize) {
+        this.defaultFetchSize = defaultFetchSize;
+    }
+
+    public boolean isAdaptiveFetchSize() {
+        return adaptiveFetchSize;
+    }
+
+    public void setAdaptiveFetchSize(boolean adaptiveFetchSize) {
+        this.adaptiveFetchSize = adaptiveFetchSize;
+    }
+
+    public long getAdaptiveFetchMemory() {
+        return adaptiveFetchMemory;
+    }
+
+    public void setAdaptiveFetchMemory(long adaptiveFetchMemory) {
+        this.adaptiveFetchMemory = adaptiveFetchMemory;
+        this.fetchSizeAdvisor = null;
+    }
+
+    /**
+     * 获取自适应 fetchSize 顾问
+     *
+     * @return {@link FetchSizeAdvisor} 未开启自适应时返回 null
+     */
+    public FetchSizeAdvisor getFetchSizeAdvisor() {
+        if (!adaptiveFetchSize) {
+            return null;
+        }
+        FetchSizeAdvisor advisor = fetchSizeAdvisor;
+        if (advisor == null) {
+            synchronized (this) {
+                advisor = fetchSizeAdvisor;
+                if (advisor == null) {
+                    advisor = new FetchSizeAdvisor(adaptiveFetchMemory);
+                    fetchSizeAdvisor = advisor;
+                }
+            }
+        }
+        return advisor;
+    }
+
+    public boolean isAsyncVirtualThreads() {
+        return asyncVirtualThreads;
+    }
+
+    public void setAsyncVirtualThreads(boolean asyncVirtualThreads) {
+        this.asyncVirtualThreads = asyncVirtualThreads;
+    }
+
+    public Integer getAsyncMaxQueued() {
+        return asyncMaxQueued;
+    }
+
+    public void setAsyncMaxQueued(Integer asyncMaxQueued) {
+        this.asyncMaxQueued = asyncMaxQueued;
+    }
+
+    public int getMultiRowInsertMaxParameters() {
+        return multiRowInsertMaxParameters;
+    }
+
+    public void setMultiRowInsertMaxParameters(int multiRowInsertMaxParameters) {
+        this.multiRowInsertMaxParameters = multiRowInsertMaxParameters;
+    }
+
+    public boolean isSingleFlightEnabled() {
+        return singleFlightEnabled;
+    }
+
+    public void setSingleFlightEnabled(boolean singleFlightEnabled) {
+        this.singleFlightEnabled = singleFlightEnabled;
+    }
+
+    public long getSingleFlightWaitTimeout() {
+        return singleFlightWaitTimeout;
+    }
+
+    public void setSingleFlightWaitTimeout(long singleFlightWaitTimeout) {
+        this.singleFlightWaitTimeout = singleFlightWaitTimeout;
+        this.singleFlight = null;
+    }
+
+    /**
+     * 获取查询合并器
+     *
+     * @return {@link SingleFlight} 未开启合并时返回 null
+     */
+    public SingleFlight getSingleFlight() {
+        if (!singleFlightEnabled) {
+            return null;
+        }
+        SingleFlight flight = singleFlight;
+        if (flight == null) {
+            synchronized (this) {
+                flight = singleFlight;
+                if (flight == null) {
+                    flight = new SingleFlight(singleFlightWaitTimeout);
+                    singleFlight = flight;
+                }
+            }
+        }
+        return flight;
+    }
+
+    /**
+     * 获取并行查询器
+     *
+     * @return {@link ParallelSelector}
+     */
+    public ParallelSelector getParallelSelector() {
+        ParallelSelector selector = parallelSelector;
+        if (selector == null) {
+            synchronized (this) {
+                selector = parallelSelector;
+                if (selector == null) {
+                    selector = new ParallelSelector(this);
+                    parallelSelector = selector;
+                }
+            }
+        }
+        return selector;
+    }
+
+    /**
+     * 获取异步会话的并发闸门
+     *
+     * @return {@link AsyncGate}
+     */
+    public AsyncGate getAsyncGate() {
+        AsyncGate gate = asyncGate;
+        if (gate == null) {
+            synchronized (this) {
+                gate = asyncGate;
+                if (gate == null) {
+                    gate = new AsyncGate(this);
+                    asyncGate = gate;
+                }
+            }
+        }
+        return gate;
+    }
+
+    /**
+     * 关闭所有会话共享的执行线程(并行查询器与异步会话的并发闸门)，之后再次使用时重新创建
+     */
+    public synchronized void shutdownExecutors() {
+        if (parallelSelector != null) {
+            parallelSelector.shutdown();
+            parallelSelector = null;
+        }
+        if (asyncGate != null) {
+            asyncGate.shutdown();
+            asyncGate = null;
+        }
+    }
+
+    public ExecutorType getDefaultExecutorType() {
+        return defaultExecutorType;
+    }
+
+    public void setDefaultExecutorType(ExecutorType defaultExecutorType) {
+        this.defaultExecutorType = defaultExecutorType;
+    }
+
     /**
      * 是否启用缓存
      *
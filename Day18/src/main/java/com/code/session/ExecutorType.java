@@ -0,0 +1,23 @@
+package com.code.session;
+
+/**
+ * 执行器类型
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public enum ExecutorType {
+
+    /**
+     * 简单执行器(每次执行都新建并关闭语句)
+     */
+    SIMPLE,
+    /**
+     * 复用执行器(会话内按 SQL 复用预处理语句)
+     */
+    REUSE,
+    /**
+     * 批处理执行器(合并连续的相同更新为 JDBC 批处理)
+     */
+    BATCH
+}
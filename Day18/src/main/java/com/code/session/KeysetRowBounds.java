@@ -0,0 +1,55 @@
+package com.code.session;
+
+/**
+ * 键集分页(Keyset/Seek)行范围
+ * <p>
+ * 以上一页最后一行的键值为起点读取下一页，数据库可直接利用键上的索引定位，
+ * 翻到多深的页都不需要扫描并丢弃前面的行。需要配合分页插件
+ * {@link com.code.plugin.pagination.PaginationInterceptor} 使用，由插件改写 SQL；未注册插件时执行查询会直接报错
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class KeysetRowBounds extends RowBounds {
+
+    /**
+     * 排序键列名(需要出现在查询结果中且唯一)
+     */
+    private final String keyColumn;
+
+    /**
+     * 上一页最后一行的键值(为 null 时读取第一页)
+     */
+    private final Object lastKey;
+
+    /**
+     * 是否按键降序翻页
+     */
+    private final boolean descending;
+
+    public KeysetRowBounds(String keyColumn, Object lastKey, int limit) {
+        this(keyColumn, lastKey, limit, false);
+    }
+
+    public KeysetRowBounds(String keyColumn, Object lastKey, int limit, boolean descending) {
+        super(NO_ROW_OFFSET, limit);
+        if (keyColumn == null || !keyColumn.matches("[A-Za-z_][A-Za-z0-9_.]*")) {
+            throw new IllegalArgumentException("非法的键集分页列名：" + keyColumn);
+        }
+        this.keyColumn = keyColumn;
+        this.lastKey = lastKey;
+        this.descending = descending;
+    }
+
+    public String getKeyColumn() {
+        return keyColumn;
+    }
+
+    public Object getLastKey() {
+        return lastKey;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+}
@@ -0,0 +1,64 @@
+package com.code.session;
+
+/**
+ * 批量并行查询中的一条查询
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ * @see SqlSession#selectAll(java.util.List, long)
+ */
+public class QuerySpec {
+
+    /**
+     * 语句
+     */
+    private final String statement;
+
+    /**
+     * 参数
+     */
+    private final Object parameter;
+
+    /**
+     * 行范围
+     */
+    private final RowBounds rowBounds;
+
+    public QuerySpec(String statement, Object parameter, RowBounds rowBounds) {
+        if (statement == null) {
+            throw new IllegalArgumentException("查询语句不能为空！");
+        }
+        this.statement = statement;
+        this.parameter = parameter;
+        this.rowBounds = rowBounds == null ? RowBounds.DEFAULT : rowBounds;
+    }
+
+    public static QuerySpec of(String statement) {
+        return new QuerySpec(statement, null, RowBounds.DEFAULT);
+    }
+
+    public static QuerySpec of(String statement, Object parameter) {
+        return new QuerySpec(statement, parameter, RowBounds.DEFAULT);
+    }
+
+    public static QuerySpec of(String statement, Object parameter, RowBounds rowBounds) {
+        return new QuerySpec(statement, parameter, rowBounds);
+    }
+
+    public String getStatement() {
+        return statement;
+    }
+
+    public Object getParameter() {
+        return parameter;
+    }
+
+    public RowBounds getRowBounds() {
+        return rowBounds;
+    }
+
+    @Override
+    public String toString() {
+        return statement;
+    }
+}
@@ -21,4 +21,16 @@ public interface ResultContext {
      * @return int
      */
     int getResultCount();
+
+    /**
+     * 停止读取后续行(在结果处理器中调用，当前行处理完后不再读取结果集)
+     */
+    void stop();
+
+    /**
+     * 是否已停止
+     *
+     * @return boolean
+     */
+    boolean isStopped();
 }
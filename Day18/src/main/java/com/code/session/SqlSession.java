@@ -1,5 +1,9 @@
 package com.code.session;
 
+import com.code.cursor.Cursor;
+import com.code.executor.BatchResult;
+
+import java.io.Closeable;
 import java.util.List;
 
 /**
@@ -8,7 +12,7 @@ import java.util.List;
  * @author HeXin
  * @date 2024/01/21
  */
-public interface  SqlSession {
+public interface  SqlSession extends Closeable {
     /**
      * 根据指定的SqlID获取一条记录的封装对象
      *
@@ -35,6 +39,72 @@ public interface  SqlSession {
      */
     <T> List<T> selectList(String statement,Object parameter);
 
+    /**
+     * 获取指定范围内的多条记录
+     *
+     * @param statement 语句
+     * @param parameter 参数
+     * @param rowBounds 行范围
+     * @return {@link List}<{@link T}>
+     */
+    <T> List<T> selectList(String statement, Object parameter, RowBounds rowBounds);
+
+    /**
+     * 查询并将每一行交给结果处理器处理(不构建结果列表，处理器可通过 ResultContext.stop() 提前结束)
+     *
+     * @param statement 语句
+     * @param parameter 参数
+     * @param handler   结果处理器
+     */
+    void select(String statement, Object parameter, ResultHandler handler);
+
+    /**
+     * 查询指定范围内的记录并将每一行交给结果处理器处理
+     *
+     * @param statement 语句
+     * @param parameter 参数
+     * @param rowBounds 行范围
+     * @param handler   结果处理器
+     */
+    void select(String statement, Object parameter, RowBounds rowBounds, ResultHandler handler);
+
+    /**
+     * 以游标形式获取多条记录(逐行映射，游标需在会话关闭前遍历完或关闭)
+     *
+     * @param statement 语句
+     * @param parameter 参数
+     * @return {@link Cursor}<{@link T}>
+     */
+    <T> Cursor<T> selectCursor(String statement, Object parameter);
+
+    /**
+     * 以游标形式获取指定范围内的多条记录
+     *
+     * @param statement 语句
+     * @param parameter 参数
+     * @param rowBounds 行范围
+     * @return {@link Cursor}<{@link T}>
+     */
+    <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
+
+    /**
+     * 并行执行多条相互独立的查询(各自使用独立的池化连接)，按顺序返回结果，超时时间为 30 秒
+     *
+     * @param specs 查询
+     * @return {@link List}<{@link List}<?>> 与 specs 顺序一致的查询结果
+     */
+    List<List<?>> selectAll(List<QuerySpec> specs);
+
+    /**
+     * 并行执行多条相互独立的查询，所有查询共享同一个截止时间，超时时取消尚未完成的查询并抛出异常。
+     * 当前会话存在未提交的更新时，为保证能读到自己的修改，改为在本会话中依次执行
+     *
+     * @param specs   查询
+     * @param timeout 超时时间(毫秒)，小于等于 0 时使用默认的 30 秒
+     * @return {@link List}<{@link List}<?>> 与 specs 顺序一致的查询结果
+     */
+    List<List<?>> selectAll(List<QuerySpec> specs, long timeout);
+
     /**
      * 插入数据(返回受影响行数)
      *
@@ -67,6 +137,20 @@ public interface  SqlSession {
      */
     void commit();
 
+    /**
+     * 执行批处理中尚未执行的更新(仅对 BATCH 执行器有意义)
+     * <p>
+     * 某一批执行失败时抛出的异常以 {@link com.code.executor.BatchExecutorException} 为原因，其中带有已成功执行的批次
+     *
+     * @return {@link List}<{@link BatchResult}> 每批更新的执行结果
+     */
+    List<BatchResult> flushStatements();
+
+    /**
+     * 取消当前正在执行的语句(通过 Statement.cancel()，可由其他线程调用)
+     */
+    void cancel();
+
     /**
      * 获取映射器(使用泛型，使得类型安全)
      *
@@ -83,8 +167,9 @@ public interface  SqlSession {
     Configuration getConfiguration();
 
     /**
-     * 关闭 session 会话
+     * 关闭 session 会话(同时关闭会话中打开的游标)
      */
+    @Override
     void close();
 
     /**
@@ -6,11 +6,32 @@ package com.code.session;
  * @author HeXin
  * @date 2024/01/21
  */
-public interface SqlSessionFactory {
+public interface SqlSessionFactory extends AutoCloseable {
     /**
      * 公开会话
      *
      * @return {@link SqlSession}
      */
     SqlSession openSession();
+
+    /**
+     * 使用指定类型的执行器公开会话
+     *
+     * @param executorType 执行器类型
+     * @return {@link SqlSession}
+     */
+    SqlSession openSession(ExecutorType executorType);
+
+    /**
+     * 公开异步会话(同一配置上的异步会话共享执行线程与并发上限，使用完毕后需关闭)
+     *
+     * @return {@link AsyncSqlSession}
+     */
+    AsyncSqlSession openAsyncSession();
+
+    /**
+     * 关闭会话工厂，停止所有会话共享的并行查询与异步执行线程(已打开的会话仍需各自关闭)
+     */
+    @Override
+    void close();
 }
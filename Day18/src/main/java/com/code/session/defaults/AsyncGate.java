@@ -0,0 +1,177 @@
+package com.code.session.defaults;
+
+import com.code.session.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步会话共享的并发闸门
+ * <p>
+ * 同一个 Configuration(即同一个数据源)上的所有异步会话共用一个闸门：
+ * 同时执行的操作数不超过连接池容量，在途操作数(执行中 + 排队中)不超过 容量 + asyncMaxQueued，
+ * 执行线程同样共享。会话再多，压到连接池上的并发也不会随之成倍增加
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class AsyncGate {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncGate.class);
+
+    /**
+     * 执行异步操作的线程池
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * 在途操作许可
+     */
+    private final Semaphore permits;
+
+    /**
+     * 在途操作上限
+     */
+    private final int maxInFlight;
+
+    /**
+     * 执行许可(同时执行的操作数不超过连接池容量)
+     */
+    private final Semaphore running;
+
+    /**
+     * 并发数
+     */
+    private final int concurrency;
+
+    public AsyncGate(Configuration configuration) {
+        this.concurrency = DefaultAsyncSqlSession.resolveConcurrency(configuration.getEnvironment().dataSource());
+        Integer maxQueued = configuration.getAsyncMaxQueued();
+        this.maxInFlight = concurrency + Math.max(0, maxQueued == null ? concurrency : maxQueued);
+        this.permits = new Semaphore(maxInFlight);
+        this.running = new Semaphore(concurrency);
+        this.executorService = configuration.isAsyncVirtualThreads() ? newVirtualThreadExecutor(concurrency) : newPlatformExecutor(concurrency);
+    }
+
+    /**
+     * 创建固定大小的平台线程池(守护线程，空闲时回收)
+     *
+     * @param concurrency 线程数
+     * @return {@link ExecutorService}
+     */
+    private static ExecutorService newPlatformExecutor(int concurrency) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "AsyncSqlSession-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的执行器(运行环境不支持虚拟线程时退回平台线程池)
+     *
+     * @param concurrency 退回平台线程池时的线程数
+     * @return {@link ExecutorService}
+     */
+    private static ExecutorService newVirtualThreadExecutor(int concurrency) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("当前运行环境不支持虚拟线程，异步会话改用平台线程池");
+            return newPlatformExecutor(concurrency);
+        }
+    }
+
+    /**
+     * 占用一个在途许可
+     *
+     * @return boolean 在途操作已达上限时返回 false
+     */
+    boolean tryEnter() {
+        return permits.tryAcquire();
+    }
+
+    /**
+     * 归还在途许可
+     */
+    void leave() {
+        permits.release();
+    }
+
+    /**
+     * 等待执行许可
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    void acquireRunning() throws InterruptedException {
+        running.acquire();
+    }
+
+    /**
+     * 归还执行许可
+     */
+    void releaseRunning() {
+        running.release();
+    }
+
+    /**
+     * 在执行线程上运行任务
+     *
+     * @param task 任务
+     */
+    void execute(Runnable task) {
+        executorService.execute(task);
+    }
+
+    /**
+     * 获取并发数(同时执行的操作数上限)
+     *
+     * @return int
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * 获取在途操作上限
+     *
+     * @return int
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * 获取当前在途操作数(所有共享本闸门的会话合计)
+     *
+     * @return int
+     */
+    public int getInFlightCount() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    /**
+     * 关闭执行线程(关闭会话工厂时调用，之后提交的操作被拒绝)
+     */
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    public boolean isShutdown() {
+        return executorService.isShutdown();
+    }
+}
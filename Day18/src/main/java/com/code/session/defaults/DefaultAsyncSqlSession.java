@@ -0,0 +1,279 @@
+package com.code.session.defaults;
+
+import com.code.binding.AsyncMapperProxy;
+import com.code.binding.MapperMethod;
+import com.code.datasource.pool.PoolDataSource;
+import com.code.datasource.routing.RoutingDataSource;
+import com.code.session.AsyncSqlSession;
+import com.code.session.Configuration;
+import com.code.session.RowBounds;
+import com.code.session.SqlSession;
+import com.code.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * 默认异步 SQL 会话
+ * <p>
+ * 同时执行的操作数不超过连接池容量(最大活跃连接数，开启自适应容量时取其上限；
+ * 无锁连接池 BagDataSource 与读写分离的主库同样适用)，
+ * 在途操作数(执行中 + 排队中)由信号量限制为 容量 + asyncMaxQueued，超出时立即拒绝，
+ * 避免无限排队把压力转嫁到连接池的等待队列上。
+ * 虚拟线程执行器不限制线程数，因此执行前还要获取执行许可，排队的操作在许可上等待而不是去争抢连接。
+ * 许可与执行线程由同一个 Configuration 上的所有异步会话共享(见 {@link AsyncGate})
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class DefaultAsyncSqlSession implements AsyncSqlSession {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultAsyncSqlSession.class);
+
+    /**
+     * 无法获知连接池容量时使用的默认并发数
+     */
+    private static final int DEFAULT_CONCURRENCY = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final Configuration configuration;
+
+    private final SqlSessionFactory sqlSessionFactory;
+
+    /**
+     * 共享的并发闸门
+     */
+    private final AsyncGate gate;
+
+    /**
+     * 未完成的操作(关闭会话时取消)
+     */
+    private final Set<AsyncOperation<?>> operations = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 异步映射器方法缓存
+     */
+    private final Map<Method, MapperMethod> methodCache = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    public DefaultAsyncSqlSession(Configuration configuration, SqlSessionFactory sqlSessionFactory) {
+        this.configuration = configuration;
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.gate = configuration.getAsyncGate();
+    }
+
+    /**
+     * 根据数据源计算并发数(读写分离时以主库为准；BagDataSource 继承 PoolDataSource，共用同一套容量配置)
+     *
+     * @param dataSource 数据源
+     * @return int
+     */
+    static int resolveConcurrency(DataSource dataSource) {
+        if (dataSource instanceof RoutingDataSource routingDataSource) {
+            dataSource = routingDataSource.getPrimary();
+        }
+        if (dataSource instanceof PoolDataSource pool) {
+            return Math.max(1, pool.isAdaptiveSizing() ? pool.getAdaptiveMaxConnections() : pool.getPoolMaximumActiveConnections());
+        }
+        return DEFAULT_CONCURRENCY;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> selectOne(String statement, Object parameter) {
+        return execute(sqlSession -> sqlSession.selectOne(statement, parameter), false);
+    }
+
+    @Override
+    public <E> CompletableFuture<List<E>> selectList(String statement, Object parameter) {
+        return selectList(statement, parameter, RowBounds.DEFAULT);
+    }
+
+    @Override
+    public <E> CompletableFuture<List<E>> selectList(String statement, Object parameter, RowBounds rowBounds) {
+        return execute(sqlSession -> sqlSession.selectList(statement, parameter, rowBounds), false);
+    }
+
+    @Override
+    public CompletableFuture<Integer> insert(String statement, Object parameter) {
+        return execute(sqlSession -> sqlSession.insert(statement, parameter), true);
+    }
+
+    @Override
+    public CompletableFuture<Integer> update(String statement, Object parameter) {
+        return execute(sqlSession -> sqlSession.update(statement, parameter), true);
+    }
+
+    @Override
+    public CompletableFuture<Integer> delete(String statement, Object parameter) {
+        return execute(sqlSession -> (Integer) sqlSession.delete(statement, parameter), true);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> execute(Function<SqlSession, T> operation, boolean commit) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("异步会话已关闭！"));
+        }
+        // 背压：在途操作达到上限时立即拒绝
+        if (!gate.tryEnter()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("异步会话在途操作已达上限 " + gate.getMaxInFlight() + "，请稍后重试"));
+        }
+        AsyncOperation<T> future = new AsyncOperation<>();
+        operations.add(future);
+        try {
+            gate.execute(() -> run(future, operation, commit));
+        } catch (RejectedExecutionException e) {
+            release(future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 在执行线程上以独立的会话执行操作(先归还许可再完成 Future，回调中可以立即提交新的操作)
+     *
+     * @param future    操作对应的 Future
+     * @param operation 操作
+     * @param commit    成功后是否提交
+     */
+    private <T> void run(AsyncOperation<T> future, Function<SqlSession, T> operation, boolean commit) {
+        boolean acquired = false;
+        boolean executed = false;
+        T result = null;
+        Throwable failure = null;
+        try {
+            // 排队期间已被取消的操作直接跳过
+            if (future.isDone()) {
+                return;
+            }
+            gate.acquireRunning();
+            acquired = true;
+            if (future.isDone()) {
+                return;
+            }
+            try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+                future.attach(sqlSession);
+                try {
+                    if (future.isDone()) {
+                        return;
+                    }
+                    result = operation.apply(sqlSession);
+                    // 已取消的更新不提交，关闭会话时随连接归还回滚
+                    if (commit && !future.isDone()) {
+                        sqlSession.commit();
+                    }
+                    executed = true;
+                } finally {
+                    future.detach();
+                }
+            }
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            if (acquired) {
+                gate.releaseRunning();
+            }
+            release(future);
+        }
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else if (executed) {
+            future.complete(result);
+        }
+    }
+
+    private void release(AsyncOperation<?> future) {
+        if (operations.remove(future)) {
+            gate.leave();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getMapper(Class<T> type) {
+        if (!configuration.hasMapper(type)) {
+            throw new RuntimeException("类型 " + type + " 未在 MapperRegistry 中注册");
+        }
+        AsyncMapperProxy<T> mapperProxy = new AsyncMapperProxy<>(this, type, methodCache);
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, mapperProxy);
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * 获取并发数(同时执行的操作数上限)
+     *
+     * @return int
+     */
+    public int getConcurrency() {
+        return gate.getConcurrency();
+    }
+
+    /**
+     * 获取当前在途操作数(共享同一闸门的所有异步会话合计)
+     *
+     * @return int
+     */
+    public int getInFlightCount() {
+        return gate.getInFlightCount();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // 执行线程由所有异步会话共享，只取消本会话的操作
+        for (AsyncOperation<?> operation : operations) {
+            operation.cancel(true);
+        }
+    }
+
+    /**
+     * 异步操作：取消时中止正在执行的语句
+     * <p>
+     * 只有取消本 Future 才会中止语句，由 thenApply 等方法派生的 Future 被取消时不会向上传播
+     */
+    private static final class AsyncOperation<T> extends CompletableFuture<T> {
+
+        /**
+         * 正在执行该操作的会话
+         */
+        private volatile SqlSession sqlSession;
+
+        void attach(SqlSession sqlSession) {
+            this.sqlSession = sqlSession;
+        }
+
+        void detach() {
+            this.sqlSession = null;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            SqlSession session = sqlSession;
+            if (cancelled && session != null) {
+                try {
+                    session.cancel();
+                } catch (RuntimeException e) {
+                    logger.warn("取消正在执行的语句时发生错误", e);
+                }
+            }
+            return cancelled;
+        }
+    }
+}
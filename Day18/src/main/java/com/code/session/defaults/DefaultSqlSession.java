@@ -1,12 +1,20 @@
 package com.code.session.defaults;
 
+import com.code.cursor.Cursor;
+import com.code.executor.BatchResult;
 import com.code.executor.Executor;
 import com.code.mapping.MappedStatement;
 import com.code.session.Configuration;
+import com.code.session.QuerySpec;
+import com.code.session.ResultHandler;
 import com.code.session.RowBounds;
 import com.code.session.SqlSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,9 +24,17 @@ import java.util.List;
  * @date 2024/01/25
  */
 public class DefaultSqlSession implements SqlSession {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultSqlSession.class);
+
     private final Configuration configuration;
     private final Executor executor;
 
+    /**
+     * 会话中打开的游标(关闭会话时一并关闭)
+     */
+    private List<Cursor<?>> cursorList;
+
     public DefaultSqlSession(Configuration configuration, Executor executor) {
         this.configuration = configuration;
         this.executor = executor;
@@ -42,8 +58,61 @@ public class DefaultSqlSession implements SqlSession {
 
     @Override
     public <T> List<T> selectList(String statement, Object parameter) {
+        return selectList(statement, parameter, RowBounds.DEFAULT);
+    }
+
+    @Override
+    public <T> List<T> selectList(String statement, Object parameter, RowBounds rowBounds) {
+        MappedStatement mappedStatement = configuration.getMappedStatement(statement);
+        return executor.query(mappedStatement, parameter, rowBounds, Executor.NO_RESULT_HANDLER);
+    }
+
+    @Override
+    public void select(String statement, Object parameter, ResultHandler handler) {
+        select(statement, parameter, RowBounds.DEFAULT, handler);
+    }
+
+    @Override
+    public void select(String statement, Object parameter, RowBounds rowBounds, ResultHandler handler) {
         MappedStatement mappedStatement = configuration.getMappedStatement(statement);
-        return executor.query(mappedStatement, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+        executor.query(mappedStatement, parameter, rowBounds, handler);
+    }
+
+    @Override
+    public <T> Cursor<T> selectCursor(String statement, Object parameter) {
+        return selectCursor(statement, parameter, RowBounds.DEFAULT);
+    }
+
+    @Override
+    public <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds) {
+        MappedStatement mappedStatement = configuration.getMappedStatement(statement);
+        try {
+            Cursor<T> cursor = executor.queryCursor(mappedStatement, parameter, rowBounds);
+            registerCursor(cursor);
+            return cursor;
+        } catch (SQLException e) {
+            throw new RuntimeException("游标查询时发生异常：" + e);
+        }
+    }
+
+    @Override
+    public List<List<?>> selectAll(List<QuerySpec> specs) {
+        return selectAll(specs, ParallelSelector.DEFAULT_TIMEOUT);
+    }
+
+    @Override
+    public List<List<?>> selectAll(List<QuerySpec> specs, long timeout) {
+        ParallelSelector parallelSelector = configuration.getParallelSelector();
+        // 只有一条查询或本会话存在未提交的更新(其他连接读不到)时，在本会话中依次执行
+        if (specs.size() <= 1 || executor.isDirty()) {
+            parallelSelector.checkReadOnly(specs);
+            List<List<?>> results = new ArrayList<>(specs.size());
+            for (QuerySpec spec : specs) {
+                results.add(selectList(spec.getStatement(), spec.getParameter(), spec.getRowBounds()));
+            }
+            return results;
+        }
+        return parallelSelector.selectAll(this, specs, timeout);
     }
 
     @Override
@@ -72,11 +141,29 @@ public class DefaultSqlSession implements SqlSession {
         try {
             executor.commit(true);
         } catch (SQLException e) {
-            throw new RuntimeException("提交事务时发生错误：" + e);
+            throw new RuntimeException("提交事务时发生错误：" + e, e);
         }
 
     }
 
+    @Override
+    public List<BatchResult> flushStatements() {
+        try {
+            return executor.flushStatements();
+        } catch (SQLException e) {
+            throw new RuntimeException("执行批处理时发生错误：" + e, e);
+        }
+    }
+
+    @Override
+    public void cancel() {
+        try {
+            executor.cancel();
+        } catch (SQLException e) {
+            throw new RuntimeException("取消语句时发生错误：" + e);
+        }
+    }
+
     @Override
     public <T> T getMapper(Class<T> type) {
         return configuration.getMapper(type, this);
@@ -89,7 +176,40 @@ public class DefaultSqlSession implements SqlSession {
 
     @Override
     public void close() {
-        executor.close(false);
+        try {
+            closeCursors();
+        } finally {
+            executor.close(false);
+        }
+    }
+
+    /**
+     * 记录打开的游标
+     *
+     * @param cursor 游标
+     */
+    private void registerCursor(Cursor<?> cursor) {
+        if (cursorList == null) {
+            cursorList = new ArrayList<>();
+        }
+        cursorList.add(cursor);
+    }
+
+    /**
+     * 关闭会话中尚未关闭的游标
+     */
+    private void closeCursors() {
+        if (cursorList == null) {
+            return;
+        }
+        for (Cursor<?> cursor : cursorList) {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                logger.warn("关闭游标时发生异常", e);
+            }
+        }
+        cursorList.clear();
     }
 
     @Override
@@ -2,7 +2,9 @@ package com.code.session.defaults;
 
 import com.code.executor.Executor;
 import com.code.mapping.Environment;
+import com.code.session.AsyncSqlSession;
 import com.code.session.Configuration;
+import com.code.session.ExecutorType;
 import com.code.session.SqlSession;
 import com.code.session.SqlSessionFactory;
 import com.code.session.TransactionIsolationLevel;
@@ -26,13 +28,28 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
 
     @Override
     public SqlSession openSession() {
+        return openSession(configuration.getDefaultExecutorType());
+    }
+
+    @Override
+    public AsyncSqlSession openAsyncSession() {
+        return new DefaultAsyncSqlSession(configuration, this);
+    }
+
+    @Override
+    public void close() {
+        configuration.shutdownExecutors();
+    }
+
+    @Override
+    public SqlSession openSession(ExecutorType executorType) {
         Transaction transaction = null;
         try {
             final Environment environment = configuration.getEnvironment();
             TransactionFactory transactionFactory = environment.transactionFactory();
             transaction = transactionFactory.newTransaction(configuration.getEnvironment().dataSource(), TransactionIsolationLevel.READ_COMMITTED,false);
             // 创建执行器
-            final Executor executor = configuration.newExecutor(transaction);
+            final Executor executor = configuration.newExecutor(transaction, executorType);
             // 创建 DefaultSqlSession
             return new DefaultSqlSession(configuration,executor);
         } catch (Exception e){
@@ -0,0 +1,233 @@
+package com.code.session.defaults;
+
+import com.code.datasource.pool.PoolDataSource;
+import com.code.datasource.routing.RoutingDataSource;
+import com.code.mapping.MappedStatement;
+import com.code.mapping.SqlCommandType;
+import com.code.session.Configuration;
+import com.code.session.QuerySpec;
+import com.code.session.SqlSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并行查询器
+ * <p>
+ * 把多条相互独立的只读查询分发到各自的会话(即各自的池化连接)上并行执行，按提交顺序汇总结果，
+ * 总耗时由各查询耗时之和变为其中的最大值。所有查询共享同一个截止时间(未指定时为 {@link #DEFAULT_TIMEOUT})，
+ * 超时或任一查询失败时取消其余仍在执行的语句。
+ * 执行线程数与连接池容量一致，由所有会话共享；分发的查询数不超过连接池的空闲容量
+ *
+ * @author HeXin
+ * @date 2026/10/17
+ */
+public class ParallelSelector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelSelector.class);
+
+    /**
+     * 默认超时时间(毫秒)
+     */
+    public static final long DEFAULT_TIMEOUT = 30_000;
+
+    private final Configuration configuration;
+
+    private final DefaultSqlSessionFactory sqlSessionFactory;
+
+    /**
+     * 执行查询的线程池
+     */
+    private final ExecutorService executorService;
+
+    public ParallelSelector(Configuration configuration) {
+        this.configuration = configuration;
+        this.sqlSessionFactory = new DefaultSqlSessionFactory(configuration);
+        int concurrency = DefaultAsyncSqlSession.resolveConcurrency(configuration.getEnvironment().dataSource());
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "ParallelSelector-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        this.executorService = executor;
+    }
+
+    /**
+     * 并行执行查询
+     * <p>
+     * 第一条查询在调用方自己的会话(连接)上执行；其余查询分发到执行线程，数量不超过连接池当前的空闲容量，
+     * 分发不出去的同样在调用方会话上依次执行。调用方持有连接等待结果时，
+     * 分发出去的查询不会因为连接被调用方们占满而一直等待连接。
+     * 调用方会话上的查询受语句超时时间限制，执行完后按剩余的截止时间等待分发出去的查询
+     *
+     * @param caller  调用方会话
+     * @param specs   查询
+     * @param timeout 所有查询共享的超时时间(毫秒)，小于等于 0 时使用 {@link #DEFAULT_TIMEOUT}
+     * @return {@link List}<{@link List}<?>> 与 specs 顺序一致的查询结果
+     */
+    public List<List<?>> selectAll(SqlSession caller, List<QuerySpec> specs, long timeout) {
+        checkReadOnly(specs);
+        long effectiveTimeout = timeout > 0 ? timeout : DEFAULT_TIMEOUT;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(effectiveTimeout);
+        int fanOut = Math.min(specs.size() - 1, availableConnections());
+        List<List<?>> results = new ArrayList<>(Collections.nCopies(specs.size(), null));
+        List<Query> queries = new ArrayList<>(fanOut);
+        try {
+            for (int i = 1; i <= fanOut; i++) {
+                Query query = new Query(specs.get(i));
+                queries.add(query);
+                executorService.execute(query);
+            }
+            for (int i = 0; i < specs.size(); i++) {
+                if (i == 0 || i > fanOut) {
+                    QuerySpec spec = specs.get(i);
+                    results.set(i, caller.selectList(spec.getStatement(), spec.getParameter(), spec.getRowBounds()));
+                }
+            }
+            for (int i = 0; i < queries.size(); i++) {
+                results.set(i + 1, await(queries.get(i), deadline, effectiveTimeout));
+            }
+            return results;
+        } finally {
+            // 超时、失败或被中断时取消其余查询(已完成的查询不受影响)
+            for (Query query : queries) {
+                query.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 连接池当前可供分发的连接数(为调用方预留一个连接；读写分离时以主库为准)
+     *
+     * @return int 无法获知连接池容量时不限制
+     */
+    private int availableConnections() {
+        DataSource dataSource = configuration.getEnvironment().dataSource();
+        if (dataSource instanceof RoutingDataSource routingDataSource) {
+            dataSource = routingDataSource.getPrimary();
+        }
+        if (dataSource instanceof PoolDataSource pool) {
+            return Math.max(0, DefaultAsyncSqlSession.resolveConcurrency(pool) - pool.getActiveConnectionCount() - 1);
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * 校验所有查询均为 SELECT 语句
+     *
+     * @param specs 查询
+     */
+    void checkReadOnly(List<QuerySpec> specs) {
+        for (QuerySpec spec : specs) {
+            MappedStatement mappedStatement = configuration.getMappedStatement(spec.getStatement());
+            if (mappedStatement.getSqlCommandType() != SqlCommandType.SELECT) {
+                throw new RuntimeException("并行查询只允许 SELECT 语句，" + spec.getStatement() + " 的类型为 " + mappedStatement.getSqlCommandType());
+            }
+        }
+    }
+
+    /**
+     * 等待查询结果
+     *
+     * @param query    查询
+     * @param deadline 截止时间(纳秒)
+     * @param timeout  超时时间(毫秒，用于异常信息)
+     * @return {@link List}<{@link Object}>
+     */
+    private List<Object> await(Query query, long deadline, long timeout) {
+        try {
+            return query.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("并行查询超时(" + timeout + " ms)，未完成的查询：" + query.spec);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待并行查询结果时被中断：" + query.spec);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("并行查询 " + query.spec + " 时发生异常：" + cause, cause);
+        } catch (CancellationException e) {
+            throw new RuntimeException("并行查询已被取消：" + query.spec);
+        }
+    }
+
+    /**
+     * 关闭执行器(关闭会话工厂时调用)
+     */
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    public boolean isShutdown() {
+        return executorService.isShutdown();
+    }
+
+    /**
+     * 在独立会话上执行的一条查询：取消时中止正在执行的语句
+     */
+    private final class Query extends CompletableFuture<List<Object>> implements Runnable {
+
+        private final QuerySpec spec;
+
+        /**
+         * 正在执行该查询的会话
+         */
+        private volatile SqlSession sqlSession;
+
+        Query(QuerySpec spec) {
+            this.spec = spec;
+        }
+
+        @Override
+        public void run() {
+            if (isDone()) {
+                return;
+            }
+            try (SqlSession session = sqlSessionFactory.openSession()) {
+                sqlSession = session;
+                try {
+                    if (!isDone()) {
+                        complete(session.selectList(spec.getStatement(), spec.getParameter(), spec.getRowBounds()));
+                    }
+                } finally {
+                    sqlSession = null;
+                }
+            } catch (Throwable e) {
+                completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            SqlSession session = sqlSession;
+            if (cancelled && session != null) {
+                try {
+                    session.cancel();
+                } catch (RuntimeException e) {
+                    logger.warn("取消并行查询 {} 时发生错误", spec, e);
+                }
+            }
+            return cancelled;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.code.session.Configuration;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 
 /**
  * 类型处理器基类
@@ -18,6 +19,11 @@ public abstract class BaseTypeHandler<T> implements TypeHandler<T>{
 
     @Override
     public void setParameter(PreparedStatement preparedStatement, int i, T parameter, JdbcType jdbcType) throws SQLException {
+        // 空值直接设置为 NULL(例如插入时由数据库生成的自增主键)
+        if (parameter == null) {
+            preparedStatement.setNull(i, jdbcType == null ? Types.NULL : jdbcType.TYPE_CODE);
+            return;
+        }
         // 定义抽象方法，由其子类实现不同类型的属性设置
         setNonNullParameter(preparedStatement,i,parameter,jdbcType);
     }
@@ -1,16 +1,120 @@
 package com.code;
 
 import com.alibaba.fastjson.JSON;
+import com.code.builder.StaticSqlSource;
+import com.code.builder.xml.XMLConfigBuilder;
+import com.code.cache.Cache;
+import com.code.cache.CacheKey;
+import com.code.cache.Impl.ConcurrentCache;
+import com.code.cache.Impl.MappedFileCache;
+import com.code.cache.Impl.PerpetualCache;
+import com.code.cache.ResultSizeWeigher;
+import com.code.cache.decorator.BlockingCache;
+import com.code.cache.decorator.FIFOCache;
+import com.code.cache.decorator.FrequencySketch;
+import com.code.cache.decorator.LRUCache;
+import com.code.cache.decorator.TinyLFUCache;
+import com.code.cache.decorator.WeightedCache;
+import com.code.cursor.Cursor;
 import com.code.dao.TaskDao;
+import com.code.dao.UserDao;
+import com.code.datasource.pool.AdaptivePoolSizer;
+import com.code.datasource.pool.BagDataSource;
+import com.code.datasource.pool.PoolConnection;
+import com.code.datasource.pool.PoolDataSource;
+import com.code.datasource.pool.metrics.LatencyHistogram;
+import com.code.datasource.pool.metrics.MetricsTracker;
+import com.code.datasource.pool.metrics.PoolMetrics;
+import com.code.datasource.routing.RoutingDataSource;
+import com.code.entity.Task;
+import com.code.executor.BatchExecutorException;
+import com.code.executor.BatchResult;
+import com.code.executor.SingleFlight;
+import com.code.executor.statement.FetchSizeAdvisor;
+import com.code.executor.statement.StatementHandler;
+import com.code.entity.User;
 import com.code.io.Resources;
+import com.code.mapping.BoundSql;
+import com.code.mapping.CacheBuilder;
+import com.code.mapping.Environment;
+import com.code.mapping.MappedStatement;
+import com.code.mapping.ParameterMapping;
+import com.code.mapping.SqlCommandType;
+import com.code.plugin.Interceptor;
+import com.code.plugin.Intercepts;
+import com.code.plugin.Invocation;
+import com.code.plugin.Signature;
+import com.code.plugin.pagination.Dialect;
+import com.code.plugin.pagination.MySqlDialect;
+import com.code.plugin.pagination.PaginationInterceptor;
+import com.code.plugin.pagination.PostgreSqlDialect;
+import com.code.session.AsyncSqlSession;
+import com.code.session.Configuration;
+import com.code.session.ExecutorType;
+import com.code.session.KeysetRowBounds;
+import com.code.session.QuerySpec;
+import com.code.session.RowBounds;
 import com.code.session.SqlSession;
 import com.code.session.SqlSessionFactory;
 import com.code.session.SqlSessionFactoryBuilder;
+import com.code.session.defaults.AsyncGate;
+import com.code.session.defaults.DefaultAsyncSqlSession;
+import com.code.session.defaults.DefaultSqlSessionFactory;
+import com.code.session.defaults.ParallelSelector;
+import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.sql.BatchUpdateException;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class ORMFrameworkTest {
     private SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(Resources.getResourceAsReader("datasource.xml"));
@@ -28,4 +132,1683 @@ public class ORMFrameworkTest {
         System.out.println(JSON.toJSONString(taskDao2.getById(100001L)));
         sqlSession2.close();
     }
+
+    /**
+     * 连接池争用基准：多个线程同时反复签出/归还连接，对比 POOL 与 BAG 两种实现的吞吐量，
+     * 连接数远少于线程数时每次签出都应在等待时间内成功，没有线程饿死
+     */
+    @Test
+    public void poolContentionBenchmarkTest() throws Exception {
+        PoolDataSource pool = newStandIn();
+        BagDataSource bag = newBagStandIn();
+
+        System.out.println("POOL 吞吐量：" + runContention(pool, 200, 50) + " 次/秒");
+        System.out.println("BAG 吞吐量：" + runContention(bag, 200, 50) + " 次/秒");
+        pool.forceCloseAll();
+        bag.forceCloseAll();
+    }
+
+    private long runContention(PoolDataSource dataSource, int threads, int iterations) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicLong checkouts = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < iterations; j++) {
+                        try (Connection connection = dataSource.getConnection()) {
+                            connection.getAutoCommit();
+                            checkouts.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                    System.err.println("获取连接失败：" + e.getMessage());
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = Math.max(1, System.nanoTime() - begin);
+        Assert.assertEquals(0, failures.get());
+        Assert.assertEquals((long) threads * iterations, checkouts.get());
+        Assert.assertEquals(0, dataSource.getActiveConnectionCount());
+        return checkouts.get() * 1_000_000_000L / elapsed;
+    }
+
+    /**
+     * 归还后仍被调用方保留的连接句柄不能再访问物理连接，重复关闭也不会把下一个使用者的连接放回连接池
+     */
+    @Test
+    public void staleConnectionHandleTest() throws Exception {
+        PoolDataSource pool = newStandIn();
+        BagDataSource bag = newBagStandIn();
+        for (PoolDataSource dataSource : new PoolDataSource[]{pool, bag}) {
+            dataSource.setPoolMaximumActiveConnections(1);
+            Connection stale = dataSource.getConnection();
+            stale.close();
+            try (Connection current = dataSource.getConnection()) {
+                // 同一个物理连接，新的句柄
+                Assert.assertEquals(PoolDataSource.unwrapConnection(stale), PoolDataSource.unwrapConnection(current));
+                Assert.assertTrue(stale.isClosed());
+                try {
+                    stale.setAutoCommit(false);
+                    Assert.fail("已归还的连接句柄应当不能再使用");
+                } catch (SQLException e) {
+                    System.out.println(e.getMessage());
+                }
+                stale.close();
+                Assert.assertEquals(1, dataSource.getActiveConnectionCount());
+                Assert.assertTrue(current.getAutoCommit());
+            }
+            Assert.assertEquals(0, dataSource.getActiveConnectionCount());
+            dataSource.close();
+        }
+    }
+
+    /**
+     * 连接被淘汰(而非归还)空出名额时，等待线程立即拿到新建的连接，而不是一直等到超时
+     */
+    @Test
+    public void bagWaiterRefillTest() throws Exception {
+        BagDataSource bag = newBagStandIn();
+        bag.setPoolMaximumActiveConnections(1);
+        bag.setPoolTimeToWait(10_000);
+        bag.setMaxLifetime(200);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Connection holder = bag.getConnection();
+            Future<Long> waiter = executor.submit(() -> {
+                long start = System.currentTimeMillis();
+                try (Connection connection = bag.getConnection()) {
+                    connection.getAutoCommit();
+                }
+                return System.currentTimeMillis() - start;
+            });
+            Assert.assertTrue(waitUntil(() -> bag.getWaitingThreadCount() == 1, 5000));
+            Thread.sleep(300);
+            // 连接已超过最大存活时间，归还时被关闭
+            holder.close();
+            long waited = waiter.get(20, TimeUnit.SECONDS);
+            System.out.println("等待线程在 " + waited + " 毫秒后拿到连接");
+            Assert.assertTrue(waited < 5000);
+        } finally {
+            executor.shutdown();
+            bag.close();
+        }
+    }
+
+    /**
+     * 预热：阻塞等待初始连接全部创建，之后的签出直接使用空闲连接，连接数统计与签出/归还一致
+     */
+    @Test
+    public void poolWarmUpTest() throws Exception {
+        PoolDataSource pool = newStandIn();
+        BagDataSource bag = newBagStandIn();
+        for (PoolDataSource dataSource : new PoolDataSource[]{pool, bag}) {
+            dataSource.setPoolMaximumActiveConnections(3);
+            dataSource.setPoolMaximumIdleConnections(3);
+            // 初始连接数不超过最大连接数
+            dataSource.setInitialSize(10);
+            try {
+                Assert.assertTrue(dataSource.warmUp(Duration.ofSeconds(10)));
+                Assert.assertEquals(3, dataSource.getIdleConnectionCount());
+                Assert.assertEquals(0, dataSource.getActiveConnectionCount());
+                try (Connection connection = dataSource.getConnection()) {
+                    connection.getAutoCommit();
+                    Assert.assertEquals(2, dataSource.getIdleConnectionCount());
+                    Assert.assertEquals(1, dataSource.getActiveConnectionCount());
+                }
+                Assert.assertEquals(3, dataSource.getIdleConnectionCount());
+                Assert.assertEquals(0, dataSource.getActiveConnectionCount());
+            } finally {
+                dataSource.close();
+            }
+        }
+    }
+
+    /**
+     * 后台维护：保活期间的连接计入连接总数，保活通过后放回空闲列表；超过最大存活时间的空闲连接被关闭
+     */
+    @Test
+    public void housekeepingTest() throws Exception {
+        PoolDataSource template = newStandIn();
+        SlowKeepalivePool pool = new SlowKeepalivePool();
+        pool.setDriver(template.getDriver());
+        pool.setUrl(template.getUrl());
+        pool.setUsername(template.getUsername());
+        pool.setPassword(template.getPassword());
+        pool.setPoolMaximumActiveConnections(1);
+        pool.setPoolTimeToWait(10_000);
+        pool.setKeepaliveTime(100);
+        pool.setHousekeepingPeriod(50);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Connection first = pool.getConnection();
+            Connection realConnection = PoolDataSource.unwrapConnection(first);
+            first.close();
+            Assert.assertTrue(pool.pinging.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, pool.getKeepaliveConnectionCount());
+            // 唯一的连接正在保活，新的请求只能等待，不能再新建连接
+            Future<Connection> waiter = executor.submit(() -> {
+                try (Connection connection = pool.getConnection()) {
+                    return PoolDataSource.unwrapConnection(connection);
+                }
+            });
+            Assert.assertTrue(waitUntil(() -> pool.getWaitingThreadCount() == 1, 5000));
+            Assert.assertEquals(0, pool.getActiveConnectionCount() + pool.getIdleConnectionCount());
+            pool.resume.countDown();
+            Assert.assertSame(realConnection, waiter.get(20, TimeUnit.SECONDS));
+            Assert.assertEquals(1, pool.created.get());
+        } finally {
+            pool.resume.countDown();
+            executor.shutdown();
+            pool.close();
+        }
+
+        PoolDataSource expiring = newStandIn();
+        expiring.setMaxLifetime(200);
+        expiring.setHousekeepingPeriod(50);
+        try {
+            Connection first = expiring.getConnection();
+            Connection realConnection = PoolDataSource.unwrapConnection(first);
+            first.close();
+            Assert.assertEquals(1, expiring.getIdleConnectionCount());
+            // 过期连接先移出空闲列表，再在锁外关闭
+            Assert.assertTrue(waitUntil(() -> {
+                try {
+                    return realConnection.isClosed();
+                } catch (SQLException e) {
+                    return false;
+                }
+            }, 5000));
+            Assert.assertEquals(0, expiring.getIdleConnectionCount());
+            try (Connection second = expiring.getConnection()) {
+                Assert.assertNotSame(realConnection, PoolDataSource.unwrapConnection(second));
+            }
+        } finally {
+            expiring.close();
+        }
+    }
+
+    /**
+     * 泄漏检测：签出超过阈值的连接被报告(附带签出位置)，逾期后被连接池强制收回，泄漏的句柄不能再使用
+     */
+    @Test
+    public void connectionLeakTest() throws Exception {
+        PoolDataSource pool = newStandIn();
+        pool.setPoolMaximumActiveConnections(1);
+        pool.setPoolMaximumCheckoutTime(300);
+        pool.setPoolTimeToWait(100);
+        pool.setLeakDetectionThreshold(100);
+        pool.setHousekeepingPeriod(50);
+        List<Object[]> leaks = new CopyOnWriteArrayList<>();
+        pool.setLeakListener((connection, checkoutTime, reclaimed) ->
+                leaks.add(new Object[]{connection.getCheckoutSite(), connection.getCheckoutThread(), reclaimed}));
+        try {
+            Connection leaked = pool.getConnection();
+            Assert.assertTrue(waitUntil(() -> !leaks.isEmpty(), 5000));
+            Object[] reported = leaks.get(0);
+            Assert.assertNotNull(reported[0]);
+            Assert.assertEquals(Thread.currentThread().getName(), reported[1]);
+            Assert.assertEquals(false, reported[2]);
+            // 同一次签出只报告一次
+            Thread.sleep(200);
+            Assert.assertEquals(1, leaks.size());
+
+            try (Connection connection = pool.getConnection()) {
+                Assert.assertEquals(PoolDataSource.unwrapConnection(leaked), PoolDataSource.unwrapConnection(connection));
+                Assert.assertEquals(2, leaks.size());
+                Assert.assertEquals(true, leaks.get(1)[2]);
+                try {
+                    leaked.getAutoCommit();
+                    Assert.fail("被强制收回的连接句柄应当不能再使用");
+                } catch (SQLException e) {
+                    System.out.println(e.getMessage());
+                }
+            }
+            Assert.assertEquals(0, pool.getActiveConnectionCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * 连接池指标：直方图的百分位误差在分桶精度内；签出、新建、超时同时记入内置指标、外部收集器与 JMX
+     */
+    @Test
+    public void poolMetricsTest() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1000, histogram.getMax());
+        Assert.assertEquals(500.5, histogram.getMean(), 0.001);
+        // 对数-线性分桶的相对误差不超过 1/16
+        Assert.assertEquals(500, histogram.getPercentile(50), 500 / 16.0);
+        Assert.assertEquals(990, histogram.getPercentile(99), 990 / 16.0);
+        Assert.assertEquals(1000, histogram.getPercentile(100));
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(99));
+
+        PoolDataSource pool = newStandIn();
+        AtomicInteger acquired = new AtomicInteger();
+        AtomicInteger timeouts = new AtomicInteger();
+        pool.setMetricsTracker(new MetricsTracker() {
+            @Override
+            public void recordConnectionAcquired(long elapsedNanos) {
+                acquired.incrementAndGet();
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.incrementAndGet();
+            }
+        });
+        pool.setPoolName("metrics-test-" + System.nanoTime());
+        pool.setRegisterMbeans(true);
+        pool.setPoolMaximumActiveConnections(1);
+        pool.setPoolMaximumWaitingThreads(0);
+        ObjectName name = new ObjectName("com.code.datasource.pool:type=PoolMetrics,name=" + ObjectName.quote(pool.getPoolName()));
+        try {
+            for (int i = 0; i < 3; i++) {
+                try (Connection connection = pool.getConnection()) {
+                    connection.getAutoCommit();
+                }
+            }
+            try (Connection connection = pool.getConnection()) {
+                connection.getAutoCommit();
+                // 唯一的连接已被签出且不允许等待，直接失败并记为超时
+                pool.getConnection();
+                Assert.fail("连接池已满时应当拒绝请求");
+            } catch (SQLException e) {
+                System.out.println(e.getMessage());
+            }
+            PoolMetrics metrics = pool.getMetrics();
+            Assert.assertEquals(4, metrics.getConnectionAcquiredCount());
+            Assert.assertEquals(1, metrics.getConnectionCreatedCount());
+            Assert.assertEquals(1, metrics.getConnectionTimeoutCount());
+            Assert.assertEquals(4, metrics.getUsageHistogram().getCount());
+            Assert.assertEquals(4, acquired.get());
+            Assert.assertEquals(1, timeouts.get());
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Assert.assertEquals(4L, server.getAttribute(name, "ConnectionAcquiredCount"));
+            Assert.assertEquals(1, server.getAttribute(name, "IdleConnections"));
+        } finally {
+            pool.close();
+        }
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    /**
+     * 自适应容量：连接全部占用连续两个周期后扩容，利用率持续偏低六个周期后缩容；
+     * 后台维护线程运行后再开启自适应容量也会开始调整
+     */
+    @Test
+    public void adaptivePoolSizingTest() throws Exception {
+        PoolDataSource pool = newStandIn();
+        pool.setPoolMaximumActiveConnections(2);
+        pool.setAdaptiveMinConnections(1);
+        pool.setAdaptiveMaxConnections(4);
+        try {
+            Connection first = pool.getConnection();
+            Connection second = pool.getConnection();
+            AdaptivePoolSizer sizer = new AdaptivePoolSizer(pool);
+            sizer.adjust();
+            Assert.assertEquals(2, pool.getPoolMaximumActiveConnections());
+            sizer.adjust();
+            Assert.assertEquals(3, pool.getPoolMaximumActiveConnections());
+            first.close();
+            second.close();
+            for (int i = 0; i < 5; i++) {
+                sizer.adjust();
+            }
+            Assert.assertEquals(3, pool.getPoolMaximumActiveConnections());
+            sizer.adjust();
+            Assert.assertEquals(2, pool.getPoolMaximumActiveConnections());
+        } finally {
+            pool.close();
+        }
+
+        PoolDataSource lazy = newStandIn();
+        lazy.setPoolMaximumActiveConnections(1);
+        lazy.setAdaptiveMinConnections(1);
+        lazy.setAdaptiveMaxConnections(3);
+        lazy.setAdaptiveSizingPeriod(50);
+        lazy.setKeepaliveTime(60_000);
+        lazy.setHousekeepingPeriod(50);
+        try (Connection connection = lazy.getConnection()) {
+            Assert.assertNotNull(connection);
+            // 后台维护线程已由保活启动，此时开启自适应容量
+            lazy.setAdaptiveSizing(true);
+            Assert.assertTrue(waitUntil(() -> lazy.getPoolMaximumActiveConnections() > 1, 5000));
+            lazy.setAdaptiveSizing(false);
+        } finally {
+            lazy.close();
+        }
+    }
+
+    /**
+     * 预处理语句缓存：关闭后复用同一个真实语句并恢复默认选项，超出容量时关闭最久未使用的语句，
+     * 归还连接时调用方未关闭的语句随之关闭并放回缓存
+     */
+    @Test
+    public void statementCacheTest() throws Exception {
+        PoolDataSource pool = newStandIn();
+        pool.setPoolMaximumActiveConnections(1);
+        pool.setPreparedStatementCacheSize(2);
+        try {
+            PreparedStatement first;
+            PreparedStatement unclosed;
+            try (Connection connection = pool.getConnection()) {
+                first = connection.prepareStatement("select 1");
+                PreparedStatement realFirst = first.unwrap(PreparedStatement.class);
+                first.setMaxRows(5);
+                first.close();
+                Assert.assertTrue(first.isClosed());
+                Assert.assertFalse(realFirst.isClosed());
+
+                PreparedStatement reused = connection.prepareStatement("select 1");
+                Assert.assertSame(realFirst, reused.unwrap(PreparedStatement.class));
+                Assert.assertEquals(0, reused.getMaxRows());
+                Assert.assertEquals(1, pool.getStatementCacheHitCount());
+                reused.close();
+
+                // 容量为 2，放回第三个语句时淘汰最久未使用的 select 1
+                PreparedStatement second = connection.prepareStatement("select 2");
+                PreparedStatement third = connection.prepareStatement("select 3");
+                second.close();
+                third.close();
+                Assert.assertTrue(realFirst.isClosed());
+
+                unclosed = connection.prepareStatement("select 4");
+            }
+            Assert.assertTrue(unclosed.isClosed());
+            long hits = pool.getStatementCacheHitCount();
+            // 旧签出上的语句重复关闭不会再改动缓存
+            unclosed.close();
+            first.close();
+            try (Connection connection = pool.getConnection()) {
+                PreparedStatement statement = connection.prepareStatement("select 4");
+                Assert.assertFalse(statement.unwrap(PreparedStatement.class).isClosed());
+                Assert.assertEquals(hits + 1, pool.getStatementCacheHitCount());
+                statement.close();
+            }
+            Assert.assertEquals(4, pool.getStatementCacheMissCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * 保活检测阻塞到测试放行为止的连接池
+     */
+    private static class SlowKeepalivePool extends PoolDataSource {
+
+        private final CountDownLatch pinging = new CountDownLatch(1);
+
+        private final CountDownLatch resume = new CountDownLatch(1);
+
+        private final AtomicInteger created = new AtomicInteger();
+
+        @Override
+        protected PoolConnection newPoolConnection() throws SQLException {
+            created.incrementAndGet();
+            return super.newPoolConnection();
+        }
+
+        @Override
+        protected boolean keepaliveConnection(PoolConnection connection) {
+            pinging.countDown();
+            try {
+                resume.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.keepaliveConnection(connection);
+        }
+    }
+
+    /**
+     * 虚拟线程压测：10000 个虚拟线程争抢只有 5 个连接的连接池
+     * 连接池等待基于 ReentrantLock/Condition，等待中的虚拟线程会让出载体线程，
+     * 可配合 -Djdk.tracePinnedThreads=full 运行，确认没有钉住载体线程的堆栈输出(运行环境不支持虚拟线程时跳过)
+     */
+    @Test
+    public void virtualThreadStressTest() throws Exception {
+        ExecutorService executor;
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            Assume.assumeTrue("当前运行环境不支持虚拟线程", false);
+            return;
+        }
+        PoolDataSource pool = newStandIn();
+        pool.setPoolMaximumActiveConnections(5);
+        pool.setPoolMaximumIdleConnections(5);
+
+        List<Future<?>> futures = new ArrayList<>();
+        AtomicLong checkouts = new AtomicLong();
+        AtomicLong rejections = new AtomicLong();
+        for (int i = 0; i < 10000; i++) {
+            futures.add(executor.submit(() -> {
+                try (Connection connection = pool.getConnection()) {
+                    connection.getAutoCommit();
+                    checkouts.incrementAndGet();
+                } catch (SQLException e) {
+                    // 等待线程数达到上限时直接拒绝，而不是无限堆积
+                    rejections.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        pool.forceCloseAll();
+        System.out.println("签出：" + checkouts.get() + "，拒绝：" + rejections.get() + "，等待线程峰值：" + pool.getPeakWaitingThreadCount());
+        Assert.assertEquals(10000, checkouts.get() + rejections.get());
+        Assert.assertTrue(checkouts.get() > 0);
+        Assert.assertEquals(PoolDataSource.DEFAULT_MAXIMUM_WAITING_THREADS, pool.getPoolMaximumWaitingThreads());
+        Assert.assertTrue(pool.getPeakWaitingThreadCount() <= PoolDataSource.DEFAULT_MAXIMUM_WAITING_THREADS);
+    }
+
+    /**
+     * 代理连接调用开销对比：java.lang.reflect.Proxy 反射转发与手写委托类
+     * (未引入 JMH，这里在预热后用循环粗略测量每次调用的平均耗时)
+     */
+    @Test
+    public void connectionDispatchBenchmarkTest() throws Exception {
+        PoolDataSource pool = (PoolDataSource) new XMLConfigBuilder(Resources.getResourceAsReader("datasource.xml")).parse().getEnvironment().dataSource();
+        try (Connection delegate = pool.getConnection()) {
+            Connection realConnection = PoolDataSource.unwrapConnection(delegate);
+            Connection reflective = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> method.invoke(realConnection, args));
+            // 池化连接不再经过动态代理转发
+            Assert.assertFalse(Proxy.isProxyClass(delegate.getClass()));
+            // 前几轮用于预热
+            for (int round = 0; round < 5; round++) {
+                System.out.println("第 " + round + " 轮  Proxy 反射转发：" + measureDispatch(reflective, 1_000_000)
+                        + " ns/次，手写委托：" + measureDispatch(delegate, 1_000_000) + " ns/次");
+            }
+        }
+        pool.forceCloseAll();
+    }
+
+    /**
+     * 池化连接创建的各类语句都经过包装：getConnection 返回代理连接，归还连接时未关闭的语句随之关闭
+     */
+    @Test
+    public void proxyStatementTest() throws Exception {
+        PoolDataSource pool = newStandIn();
+        pool.setPoolMaximumActiveConnections(1);
+        List<Statement> statements = new ArrayList<>();
+        try {
+            try (Connection connection = pool.getConnection()) {
+                statements.add(connection.createStatement());
+                statements.add(connection.prepareStatement("select 1"));
+                statements.add(connection.prepareStatement("select 1", new int[]{1}));
+                statements.add(connection.prepareCall("{call noop()}"));
+                for (Statement statement : statements) {
+                    Assert.assertSame(connection, statement.getConnection());
+                    Assert.assertFalse(statement.isClosed());
+                }
+                statements.get(0).close();
+                Assert.assertTrue(statements.get(0).isClosed());
+                Assert.assertTrue(statements.get(0).unwrap(Statement.class).isClosed());
+            }
+            for (Statement statement : statements) {
+                Assert.assertTrue(statement.isClosed());
+                try {
+                    statement.getConnection();
+                    Assert.fail("已关闭的 statement 应当不能再使用");
+                } catch (SQLException e) {
+                    System.out.println(e.getMessage());
+                }
+            }
+            Assert.assertTrue(statements.get(3).unwrap(CallableStatement.class).isClosed());
+        } finally {
+            pool.close();
+        }
+    }
+
+    private double measureDispatch(Connection connection, int calls) throws SQLException {
+        int sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            if (connection.getAutoCommit()) {
+                sink++;
+            }
+        }
+        double nanosPerCall = (double) (System.nanoTime() - start) / calls;
+        // 使用结果，避免循环被 JIT 消除；两种转发方式的结果应当一致
+        Assert.assertEquals(connection.getAutoCommit() ? calls : 0, sink);
+        return nanosPerCall;
+    }
+
+    /**
+     * 读写分离路由：主库与两个从库都指向本地库作为替身，验证查询走从库、写入及写入后的查询留在主库
+     */
+    @Test
+    public void routingDataSourceTest() throws Exception {
+        RoutingDataSource routing = new RoutingDataSource();
+        routing.setPrimary(newStandIn());
+        routing.addReplica(newStandIn());
+        routing.addReplica(newStandIn());
+
+        try (Connection first = routing.getConnection(); Connection second = routing.getConnection()) {
+            first.setAutoCommit(false);
+            Connection read = RoutingDataSource.route(first, SqlCommandType.SELECT);
+            // 两个会话各自占用一个从库连接，按未归还连接数最少分散到不同从库
+            Assert.assertEquals(1, routing.getReplicas().get(0).getOutstanding());
+            RoutingDataSource.route(second, SqlCommandType.SELECT);
+            Assert.assertEquals(1, routing.getReplicas().get(1).getOutstanding());
+
+            Connection write = RoutingDataSource.route(first, SqlCommandType.UPDATE);
+            Assert.assertNotSame(read, write);
+            Assert.assertSame(write, RoutingDataSource.route(first, SqlCommandType.SELECT));
+            first.commit();
+            Assert.assertSame(read, RoutingDataSource.route(first, SqlCommandType.SELECT));
+
+            // 语句本身的错误不摘除从库；连接类错误摘除从库，之后的查询换到另一个从库
+            RoutingDataSource.reportFailure(first, new SQLSyntaxErrorException("syntax error", "42000"));
+            Assert.assertFalse(routing.getReplicas().get(0).isEjected());
+            RoutingDataSource.reportFailure(first, new SQLNonTransientConnectionException("Communications link failure", "08S01"));
+            Assert.assertTrue(routing.getReplicas().get(0).isEjected());
+            Assert.assertEquals(0, routing.getReplicas().get(0).getOutstanding());
+            Assert.assertNotSame(read, RoutingDataSource.route(first, SqlCommandType.SELECT));
+            Assert.assertEquals(2, routing.getReplicas().get(1).getOutstanding());
+        }
+        Assert.assertEquals(0, routing.getReplicas().get(0).getOutstanding());
+        Assert.assertEquals(0, routing.getReplicas().get(1).getOutstanding());
+    }
+
+    /**
+     * 从库不可用时查询回退到主库，被摘除的从库在摘除时间内不再尝试，到期后重新参与路由
+     */
+    @Test
+    public void routingFallbackTest() throws Exception {
+        RoutingDataSource routing = new RoutingDataSource();
+        routing.setPrimary(newStandIn());
+        PoolDataSource replica = newStandIn();
+        String url = replica.getUrl();
+        replica.setUrl("jdbc:unreachable:replica");
+        routing.addReplica(replica);
+        routing.setEjectionTime(300);
+        RoutingDataSource.Replica status = routing.getReplicas().get(0);
+
+        try (Connection connection = routing.getConnection()) {
+            Connection read = RoutingDataSource.route(connection, SqlCommandType.SELECT);
+            // 唯一的从库获取连接失败被摘除，查询与写入使用同一个主库连接
+            Assert.assertTrue(status.isEjected());
+            Assert.assertSame(read, RoutingDataSource.route(connection, SqlCommandType.UPDATE));
+            Assert.assertEquals(0, status.getOutstanding());
+        }
+
+        replica.setUrl(url);
+        try (Connection connection = routing.getConnection()) {
+            // 从库已恢复，但仍在摘除期内
+            Assert.assertSame(RoutingDataSource.route(connection, SqlCommandType.UPDATE), RoutingDataSource.route(connection, SqlCommandType.SELECT));
+            Assert.assertEquals(0, status.getOutstanding());
+        }
+
+        Assert.assertTrue(waitUntil(() -> !status.isEjected(), 5000));
+        try (Connection connection = routing.getConnection()) {
+            Connection read = RoutingDataSource.route(connection, SqlCommandType.SELECT);
+            Assert.assertNotSame(read, RoutingDataSource.route(connection, SqlCommandType.UPDATE));
+            Assert.assertEquals(1, status.getOutstanding());
+        }
+        Assert.assertEquals(0, status.getOutstanding());
+    }
+
+    /**
+     * 游标遍历 500 万行：每 100 万行 GC 后采样一次堆占用，增长应远小于把结果全部装入 List 所需的内存
+     * (MySQL 驱动默认会把整个结果集读入客户端，这里开启 useCursorFetch 让驱动按 fetchSize 分批读取)
+     */
+    @Test
+    public void cursorStreamingTest() throws Exception {
+        Configuration configuration = new XMLConfigBuilder(Resources.getResourceAsReader("datasource.xml")).parse();
+        PoolDataSource dataSource = (PoolDataSource) configuration.getEnvironment().dataSource();
+        dataSource.setUrl(dataSource.getUrl() + "&useCursorFetch=true");
+        SqlSessionFactory factory = new DefaultSqlSessionFactory(configuration);
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long baseline = runtime.totalMemory() - runtime.freeMemory();
+        long peak = 0;
+        long count = 0;
+        try (SqlSession sqlSession = factory.openSession();
+             Cursor<Long> cursor = sqlSession.getMapper(TaskDao.class).scanSequence()) {
+            for (Long value : cursor) {
+                if (++count % 1_000_000 == 0) {
+                    System.gc();
+                    peak = Math.max(peak, runtime.totalMemory() - runtime.freeMemory() - baseline);
+                }
+            }
+            Assert.assertTrue(cursor.isConsumed());
+        }
+        System.out.println("游标遍历 " + count + " 行，堆占用峰值增长：" + peak / 1024 / 1024 + " MB");
+        Assert.assertEquals(5_000_000, count);
+        Assert.assertTrue(peak < 64L * 1024 * 1024);
+    }
+
+    /**
+     * 取消会话时一并取消遍历中的游标语句，游标关闭后不再取消
+     */
+    @Test
+    public void cursorCancelTest() throws Exception {
+        Configuration configuration = new XMLConfigBuilder(Resources.getResourceAsReader("datasource.xml")).parse();
+        PoolDataSource dataSource = (PoolDataSource) configuration.getEnvironment().dataSource();
+        dataSource.setUrl(dataSource.getUrl() + "&useCursorFetch=true");
+        CancelRecorder recorder = new CancelRecorder();
+        configuration.addInterceptor(recorder);
+        SqlSessionFactory factory = new DefaultSqlSessionFactory(configuration);
+
+        try (SqlSession sqlSession = factory.openSession()) {
+            try (Cursor<Long> cursor = sqlSession.getMapper(TaskDao.class).scanSequence()) {
+                Assert.assertTrue(cursor.iterator().hasNext());
+                sqlSession.cancel();
+                Assert.assertEquals(1, recorder.cancels.get());
+            }
+            sqlSession.cancel();
+            Assert.assertEquals(1, recorder.cancels.get());
+        }
+    }
+
+    /**
+     * 统计语句被取消的次数
+     */
+    @Intercepts({@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class})})
+    public static class CancelRecorder implements Interceptor {
+
+        private final AtomicInteger cancels = new AtomicInteger();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            Statement statement = (Statement) invocation.proceed();
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{PreparedStatement.class}, (proxy, method, args) -> {
+                if ("cancel".equals(method.getName())) {
+                    cancels.incrementAndGet();
+                }
+                try {
+                    return method.invoke(statement, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+
+    @Test
+    public void resultHandlerAggregationTest() throws Exception {
+        Configuration configuration = new XMLConfigBuilder(Resources.getResourceAsReader("datasource.xml")).parse();
+        PoolDataSource dataSource = (PoolDataSource) configuration.getEnvironment().dataSource();
+        dataSource.setUrl(dataSource.getUrl() + "&useCursorFetch=true");
+        SqlSessionFactory factory = new DefaultSqlSessionFactory(configuration);
+
+        try (SqlSession sqlSession = factory.openSession()) {
+            // 逐行累加，不构建结果列表
+            long[] sum = new long[2];
+            sqlSession.select("com.code.dao.TaskDao.scanSequence", null, context -> {
+                sum[0]++;
+                sum[1] += (Long) context.getResultObject();
+            });
+            System.out.println("结果处理器聚合 " + sum[0] + " 行，总和：" + sum[1]);
+            Assert.assertEquals(5_000_000, sum[0]);
+
+            // 处理到第 100 行时提前结束
+            long[] count = new long[1];
+            sqlSession.select("com.code.dao.TaskDao.scanSequence", null, context -> {
+                if (++count[0] == 100) {
+                    context.stop();
+                }
+            });
+            Assert.assertEquals(100, count[0]);
+        }
+    }
+
+    /**
+     * 并行执行多条独立查询，结果顺序与逐条执行一致
+     */
+    @Test
+    public void selectAllTest() {
+        List<QuerySpec> specs = new ArrayList<>();
+        for (long taskId = 100001; taskId <= 100005; taskId++) {
+            specs.add(QuerySpec.of("com.code.dao.TaskDao.getById", taskId));
+        }
+        // 带行范围的小表查询(跳过的行在客户端逐行读取，不能用大结果集)
+        specs.add(QuerySpec.of("com.code.dao.UserDao.getList", null, new RowBounds(1, 2)));
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            long start = System.currentTimeMillis();
+            List<List<?>> results = sqlSession.selectAll(specs, 5000);
+            System.out.println("并行执行 " + specs.size() + " 条查询耗时：" + (System.currentTimeMillis() - start) + " ms");
+            Assert.assertEquals(specs.size(), results.size());
+            for (int i = 0; i < specs.size(); i++) {
+                QuerySpec spec = specs.get(i);
+                Assert.assertEquals(JSON.toJSONString(sqlSession.selectList(spec.getStatement(), spec.getParameter(), spec.getRowBounds())),
+                        JSON.toJSONString(results.get(i)));
+            }
+        }
+    }
+
+    /**
+     * 关闭会话工厂时停止所有会话共享的并行查询与异步执行线程
+     */
+    @Test
+    public void sessionFactoryCloseTest() {
+        Configuration configuration = new XMLConfigBuilder(Resources.getResourceAsReader("datasource.xml")).parse();
+        ParallelSelector selector;
+        AsyncGate gate;
+        try (SqlSessionFactory factory = new DefaultSqlSessionFactory(configuration)) {
+            try (SqlSession sqlSession = factory.openSession()) {
+                sqlSession.selectAll(List.of(QuerySpec.of("com.code.dao.TaskDao.getById", 100001L),
+                        QuerySpec.of("com.code.dao.TaskDao.getById", 100002L)));
+            }
+            selector = configuration.getParallelSelector();
+            gate = configuration.getAsyncGate();
+            Assert.assertFalse(selector.isShutdown());
+            Assert.assertFalse(gate.isShutdown());
+        }
+        Assert.assertTrue(selector.isShutdown());
+        Assert.assertTrue(gate.isShutdown());
+        // 再次使用时重新创建
+        Assert.assertNotSame(selector, configuration.getParallelSelector());
+        configuration.shutdownExecutors();
+    }
+
+    /**
+     * 批量保存用户：集合参数展开为多行 INSERT 语句，超出参数个数上限时分块执行，自增主键回填到每个用户
+     */
+    @Test
+    public void multiRowInsertTest() throws IOException {
+        // 每行 4 个参数，参数上限为 8 时每条语句最多 2 行，5 个用户分 3 条语句执行
+        String xml;
+        try (BufferedReader reader = new BufferedReader(Resources.getResourceAsReader("datasource.xml"))) {
+            xml = reader.lines().collect(Collectors.joining("\n"));
+        }
+        xml = xml.replace("<settings>", "<settings>\n<setting name=\"useGeneratedKeys\" value=\"true\"/>\n<setting name=\"multiRowInsertMaxParameters\" value=\"8\"/>");
+        Configuration configuration = new XMLConfigBuilder(new StringReader(xml)).parse();
+        SqlRecorder recorder = new SqlRecorder();
+        configuration.addInterceptor(recorder);
+        SqlSessionFactory factory = new DefaultSqlSessionFactory(configuration);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = new User();
+            user.setUsername("multi-row-" + i);
+            user.setPassword("123456");
+            user.setAvatar("avatar");
+            users.add(user);
+        }
+        try (SqlSession sqlSession = factory.openSession()) {
+            UserDao userDao = sqlSession.getMapper(UserDao.class);
+            Assert.assertEquals(5, userDao.saveAll(users));
+
+            List<String> inserts = recorder.sqls.stream().filter(sql -> sql.startsWith("INSERT")).collect(Collectors.toList());
+            Assert.assertEquals(3, inserts.size());
+            Assert.assertEquals(8, countPlaceholders(inserts.get(0)));
+            Assert.assertEquals(8, countPlaceholders(inserts.get(1)));
+            Assert.assertEquals(4, countPlaceholders(inserts.get(2)));
+
+            Long previous = null;
+            for (User user : users) {
+                Assert.assertNotNull(user.getId());
+                if (previous != null) {
+                    Assert.assertTrue(user.getId() > previous);
+                }
+                previous = user.getId();
+                Assert.assertEquals(user.getUsername(), userDao.getUserById(user.getId()).getUsername());
+            }
+            // 不提交，关闭会话时回滚
+        }
+    }
+
+    private int countPlaceholders(String sql) {
+        return (int) sql.chars().filter(c -> c == '?').count();
+    }
+
+    /**
+     * 记录每条准备执行的 SQL
+     */
+    @Intercepts({@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class})})
+    public static class SqlRecorder implements Interceptor {
+
+        private final List<String> sqls = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            sqls.add(((StatementHandler) invocation.getTarget()).getBoundsql().getSql().trim());
+            return invocation.proceed();
+        }
+    }
+
+    /**
+     * 复用执行器：同一条 SQL 在会话内只准备一次，语句在提交和关闭会话时关闭
+     */
+    @Test
+    public void reuseExecutorTest() throws SQLException {
+        Configuration configuration = new XMLConfigBuilder(Resources.getResourceAsReader("datasource.xml")).parse();
+        StatementRecorder recorder = new StatementRecorder();
+        configuration.addInterceptor(recorder);
+        SqlSessionFactory factory = new DefaultSqlSessionFactory(configuration);
+
+        Statement second;
+        try (SqlSession sqlSession = factory.openSession(ExecutorType.REUSE)) {
+            // 参数不同，绕过一级缓存
+            sqlSession.selectList("com.code.dao.TaskDao.getById", 100001L);
+            sqlSession.selectList("com.code.dao.TaskDao.getById", 100002L);
+            Assert.assertEquals(1, recorder.statements.size());
+            Statement first = recorder.statements.get(0);
+            Assert.assertFalse(first.isClosed());
+
+            sqlSession.commit();
+            Assert.assertTrue(first.isClosed());
+
+            sqlSession.selectList("com.code.dao.TaskDao.getById", 100003L);
+            Assert.assertEquals(2, recorder.statements.size());
+            second = recorder.statements.get(1);
+            Assert.assertNotSame(first, second);
+            Assert.assertFalse(second.isClosed());
+        }
+        Assert.assertTrue(second.isClosed());
+    }
+
+    /**
+     * 记录每个新准备的语句
+     */
+    @Intercepts({@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class})})
+    public static class StatementRecorder implements Interceptor {
+
+        private final List<Statement> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            Statement statement = (Statement) invocation.proceed();
+            statements.add(statement);
+            return statement;
+        }
+    }
+
+    /**
+     * 批处理执行器：相同 SQL 的连续更新合并为一批，刷新时返回每批的结果；
+     * 某一批执行失败时，之前已成功执行的批次随异常一并返回
+     */
+    @Test
+    public void batchExecutorTest() {
+        Configuration configuration = new XMLConfigBuilder(Resources.getResourceAsReader("datasource.xml")).parse();
+        configuration.addInterceptor(new FailingBatch("DELETE"));
+        SqlSessionFactory factory = new DefaultSqlSessionFactory(configuration);
+
+        try (SqlSession sqlSession = factory.openSession(ExecutorType.BATCH)) {
+            UserDao userDao = sqlSession.getMapper(UserDao.class);
+            userDao.updateInfo(newUser(-1L, "batch-1"));
+            userDao.updateInfo(newUser(-2L, "batch-2"));
+            List<BatchResult> results = sqlSession.flushStatements();
+            Assert.assertEquals(1, results.size());
+            Assert.assertEquals("com.code.dao.UserDao.updateInfo", results.get(0).getMappedStatement().getId());
+            Assert.assertEquals(2, results.get(0).getParameterObjects().size());
+            Assert.assertEquals(2, results.get(0).getUpdateCounts().length);
+            Assert.assertTrue(sqlSession.flushStatements().isEmpty());
+
+            // 第一批成功，第二批失败
+            userDao.updateInfo(newUser(-3L, "batch-3"));
+            userDao.delete("-4");
+            try {
+                sqlSession.flushStatements();
+                Assert.fail("批处理失败时应抛出异常");
+            } catch (RuntimeException e) {
+                Assert.assertTrue(e.getCause() instanceof BatchExecutorException);
+                BatchExecutorException failure = (BatchExecutorException) e.getCause();
+                Assert.assertEquals("com.code.dao.UserDao.delete", failure.getFailingStatementId());
+                Assert.assertTrue(failure.getFailingSqlStatement().startsWith("DELETE"));
+                Assert.assertNotNull(failure.getBatchUpdateException());
+                Assert.assertEquals(1, failure.getSuccessfulBatchResults().size());
+                Assert.assertEquals("com.code.dao.UserDao.updateInfo", failure.getSuccessfulBatchResults().get(0).getMappedStatement().getId());
+            }
+            // 失败后批次已清空，会话可以继续使用；不提交，关闭会话时回滚
+            Assert.assertTrue(sqlSession.flushStatements().isEmpty());
+        }
+    }
+
+    private User newUser(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
+    }
+
+    /**
+     * 让指定前缀的 SQL 在执行批处理时失败
+     */
+    @Intercepts({@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class})})
+    public static class FailingBatch implements Interceptor {
+
+        private final String prefix;
+
+        public FailingBatch(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            Statement statement = (Statement) invocation.proceed();
+            if (!((StatementHandler) invocation.getTarget()).getBoundsql().getSql().trim().startsWith(prefix)) {
+                return statement;
+            }
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{PreparedStatement.class}, (proxy, method, args) -> {
+                if ("executeBatch".equals(method.getName())) {
+                    throw new BatchUpdateException("模拟批处理失败", new int[0]);
+                }
+                try {
+                    return method.invoke(statement, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+
+    /**
+     * 多线程并发读写默认的二级缓存(FIFO + ConcurrentCache)：不抛异常且容量不超过上限
+     */
+    @Test
+    public void concurrentCacheTest() throws Exception {
+        Cache cache = new CacheBuilder("com.code.dao.TaskDao").size(1024).build();
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final int seed = i;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                for (int j = 0; j < 100_000; j++) {
+                    int key = random.nextInt(4096);
+                    if (cache.get(key) == null) {
+                        cache.put(key, key);
+                    }
+                    if (j % 97 == 0) {
+                        cache.remove(key);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        System.out.println("并发读写后缓存大小：" + cache.size());
+        Assert.assertTrue(cache.size() <= 1024);
+
+        // 写入与清空并发：清空后不会留下不在键队列中、永远淘汰不掉的值
+        FIFOCache fifo = new FIFOCache(new ConcurrentCache("fifo"));
+        fifo.setSize(64);
+        ExecutorService writers = Executors.newFixedThreadPool(threads);
+        List<Future<?>> writes = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final int seed = i;
+            writes.add(writers.submit(() -> {
+                Random random = new Random(seed);
+                for (int j = 0; j < 50_000; j++) {
+                    if (seed == 0 && j % 16 == 0) {
+                        fifo.clear();
+                    } else {
+                        fifo.put(random.nextInt(4096), j);
+                    }
+                }
+            }));
+        }
+        for (Future<?> write : writes) {
+            write.get();
+        }
+        writers.shutdown();
+        // 存入 64 个新键后，之前的值应当全部被淘汰
+        for (int i = 1; i <= 64; i++) {
+            fifo.put(-i, i);
+        }
+        Assert.assertEquals(64, fifo.size());
+    }
+
+    /**
+     * 淘汰策略命中率对比：Zipf(0.9) 分布的热点访问中周期性夹杂一次性扫描，
+     * TinyLFU 不让扫描的键挤占热点，命中率应明显高于 LRU 与 FIFO
+     */
+    @Test
+    public void evictionHitRatioTest() {
+        Random random = new Random(42);
+        int keyCount = 100_000;
+        double[] cdf = new double[keyCount];
+        double sum = 0;
+        for (int i = 0; i < keyCount; i++) {
+            sum += 1 / Math.pow(i + 1, 0.9);
+            cdf[i] = sum;
+        }
+        long[] trace = new long[1_000_000];
+        long scanKey = keyCount;
+        int length = 0;
+        while (length < trace.length) {
+            if (length > 0 && length % 50_000 == 0) {
+                // 一次性扫描 5000 个不再访问的键
+                for (int j = 0; j < 5_000 && length < trace.length; j++) {
+                    trace[length++] = scanKey++;
+                }
+                continue;
+            }
+            int index = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            trace[length++] = index < 0 ? -index - 1 : index;
+        }
+
+        Map<String, Double> hitRatios = new LinkedHashMap<>();
+        for (String eviction : List.of("FIFO", "LRU", "TINYLFU")) {
+            Class<? extends Cache> evictionClass = new Configuration().getTypeAliasRegistry().resolveAlias(eviction);
+            Cache cache = new CacheBuilder("com.code.dao.TaskDao").addDecorator(evictionClass).size(1000).build();
+            int hits = 0;
+            for (long key : trace) {
+                if (cache.get(key) != null) {
+                    hits++;
+                } else {
+                    cache.put(key, Boolean.TRUE);
+                }
+            }
+            hitRatios.put(eviction, hits * 100.0 / trace.length);
+            Assert.assertTrue(cache.size() <= 1000);
+        }
+        System.out.println("淘汰策略命中率(%)：" + hitRatios);
+        Assert.assertTrue(hitRatios.get("TINYLFU") > hitRatios.get("LRU"));
+        Assert.assertTrue(hitRatios.get("TINYLFU") > hitRatios.get("FIFO"));
+    }
+
+    /**
+     * 频率草图：4 位计数器上限为 15，累计记录次数达到容量的 10 倍时所有计数减半
+     */
+    @Test
+    public void frequencySketchAgingTest() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        Assert.assertEquals(0, sketch.frequency("hot"));
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("hot");
+        }
+        Assert.assertEquals(15, sketch.frequency("hot"));
+
+        int additions = 0;
+        while (sketch.frequency("hot") == 15) {
+            sketch.increment("key-" + additions++);
+            Assert.assertTrue(additions <= 10 * 1024);
+        }
+        Assert.assertEquals(7, sketch.frequency("hot"));
+    }
+
+    /**
+     * TinyLFU 准入：一次性扫描的键进不了主区，访问频率更高的新键挤出主区的淘汰候选
+     */
+    @Test
+    public void tinyLFUAdmissionTest() {
+        TinyLFUCache cache = new TinyLFUCache(new PerpetualCache("com.code.dao.TaskDao"));
+        // 窗口区 1 个，主区 99 个
+        cache.setSize(100);
+        for (int i = 0; i < 99; i++) {
+            cache.put("hot-" + i, i);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 99; i++) {
+                Assert.assertNotNull(cache.get("hot-" + i));
+            }
+        }
+
+        // 扫描缓存容量 2 倍的新键(不触发草图衰减)
+        for (int i = 0; i < 200; i++) {
+            cache.put("scan-" + i, i);
+        }
+        for (int i = 0; i < 99; i++) {
+            Assert.assertNotNull(cache.get("hot-" + i));
+        }
+        Assert.assertTrue(cache.size() <= 100);
+
+        cache.put("newcomer", -1);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNotNull(cache.get("newcomer"));
+        }
+        // 新键被挤出窗口区时频率高于主区的淘汰候选，被主区接纳
+        cache.put("scan-last", -2);
+        Assert.assertNotNull(cache.get("newcomer"));
+        int hot = 0;
+        for (int i = 0; i < 99; i++) {
+            if (cache.get("hot-" + i) != null) {
+                hot++;
+            }
+        }
+        Assert.assertEquals(98, hot);
+    }
+
+    /**
+     * 按内存预算限制二级缓存：总权重不超过 maxBytes，超出预算的大结果不缓存
+     */
+    @Test
+    public void weightedCacheTest() {
+        WeightedCache cache = (WeightedCache) new CacheBuilder("com.code.dao.TaskDao").maxBytes(1024L * 1024).build();
+        List<Task> bigResult = newTasks(50_000);
+        cache.put("big", bigResult);
+        Assert.assertNull(cache.get("big"));
+
+        for (int i = 0; i < 200; i++) {
+            cache.put(i, newTasks(100));
+            Assert.assertTrue(cache.getWeight() <= 1024L * 1024);
+        }
+        System.out.println("缓存条目数：" + cache.size() + "，估算占用：" + cache.getWeight() / 1024 + " KB");
+        Assert.assertNotNull(cache.get(199));
+        Assert.assertNull(cache.get(0));
+
+        // 内层 LRU 按条目数淘汰的键同样从权重统计中扣除
+        WeightedCache bounded = (WeightedCache) new CacheBuilder("com.code.dao.UserDao").addDecorator(LRUCache.class).size(10).maxBytes(1024L * 1024).build();
+        List<Task> value = newTasks(10);
+        long singleWeight = new ResultSizeWeigher().weigh(0, value);
+        for (int i = 0; i < 100; i++) {
+            bounded.put(i, newTasks(10));
+        }
+        Assert.assertEquals(10, bounded.size());
+        Assert.assertEquals(bounded.size() * singleWeight, bounded.getWeight());
+    }
+
+    @Test
+    public void mappedFileCacheTest() throws IOException {
+        String cacheFile = System.getProperty("java.io.tmpdir") + File.separator + "mapped-cache-test.cache";
+        new File(cacheFile).delete();
+        CacheKey cacheKey = new CacheKey("com.code.dao.TaskDao.queryTaskById", 0, Integer.MAX_VALUE, "select * from task where task_id = ?", 1L);
+        MappedFileCache cache = new MappedFileCache("com.code.dao.TaskDao");
+        cache.setCacheFile(cacheFile);
+        cache.setCapacity(64 * 1024);
+        cache.put(cacheKey, new ArrayList<>(Arrays.asList(1L, 2L, 3L)));
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L), cache.get(cacheKey));
+
+        // 文件被占用时其他实例不能使用
+        MappedFileCache concurrent = new MappedFileCache("com.code.dao.TaskDao");
+        concurrent.setCacheFile(cacheFile);
+        concurrent.setCapacity(64 * 1024);
+        try {
+            concurrent.size();
+            Assert.fail("缓存文件被占用时应当报错");
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+        }
+        cache.close();
+
+        // 重启后从文件恢复
+        MappedFileCache restarted = new MappedFileCache("com.code.dao.TaskDao");
+        restarted.setCacheFile(cacheFile);
+        restarted.setCapacity(64 * 1024);
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L), restarted.get(new CacheKey("com.code.dao.TaskDao.queryTaskById", 0, Integer.MAX_VALUE, "select * from task where task_id = ?", 1L)));
+
+        // 写满后压缩到新文件并淘汰最早的记录
+        for (int i = 0; i < 1000; i++) {
+            restarted.put(i, "task-" + i);
+        }
+        System.out.println("缓存条目数：" + restarted.size());
+        Assert.assertEquals("task-999", restarted.get(999));
+        Assert.assertNull(restarted.get(cacheKey));
+        int size = restarted.size();
+        restarted.close();
+        Assert.assertFalse(new File(cacheFile + ".compact").exists());
+
+        // 压缩后的文件重启后同样可以恢复
+        MappedFileCache reopened = new MappedFileCache("com.code.dao.TaskDao");
+        reopened.setCacheFile(cacheFile);
+        reopened.setCapacity(64 * 1024);
+        Assert.assertEquals(size, reopened.size());
+        Assert.assertEquals("task-999", reopened.get(999));
+        reopened.close();
+
+        // 默认文件被占用时改用独立的临时文件
+        MappedFileCache first = new MappedFileCache("com.code.dao.UserDao");
+        MappedFileCache second = new MappedFileCache("com.code.dao.UserDao");
+        first.put("user", 1L);
+        second.put("user", 2L);
+        Assert.assertEquals(1L, first.get("user"));
+        Assert.assertEquals(2L, second.get("user"));
+        first.close();
+        second.close();
+        // 默认目录只有当前用户可以访问
+        Path directory = Paths.get(System.getProperty("java.io.tmpdir"), "ormframework-cache-" + System.getProperty("user.name"));
+        Assert.assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(directory));
+
+        // 重启后读取的类不在白名单中时不反序列化，配置 serialFilter 后可以读取
+        new File(cacheFile).delete();
+        MappedFileCache writer = new MappedFileCache("com.code.dao.TaskDao");
+        writer.setCacheFile(cacheFile);
+        writer.setCapacity(64 * 1024);
+        writer.put("file", new File("task.txt"));
+        Assert.assertEquals(new File("task.txt"), writer.get("file"));
+        writer.close();
+        MappedFileCache reader = new MappedFileCache("com.code.dao.TaskDao");
+        reader.setCacheFile(cacheFile);
+        reader.setCapacity(64 * 1024);
+        Assert.assertNull(reader.get("file"));
+        reader.close();
+        reader.setSerialFilter("java.io.File");
+        Assert.assertEquals(new File("task.txt"), reader.get("file"));
+        reader.close();
+    }
+
+    @Test
+    public void scheduledCacheTest() throws Exception {
+        Cache expiring = new CacheBuilder("com.code.dao.TaskDao").timeToLive(200L).build();
+        expiring.put("task", 1L);
+        Assert.assertEquals(1L, expiring.get("task"));
+        // 时间轮删除过期的缓存项(精度为一格，按截止时间轮询而不是固定等待)
+        Assert.assertTrue(waitUntil(() -> expiring.size() == 0, 5000));
+        Assert.assertNull(expiring.get("task"));
+
+        Cache scheduled = new CacheBuilder("com.code.dao.UserDao").clearInterval(300L).build();
+        scheduled.put("user", 1L);
+        Assert.assertTrue(waitUntil(() -> scheduled.size() == 0, 5000));
+    }
+
+    /**
+     * 轮询条件直至成立或超时
+     *
+     * @param condition 条件
+     * @param timeout   超时时间(毫秒)
+     * @return boolean 超时前条件是否成立
+     */
+    private static boolean waitUntil(BooleanSupplier condition, long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(20);
+        }
+        return true;
+    }
+
+    @Test
+    public void blockingCacheTest() throws Exception {
+        Cache cache = new CacheBuilder("com.code.dao.TaskDao").blocking(true).build();
+        int threads = 16;
+        AtomicLong loads = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                Object value = cache.get("task");
+                if (value == null) {
+                    // 只有第一个未命中的线程加载，其余线程等待加载结果
+                    loads.incrementAndGet();
+                    Thread.sleep(100);
+                    value = newTasks(10);
+                    cache.put("task", value);
+                }
+                return value;
+            }));
+        }
+        start.countDown();
+        for (Future<Object> future : futures) {
+            Assert.assertNotNull(future.get());
+        }
+        pool.shutdown();
+        Assert.assertEquals(1, loads.get());
+
+        // 两个线程以相反顺序读取未命中的键，互相等待直至超时，而不是一直阻塞
+        BlockingCache blocking = (BlockingCache) cache;
+        Assert.assertEquals(BlockingCache.DEFAULT_TIMEOUT, blocking.getTimeout());
+        blocking.setTimeout(200);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService crossing = Executors.newFixedThreadPool(2);
+        List<Future<Object>> waits = new ArrayList<>();
+        for (String[] keys : new String[][]{{"a", "b"}, {"b", "a"}}) {
+            waits.add(crossing.submit(() -> {
+                blocking.get(keys[0]);
+                barrier.await();
+                return blocking.get(keys[1]);
+            }));
+        }
+        int timedOut = 0;
+        for (Future<Object> wait : waits) {
+            try {
+                wait.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                timedOut++;
+            }
+        }
+        crossing.shutdown();
+        Assert.assertTrue(timedOut > 0);
+    }
+
+    /**
+     * 查询合并：同一个键的并发查询只访问一次数据库，领头者的异常传给每一个等待者
+     */
+    @Test
+    public void singleFlightTest() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(5000);
+        int callers = 16;
+        ExecutorService executorService = Executors.newFixedThreadPool(callers);
+        try {
+            AtomicInteger queries = new AtomicInteger();
+            List<Future<List<Long>>> results = runConcurrently(executorService, callers, release ->
+                    singleFlight.execute(new CacheKey("com.code.dao.TaskDao.getById", 1L), () -> {
+                        queries.incrementAndGet();
+                        awaitQuietly(release);
+                        return new ArrayList<>(List.of(1L));
+                    }));
+            for (Future<List<Long>> result : results) {
+                Assert.assertEquals(List.of(1L), result.get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(1, queries.get());
+            Assert.assertEquals(1, singleFlight.getExecutions());
+            Assert.assertEquals(callers - 1, singleFlight.getCoalesced());
+
+            // 每个调用方随即修改自己拿到的结果，跟随者取得的是领头者返回前的快照，不受影响
+            List<Future<List<Long>>> modified = runConcurrently(executorService, callers, release -> {
+                List<Long> result = singleFlight.execute(new CacheKey("com.code.dao.TaskDao.getById", 3L), () -> {
+                    awaitQuietly(release);
+                    return new ArrayList<>(List.of(1L, 2L, 3L));
+                });
+                List<Long> seen = new ArrayList<>(result);
+                result.clear();
+                return seen;
+            });
+            for (Future<List<Long>> result : modified) {
+                Assert.assertEquals(List.of(1L, 2L, 3L), result.get(5, TimeUnit.SECONDS));
+            }
+
+            queries.set(0);
+            List<Future<List<Long>>> failures = runConcurrently(executorService, callers, release ->
+                    singleFlight.execute(new CacheKey("com.code.dao.TaskDao.getById", 2L), () -> {
+                        queries.incrementAndGet();
+                        awaitQuietly(release);
+                        throw new RuntimeException("数据库不可用");
+                    }));
+            for (Future<List<Long>> failure : failures) {
+                try {
+                    failure.get(5, TimeUnit.SECONDS);
+                    Assert.fail("领头者的异常应当传给每一个等待者");
+                } catch (ExecutionException e) {
+                    Assert.assertEquals("数据库不可用", e.getCause().getMessage());
+                }
+            }
+            Assert.assertEquals(1, queries.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * 并发发起调用，全部进入查询或等待后再放行
+     */
+    private <T> List<Future<T>> runConcurrently(ExecutorService executorService, int callers, Function<CountDownLatch, T> call) throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            futures.add(executorService.submit(() -> call.apply(release)));
+        }
+        Thread.sleep(200);
+        release.countDown();
+        return futures;
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void asyncSqlSessionTest() throws Exception {
+        Configuration configuration = new XMLConfigBuilder(Resources.getResourceAsReader("datasource.xml")).parse();
+        PoolDataSource pool = (PoolDataSource) configuration.getEnvironment().dataSource();
+        // 无锁连接池同样按最大活跃连接数确定并发数
+        BagDataSource bag = new BagDataSource();
+        bag.setDriver(pool.getDriver());
+        bag.setUrl(pool.getUrl());
+        bag.setUsername(pool.getUsername());
+        bag.setPassword(pool.getPassword());
+        bag.setPoolMaximumActiveConnections(2);
+        Environment environment = configuration.getEnvironment();
+        configuration.setEnvironment(new Environment(environment.id(), environment.transactionFactory(), bag));
+        configuration.setAsyncVirtualThreads(true);
+        configuration.setAsyncMaxQueued(1);
+        SqlSessionFactory factory = new DefaultSqlSessionFactory(configuration);
+
+        try (DefaultAsyncSqlSession asyncSession = (DefaultAsyncSqlSession) factory.openAsyncSession()) {
+            Assert.assertEquals(2, asyncSession.getConcurrency());
+
+            // 背压：容量 2 + 排队 1，第 4 个操作立即被拒绝
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                int value = i;
+                futures.add(asyncSession.execute(sqlSession -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return value;
+                }, false));
+            }
+            CompletableFuture<Integer> rejected = asyncSession.execute(sqlSession -> -1, false);
+            try {
+                rejected.join();
+                Assert.fail("超出在途上限的操作应当被拒绝");
+            } catch (CompletionException e) {
+                Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+            Assert.assertEquals(3, asyncSession.getInFlightCount());
+
+            // 同一配置上的异步会话共享并发上限，新会话不会额外占用连接
+            try (AsyncSqlSession another = factory.openAsyncSession()) {
+                try {
+                    another.execute(sqlSession -> -1, false).join();
+                    Assert.fail("其他会话同样受共享的在途上限限制");
+                } catch (CompletionException e) {
+                    Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+                }
+            }
+            // 关闭其他会话不影响共享的执行线程
+            Assert.assertEquals(3, asyncSession.getInFlightCount());
+
+            // 虚拟线程执行器不限线程数，同时执行的操作仍不超过连接池容量
+            Thread.sleep(200);
+            release.countDown();
+            for (int i = 0; i < futures.size(); i++) {
+                Assert.assertEquals(Integer.valueOf(i), futures.get(i).get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertTrue(peak.get() <= 2);
+
+            // 许可归还后可以继续提交，查询结果通过 Future 返回
+            List<Task> tasks = asyncSession.<Task>selectList("com.code.dao.TaskDao.getByIdAndName", new Task()).get(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(tasks);
+            Assert.assertEquals(0, asyncSession.getInFlightCount());
+        } finally {
+            bag.forceCloseAll();
+        }
+    }
+
+    @Test
+    public void fetchSizeAdvisorTest() throws Exception {
+        FetchSizeAdvisor advisor = new FetchSizeAdvisor(64 * 1024);
+        String statementId = "com.code.dao.TaskDao.queryTasks";
+        Assert.assertNull(advisor.advise(statementId));
+
+        // 点查：多取一行，让驱动在同一次往返中确认结果集已结束
+        advisor.record(statementId, 1, newMetaData(2, 8));
+        Assert.assertEquals(Integer.valueOf(2), advisor.advise(statementId));
+        // 指数移动平均：1 + 0.2 × (101 - 1) = 21 行
+        advisor.record(statementId, 101, newMetaData(2, 8));
+        Assert.assertEquals(Integer.valueOf(22), advisor.advise(statementId));
+
+        // 宽行大结果集：受单次往返内存预算限制，(4096 + 16) × 4 字节一行，64 KB 只能取 3 行
+        String exportId = "com.code.dao.TaskDao.exportTasks";
+        advisor.record(exportId, 1_000_000, newMetaData(4, 1 << 20));
+        Assert.assertEquals(Integer.valueOf(3), advisor.advise(exportId));
+
+        // 游标读取的行数同样计入统计
+        Configuration configuration = new XMLConfigBuilder(Resources.getResourceAsReader("datasource.xml")).parse();
+        configuration.setAdaptiveFetchSize(true);
+        SqlSessionFactory factory = new DefaultSqlSessionFactory(configuration);
+        try (SqlSession sqlSession = factory.openSession();
+             Cursor<Long> cursor = sqlSession.getMapper(TaskDao.class).scanSequence()) {
+            int count = 0;
+            for (Long ignored : cursor) {
+                if (++count == 10) {
+                    break;
+                }
+            }
+        }
+        Assert.assertEquals(Integer.valueOf(11), configuration.getFetchSizeAdvisor().advise("com.code.dao.TaskDao.scanSequence"));
+    }
+
+    /**
+     * 映射语句只保存自身配置的超时时间，全局默认值在执行时回退，解析后修改默认值同样生效
+     */
+    @Test
+    public void statementTimeoutTest() throws SQLException {
+        Configuration configuration = new XMLConfigBuilder(Resources.getResourceAsReader("datasource.xml")).parse();
+        MappedStatement mappedStatement = configuration.getMappedStatement("com.code.dao.TaskDao.getById");
+        Assert.assertNull(mappedStatement.getTimeout());
+
+        List<Object> timeouts = new ArrayList<>();
+        Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class}, (proxy, method, args) ->
+                Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{PreparedStatement.class}, (statement, statementMethod, statementArgs) -> {
+                    if ("setQueryTimeout".equals(statementMethod.getName())) {
+                        timeouts.add(statementArgs[0]);
+                    }
+                    return null;
+                }));
+        newStatementHandler(configuration, mappedStatement, RowBounds.DEFAULT).prepare(connection);
+        configuration.setDefaultStatementTimeout(7);
+        newStatementHandler(configuration, mappedStatement, RowBounds.DEFAULT).prepare(connection);
+        // datasource.xml 中的全局默认值为 350 秒
+        Assert.assertEquals(Arrays.asList(350, 7), timeouts);
+    }
+
+    /**
+     * 每列显示宽度相同的结果集元数据
+     */
+    private ResultSetMetaData newMetaData(int columns, int displaySize) {
+        return (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getColumnCount":
+                    return columns;
+                case "getColumnDisplaySize":
+                    return displaySize;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    @Test
+    public void paginationDialectTest() {
+        Dialect mysql = new MySqlDialect();
+        Assert.assertEquals("select * from task LIMIT 20", mysql.getLimitString("select * from task", 0, 20));
+        Assert.assertEquals("select * from task LIMIT 40, 20", mysql.getLimitString("select * from task", 40, 20));
+        Assert.assertEquals("select * from task LIMIT 40, 18446744073709551615", mysql.getLimitString("select * from task", 40, RowBounds.NO_ROW_LIMIT));
+
+        Dialect postgres = new PostgreSqlDialect();
+        Assert.assertEquals("select * from task LIMIT 20 OFFSET 40", postgres.getLimitString("select * from task", 40, 20));
+        Assert.assertEquals("select * from task OFFSET 40", postgres.getLimitString("select * from task", 40, RowBounds.NO_ROW_LIMIT));
+
+        // 键集分页：原查询作为派生表，外层按键列排序并从上一页最后一个键值之后读取
+        Assert.assertEquals("SELECT * FROM (select * from task t) page_ WHERE page_.task_id > ? ORDER BY page_.task_id ASC LIMIT 20",
+                mysql.getKeysetString("select * from task t", "t.task_id", false, true, 20));
+        Assert.assertEquals("SELECT * FROM (select * from task) page_ ORDER BY page_.task_id DESC LIMIT 20",
+                postgres.getKeysetString("select * from task", "task_id", true, false, 20));
+    }
+
+    @Test
+    public void paginationInterceptorTest() throws SQLException {
+        Configuration configuration = new Configuration();
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, "com.code.dao.TaskDao.queryTasks", SqlCommandType.SELECT,
+                new StaticSqlSource("select * from task;", new ArrayList<>(), configuration), Task.class).resultMaps(new ArrayList<>()).build();
+        List<Object[]> prepared = new ArrayList<>();
+        Connection connection = newRecordingConnection(prepared);
+
+        // 未注册分页插件：键集分页直接报错，偏移分页使用只能向前读取的结果集，由结果集处理器逐行跳过
+        try {
+            newStatementHandler(configuration, mappedStatement, new KeysetRowBounds("task_id", 100L, 20)).prepare(connection);
+            Assert.fail("未注册分页插件时键集分页应当报错");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage().contains("PaginationInterceptor"));
+        }
+        newStatementHandler(configuration, mappedStatement, new RowBounds(40, 20)).prepare(connection);
+        Assert.assertEquals(1, prepared.get(0).length);
+
+        // 注册分页插件后改写为物理分页与键集分页
+        PaginationInterceptor interceptor = new PaginationInterceptor();
+        Properties properties = new Properties();
+        properties.setProperty("dialect", "postgresql");
+        interceptor.setProperties(properties);
+        configuration.addInterceptor(interceptor);
+
+        newStatementHandler(configuration, mappedStatement, new RowBounds(40, 20)).prepare(connection);
+        Assert.assertEquals("select * from task LIMIT 20 OFFSET 40", prepared.get(1)[0]);
+        Assert.assertEquals(1, prepared.get(1).length);
+
+        StatementHandler keysetHandler = newStatementHandler(configuration, mappedStatement, new KeysetRowBounds("task_id", 100L, 20));
+        keysetHandler.prepare(connection);
+        Assert.assertEquals("SELECT * FROM (select * from task) page_ WHERE page_.task_id > ? ORDER BY page_.task_id ASC LIMIT 20", prepared.get(2)[0]);
+        BoundSql keysetSql = keysetHandler.getBoundsql();
+        List<ParameterMapping> parameterMappings = keysetSql.getParameterMappings();
+        Assert.assertEquals(PaginationInterceptor.LAST_KEY_PARAMETER, parameterMappings.get(parameterMappings.size() - 1).getProperty());
+        Assert.assertEquals(100L, keysetSql.getAdditionalParameter(PaginationInterceptor.LAST_KEY_PARAMETER));
+    }
+
+    private StatementHandler newStatementHandler(Configuration configuration, MappedStatement mappedStatement, RowBounds rowBounds) {
+        return configuration.newStatementHandler(null, mappedStatement, null, rowBounds, null, mappedStatement.getBoundSql(null));
+    }
+
+    /**
+     * 记录 prepareStatement 参数的连接(语句上的调用都返回默认值)
+     */
+    private Connection newRecordingConnection(List<Object[]> prepared) {
+        InvocationHandler defaults = (proxy, method, args) -> method.getReturnType() == boolean.class ? false : method.getReturnType() == int.class ? 0 : null;
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class}, (proxy, method, args) -> {
+            if ("prepareStatement".equals(method.getName())) {
+                prepared.add(args);
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{PreparedStatement.class}, defaults);
+            }
+            return defaults.invoke(proxy, method, args);
+        });
+    }
+
+    private List<Task> newTasks(int rows) {
+        List<Task> tasks = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            tasks.add(new Task((long) i, (long) i, "task-" + i, "description of task " + i, new Date(), new Date()));
+        }
+        return tasks;
+    }
+
+    private PoolDataSource newStandIn() {
+        return (PoolDataSource) new XMLConfigBuilder(Resources.getResourceAsReader("datasource.xml")).parse().getEnvironment().dataSource();
+    }
+
+    /**
+     * 与 datasource.xml 连接同一个库的无锁连接池
+     */
+    private BagDataSource newBagStandIn() {
+        PoolDataSource pool = newStandIn();
+        BagDataSource bag = new BagDataSource();
+        bag.setDriver(pool.getDriver());
+        bag.setUrl(pool.getUrl());
+        bag.setUsername(pool.getUsername());
+        bag.setPassword(pool.getPassword());
+        return bag;
+    }
 }
@@ -1,6 +1,7 @@
 package com.code.dao;
 
 import com.code.annotations.Select;
+import com.code.cursor.Cursor;
 import com.code.entity.Task;
 
 import java.util.List;
@@ -10,4 +11,6 @@ public interface TaskDao {
     Task getById(Long taskId);
 
     List<Task> getByIdAndName(Task task);
+
+    Cursor<Long> scanSequence();
 }
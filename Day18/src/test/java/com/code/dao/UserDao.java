@@ -47,6 +47,17 @@ public interface UserDao {
             "        VALUES (#{id},#{username},#{password},#{avatar});")
     void save(User user);
 
+    /**
+     * 批量保存用户(展开为多行插入)
+     *
+     * @param users 用户
+     * @return int 插入的行数
+     */
+    @Insert(value = "INSERT INTO user\n" +
+            "        (id,username,password,avatar)\n" +
+            "        VALUES (#{id},#{username},#{password},#{avatar});", multiRow = true)
+    int saveAll(List<User> users);
+
     /**
      * 更新用户信息
      *